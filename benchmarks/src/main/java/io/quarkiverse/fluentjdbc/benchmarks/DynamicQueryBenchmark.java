@@ -0,0 +1,109 @@
+package io.quarkiverse.fluentjdbc.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.quarkiverse.fluentjdbc.runtime.DynamicQuery;
+import io.quarkiverse.fluentjdbc.runtime.DynamicQuery.QueryResult;
+import io.quarkiverse.fluentjdbc.runtime.QueryTemplate;
+
+/**
+ * Measures building dynamic select and update queries, with half of the parameters being null.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicQueryBenchmark {
+
+    static final String[] SELECT_CLAUSES = {
+            "lower(name) = lower(:name)",
+            "lower(type) = lower(:type)",
+            "calories < :cal",
+            "carbohydrates > :carb",
+            "fiber between :minFib and :maxFib",
+            "sugars",
+            "fat",
+            "protein"
+    };
+
+    static final String[] UPDATE_CLAUSES = { "name", "type", "calories", "carbohydrates", "fiber", "sugars", "fat",
+            "protein" };
+
+    static final QueryTemplate SELECT_TEMPLATE = new DynamicQuery().selectClauses(SELECT_CLAUSES).template();
+    static final QueryTemplate UPDATE_TEMPLATE = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").template();
+
+    SearchCriteria criteria = new SearchCriteria("apple", null, BigDecimal.TEN, null, BigDecimal.ONE, BigDecimal.TEN,
+            null, BigDecimal.TWO, null, "GT");
+    FruitPUT fruit = new FruitPUT("apple", null, BigDecimal.TEN, null, BigDecimal.ONE, null, BigDecimal.TWO, null);
+
+    @Benchmark
+    public QueryResult select() {
+        return new DynamicQuery()
+                .selectClauses(SELECT_CLAUSES)
+                .params(this.criteria.name(), this.criteria.type(), this.criteria.cal(), this.criteria.carb(),
+                        this.criteria.minFib(), this.criteria.maxFib(), this.criteria.sugars(), this.criteria.fat(),
+                        this.criteria.protein())
+                .build();
+    }
+
+    @Benchmark
+    public QueryResult update() {
+        return new DynamicQuery()
+                .updateClauses(UPDATE_CLAUSES)
+                .where("id")
+                .params(this.fruit.name(), this.fruit.type(), this.fruit.calories(), this.fruit.carbohydrates(),
+                        this.fruit.fiber(), this.fruit.sugars(), this.fruit.fat(), this.fruit.protein(), 1L)
+                .build();
+    }
+
+    @Benchmark
+    public QueryResult selectTemplate() {
+        return SELECT_TEMPLATE.build(this.criteria.name(), this.criteria.type(), this.criteria.cal(), this.criteria.carb(),
+                this.criteria.minFib(), this.criteria.maxFib(), this.criteria.sugars(), this.criteria.fat(),
+                this.criteria.protein());
+    }
+
+    @Benchmark
+    public QueryResult updateTemplate() {
+        return UPDATE_TEMPLATE.build(this.fruit.name(), this.fruit.type(), this.fruit.calories(), this.fruit.carbohydrates(),
+                this.fruit.fiber(), this.fruit.sugars(), this.fruit.fat(), this.fruit.protein(), 1L);
+    }
+
+    @Benchmark
+    public QueryResult selectParamsFromDto() {
+        return new DynamicQuery()
+                .selectClauses(SELECT_CLAUSES)
+                .paramsFromDto(this.criteria, name -> !name.endsWith("Op"))
+                .build();
+    }
+
+    @Benchmark
+    public QueryResult updateParamsFromDto() {
+        return new DynamicQuery()
+                .updateClauses(UPDATE_CLAUSES)
+                .where("id")
+                .paramsFromDto(this.fruit, 1L)
+                .build();
+    }
+
+    public record SearchCriteria(String name, String type, BigDecimal cal, BigDecimal carb, BigDecimal minFib,
+            BigDecimal maxFib, BigDecimal sugars, BigDecimal fat, BigDecimal protein, String calOp) {
+    }
+
+    public record FruitPUT(String name, String type, BigDecimal calories, BigDecimal carbohydrates, BigDecimal fiber,
+            BigDecimal sugars, BigDecimal fat, BigDecimal protein) {
+    }
+}
@@ -0,0 +1,60 @@
+package io.quarkiverse.fluentjdbc.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.UUID;
+
+import org.h2.tools.SimpleResultSet;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class Fruits {
+
+    private Fruits() {
+    }
+
+    /**
+     * @return an in-memory result set, which can be iterated several times, so only the mapping is measured.
+     */
+    static SimpleResultSet resultSet(int rows) {
+        var rs = new SimpleResultSet();
+        rs.setAutoClose(false);
+        rs.addColumn("id", Types.BIGINT, 19, 0);
+        rs.addColumn("ext_id", Types.OTHER, 0, 0);
+        rs.addColumn("name", Types.VARCHAR, 255, 0);
+        rs.addColumn("type", Types.VARCHAR, 255, 0);
+        rs.addColumn("calories", Types.DECIMAL, 10, 2);
+        rs.addColumn("carbohydrates", Types.DECIMAL, 10, 2);
+        rs.addColumn("fiber", Types.DECIMAL, 10, 2);
+        rs.addColumn("amount", Types.INTEGER, 10, 0);
+
+        for (int i = 0; i < rows; i++) {
+            rs.addRow((long) i, UUID.randomUUID(), "fruit-" + i, i % 2 == 0 ? "apple" : "pear",
+                    BigDecimal.valueOf(i, 2), BigDecimal.valueOf(i * 2L, 2), BigDecimal.valueOf(i * 3L, 2), i);
+        }
+        return rs;
+    }
+
+    public record Fruit(
+            Long id,
+            UUID extId,
+            String name,
+            String type,
+            BigDecimal calories,
+            BigDecimal carbohydrates,
+            BigDecimal fiber,
+            int amount) {
+    }
+
+    /**
+     * The numeric columns only, which are read without boxing.
+     */
+    public record Nutrition(
+            long id,
+            double calories,
+            double carbohydrates,
+            double fiber,
+            int amount) {
+    }
+}
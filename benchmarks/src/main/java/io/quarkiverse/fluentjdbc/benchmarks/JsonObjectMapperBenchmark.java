@@ -0,0 +1,71 @@
+package io.quarkiverse.fluentjdbc.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import io.quarkiverse.fluentjdbc.runtime.JsonObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * Measures the {@link JsonObjectMapper} when mapping or writing all rows of a result set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonObjectMapperBenchmark {
+
+    JsonObjectMapper mapper = new JsonObjectMapper();
+
+    JsonFactory jsonFactory = new JsonFactory();
+
+    @Benchmark
+    public void map(ResultSetState state, Blackhole blackhole) throws SQLException {
+        var rs = state.rewind();
+        while (rs.next()) {
+            blackhole.consume(this.mapper.map(rs));
+        }
+    }
+
+    // the rows as a JSON response, by encoding a JsonObject per row
+    @Benchmark
+    public Buffer mapAndEncode(ResultSetState state) throws SQLException {
+        var rs = state.rewind();
+        var rows = new JsonArray();
+        while (rs.next()) {
+            rows.add(this.mapper.map(rs));
+        }
+        return rows.toBuffer();
+    }
+
+    // the rows as a JSON response, by writing the rows directly
+    @Benchmark
+    public void writeRows(ResultSetState state) throws SQLException, IOException {
+        var rs = state.rewind();
+        try (var generator = this.jsonFactory.createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            while (rs.next()) {
+                this.mapper.writeRow(generator, rs);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
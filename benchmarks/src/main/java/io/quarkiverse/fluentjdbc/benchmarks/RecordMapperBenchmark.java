@@ -0,0 +1,59 @@
+package io.quarkiverse.fluentjdbc.benchmarks;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.quarkiverse.fluentjdbc.runtime.RecordMapper;
+
+/**
+ * Compares the strategies of the {@link RecordMapper} when mapping all rows of a result set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordMapperBenchmark {
+
+    @Param({ "REFLECTION", "METHOD_HANDLE" })
+    RecordMapper.Strategy strategy;
+
+    RecordMapper<Fruits.Fruit> mapper;
+    RecordMapper<Fruits.Nutrition> nutritionMapper;
+
+    @Setup
+    public void setup() {
+        this.mapper = new RecordMapper<>(Fruits.Fruit.class, true, this.strategy);
+        this.nutritionMapper = new RecordMapper<>(Fruits.Nutrition.class, true, this.strategy);
+    }
+
+    @Benchmark
+    public void map(ResultSetState state, Blackhole blackhole) throws SQLException {
+        var rs = state.rewind();
+        while (rs.next()) {
+            blackhole.consume(this.mapper.map(rs));
+        }
+    }
+
+    @Benchmark
+    public void mapPrimitives(ResultSetState state, Blackhole blackhole) throws SQLException {
+        var rs = state.rewind();
+        while (rs.next()) {
+            blackhole.consume(this.nutritionMapper.map(rs));
+        }
+    }
+}
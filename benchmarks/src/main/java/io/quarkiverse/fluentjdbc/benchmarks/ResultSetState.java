@@ -0,0 +1,89 @@
+package io.quarkiverse.fluentjdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A result set with fruits that can be iterated repeatedly:
+ * <ul>
+ * <li>mock: an in-memory {@link org.h2.tools.SimpleResultSet}, which measures the mapping only,
+ * <li>h2: a scrollable result set of a query on an in-memory H2 database, which includes the cost of the driver getters.
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class ResultSetState {
+
+    @Param({ "1000" })
+    int rows;
+
+    @Param({ "mock", "h2" })
+    String source;
+
+    Connection connection;
+    ResultSet resultSet;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        if ("mock".equals(this.source)) {
+            this.resultSet = Fruits.resultSet(this.rows);
+            return;
+        }
+
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:benchmarks");
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("""
+                    create table fruit (
+                        id bigint primary key,
+                        ext_id uuid,
+                        name varchar(255),
+                        type varchar(255),
+                        calories decimal(10,2),
+                        carbohydrates decimal(10,2),
+                        fiber decimal(10,2),
+                        amount int
+                    )
+                    """);
+        }
+
+        try (var insert = this.connection.prepareStatement("insert into fruit values (?, ?, ?, ?, ?, ?, ?, ?)");
+                var fruits = Fruits.resultSet(this.rows)) {
+            while (fruits.next()) {
+                for (int i = 1; i <= 8; i++) {
+                    insert.setObject(i, fruits.getObject(i));
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        this.resultSet = this.connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY)
+                .executeQuery("select * from fruit order by id");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (this.connection != null) {
+            try (var stmt = this.connection.createStatement()) {
+                stmt.execute("drop table fruit");
+            }
+            this.connection.close();
+        }
+    }
+
+    /**
+     * Moves the cursor before the first row, so the result set can be iterated again.
+     */
+    ResultSet rewind() throws SQLException {
+        this.resultSet.beforeFirst();
+        return this.resultSet;
+    }
+}
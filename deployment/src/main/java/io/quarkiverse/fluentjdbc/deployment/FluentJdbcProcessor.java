@@ -1,22 +1,80 @@
 package io.quarkiverse.fluentjdbc.deployment;
 
 import static io.quarkus.deployment.annotations.ExecutionTime.RUNTIME_INIT;
+import static io.quarkus.deployment.annotations.ExecutionTime.STATIC_INIT;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 import jakarta.inject.Singleton;
 
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.ParamSetter;
+import org.codejargon.fluentjdbc.api.query.Query;
+import org.jboss.jandex.ClassType;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.Type;
+import org.jboss.logging.Logger;
 
+import io.quarkiverse.fluentjdbc.runtime.FluentJdbcConfig;
+import io.quarkiverse.fluentjdbc.runtime.FluentJdbcMetrics;
 import io.quarkiverse.fluentjdbc.runtime.FluentJdbcRecorder;
+import io.quarkiverse.fluentjdbc.runtime.FluentJdbcTracing;
+import io.quarkiverse.fluentjdbc.runtime.MappedRecord;
+import io.quarkiverse.fluentjdbc.runtime.ParsedSql;
+import io.quarkiverse.fluentjdbc.runtime.QueryCache;
+import io.quarkiverse.fluentjdbc.runtime.ReactiveFluentJdbc;
+import io.quarkiverse.fluentjdbc.runtime.RecordMapper;
+import io.quarkiverse.fluentjdbc.runtime.Repositories;
+import io.quarkiverse.fluentjdbc.runtime.Sql;
+import io.quarkiverse.fluentjdbc.runtime.StatementObserver;
+import io.quarkiverse.fluentjdbc.runtime.WriteBatcher;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.agroal.spi.JdbcDataSourceBuildItem;
 import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
+import io.quarkus.arc.deployment.GeneratedBeanBuildItem;
+import io.quarkus.arc.deployment.GeneratedBeanGizmoAdaptor;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.arc.deployment.UnremovableBeanBuildItem;
+import io.quarkus.arc.processor.BuiltinScope;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.deployment.Capabilities;
+import io.quarkus.deployment.Capability;
+import io.quarkus.deployment.GeneratedClassGizmoAdaptor;
+import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
 import io.quarkus.deployment.annotations.Record;
+import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.GeneratedClassBuildItem;
 import io.quarkus.deployment.builditem.nativeimage.ReflectiveClassBuildItem;
+import io.quarkus.deployment.metrics.MetricsCapabilityBuildItem;
+import io.quarkus.deployment.util.IoUtil;
+import io.quarkus.runtime.metrics.MetricsFactory;
 
 public class FluentJdbcProcessor {
 
+    private static final Logger LOG = Logger.getLogger(FluentJdbcProcessor.class);
+
+    static final DotName FLUENT_JDBC = DotName.createSimple(FluentJdbc.class);
+    static final DotName DATA_SOURCE = DotName.createSimple(DataSource.class);
+    static final DotName MAPPED_RECORD = DotName.createSimple(MappedRecord.class);
+    static final DotName RECORD_MAPPER = DotName.createSimple(RecordMapper.class);
+    static final DotName STATEMENT_OBSERVER = DotName.createSimple(StatementObserver.class);
+    static final DotName QUERY = DotName.createSimple(Query.class);
+    // by name, as the QueryCache requires the optional caffeine extension
+    static final DotName QUERY_CACHE = DotName.createSimple("io.quarkiverse.fluentjdbc.runtime.QueryCache");
+    static final DotName SQL = DotName.createSimple(Sql.class);
+
     @BuildStep
     FeatureBuildItem feature() {
         return new FeatureBuildItem("fluent-jdbc");
@@ -37,15 +95,222 @@ public class FluentJdbcProcessor {
                 .build();
     }
 
+    @BuildStep
+    void registerStatementObservers(Optional<MetricsCapabilityBuildItem> metricsCapability, Capabilities capabilities,
+            FluentJdbcConfig config, BuildProducer<AdditionalBeanBuildItem> additionalBeans,
+            BuildProducer<UnremovableBeanBuildItem> unremovableBeans) {
+        // the observers are looked up by the recorder
+        unremovableBeans.produce(UnremovableBeanBuildItem.beanTypes(STATEMENT_OBSERVER));
+
+        var micrometer = metricsCapability.map(metrics -> metrics.metricsSupported(MetricsFactory.MICROMETER)).orElse(false);
+        if (micrometer && config.metrics().enabled()) {
+            additionalBeans.produce(statementObserver(FluentJdbcMetrics.class));
+        }
+        if (capabilities.isPresent(Capability.OPENTELEMETRY_TRACER) && config.tracing().enabled()) {
+            additionalBeans.produce(statementObserver(FluentJdbcTracing.class));
+        }
+        if (config.cache().enabled()) {
+            if (QuarkusClassLoader.isClassPresentAtRuntime("com.github.benmanes.caffeine.cache.Caffeine")) {
+                additionalBeans.produce(statementObserver(QueryCache.class));
+            } else {
+                LOG.warn("The QueryCache is not available, quarkus.fluentjdbc.cache.enabled requires the quarkus-caffeine"
+                        + " extension");
+            }
+        }
+    }
+
+    @BuildStep
+    void registerWriteBatcher(FluentJdbcConfig config, BuildProducer<AdditionalBeanBuildItem> additionalBeans) {
+        if (config.writeBatcher().enabled()) {
+            additionalBeans.produce(AdditionalBeanBuildItem.builder()
+                    .addBeanClass(WriteBatcher.class)
+                    .setDefaultScope(BuiltinScope.SINGLETON.getName())
+                    .setUnremovable()
+                    .build());
+        }
+    }
+
+    private static AdditionalBeanBuildItem statementObserver(Class<? extends StatementObserver> observer) {
+        return AdditionalBeanBuildItem.builder()
+                .addBeanClass(observer)
+                .setDefaultScope(BuiltinScope.SINGLETON.getName())
+                .setUnremovable()
+                .build();
+    }
+
+    /**
+     * Registers the default FluentJdbc bean, and a bean qualified with <code>@DataSource("name")</code> per named
+     * datasource.
+     */
     @BuildStep
     @Record(RUNTIME_INIT)
-    SyntheticBeanBuildItem registerFluentJdbcProducer(FluentJdbcRecorder recorder) {
-        return SyntheticBeanBuildItem
+    void registerFluentJdbcProducers(FluentJdbcRecorder recorder, List<JdbcDataSourceBuildItem> dataSources,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+        syntheticBeans.produce(SyntheticBeanBuildItem
                 .configure(FluentJdbc.class)
                 .setRuntimeInit()
                 .scope(Singleton.class)
                 .unremovable()
-                .runtimeValue(recorder.createFluentJdbc())
+                .runtimeValue(recorder.createFluentJdbc(DataSourceUtil.DEFAULT_DATASOURCE_NAME))
+                .done());
+
+        for (var dataSource : dataSources) {
+            if (dataSource.isDefault()) {
+                continue;
+            }
+            syntheticBeans.produce(SyntheticBeanBuildItem
+                    .configure(FluentJdbc.class)
+                    .setRuntimeInit()
+                    .scope(Singleton.class)
+                    .unremovable()
+                    .addQualifier().annotation(DATA_SOURCE).addValue("value", dataSource.getName()).done()
+                    .runtimeValue(recorder.createFluentJdbc(dataSource.getName()))
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(RUNTIME_INIT)
+    SyntheticBeanBuildItem registerReactiveFluentJdbcProducer(FluentJdbcRecorder recorder) {
+        return SyntheticBeanBuildItem
+                .configure(ReactiveFluentJdbc.class)
+                .setRuntimeInit()
+                .scope(Singleton.class)
+                .addInjectionPoint(ClassType.create(FLUENT_JDBC))
+                .createWith(recorder.createReactiveFluentJdbc())
                 .done();
     }
+
+    @BuildStep
+    void generateRecordFactories(CombinedIndexBuildItem combinedIndex,
+            BuildProducer<GeneratedClassBuildItem> generatedClasses,
+            BuildProducer<RecordFactoryBuildItem> recordFactories) {
+        var index = combinedIndex.getIndex();
+        var generator = new RecordFactoryGenerator(index, new GeneratedClassGizmoAdaptor(generatedClasses, true));
+
+        for (var recordName : mappedRecords(index)) {
+            var record = index.getClassByName(recordName);
+            if (record == null || !generator.isSupported(record)) {
+                LOG.debugf("No mapper generated for record %s, the reflection based RecordMapper is used instead", recordName);
+                continue;
+            }
+            recordFactories.produce(new RecordFactoryBuildItem(recordName.toString(), generator.generate(record)));
+        }
+    }
+
+    /**
+     * Generates the implementations of the repository interfaces, see {@link Repositories}, and fails the build when
+     * a method is invalid.
+     */
+    @BuildStep
+    void generateRepositories(CombinedIndexBuildItem combinedIndex, BuildProducer<GeneratedBeanBuildItem> generatedBeans,
+            BuildProducer<GeneratedClassBuildItem> generatedClasses) {
+        var index = combinedIndex.getIndex();
+        var generator = new RepositoryGenerator(index, new GeneratedBeanGizmoAdaptor(generatedBeans),
+                new GeneratedClassGizmoAdaptor(generatedClasses, true));
+
+        for (var repository : RepositoryGenerator.repositories(index)) {
+            LOG.debugf("Generated repository %s", generator.generate(index.getClassByName(repository)));
+        }
+        if (!generator.errors().isEmpty()) {
+            throw new IllegalStateException("Invalid repositories:\n\t- " + String.join("\n\t- ", generator.errors()));
+        }
+    }
+
+    @BuildStep
+    @Record(STATIC_INIT)
+    void registerRecordFactories(FluentJdbcRecorder recorder, List<RecordFactoryBuildItem> recordFactories) {
+        for (var recordFactory : recordFactories) {
+            recorder.registerRecordFactory(recordFactory.getRecordType(), recordFactory.getRecordFactory());
+        }
+    }
+
+    /**
+     * Parses the constant queries of the application, see {@link Sql}, and fails the build when one is invalid.
+     */
+    @BuildStep
+    void parseSql(CombinedIndexBuildItem combinedIndex, FluentJdbcConfig config,
+            BuildProducer<ParsedSqlBuildItem> parsedSqls) throws IOException {
+        if (!config.sqlValidation().enabled()) {
+            return;
+        }
+        var index = combinedIndex.getIndex();
+
+        // the expected number of parameters of the @Sql fields, by class and field
+        var sqlFields = new HashMap<DotName, Map<String, Integer>>();
+        for (var annotation : index.getAnnotations(SQL)) {
+            var field = annotation.target().asField();
+            var params = annotation.value("params");
+            sqlFields.computeIfAbsent(field.declaringClass().name(), name -> new HashMap<>())
+                    .put(field.name(), params != null ? params.asInt() : -1);
+        }
+        var classes = new TreeSet<>(sqlFields.keySet());
+        index.getKnownUsers(QUERY).forEach(user -> classes.add(user.name()));
+        index.getKnownUsers(QUERY_CACHE).forEach(user -> classes.add(user.name()));
+
+        var scanner = new SqlScanner();
+        var classLoader = Thread.currentThread().getContextClassLoader();
+        for (var className : classes) {
+            var classBytes = IoUtil.readClassAsBytes(classLoader, className.toString());
+            if (classBytes != null) {
+                scanner.scan(classBytes, sqlFields.getOrDefault(className, Map.of()));
+            }
+        }
+
+        var errors = new ArrayList<>(scanner.errors());
+        var parsed = new LinkedHashMap<String, ParsedSql>();
+        for (var statement : scanner.statements()) {
+            try {
+                var parsedSql = ParsedSql.parse(statement.sql());
+                var error = SqlScanner.validate(statement, parsedSql);
+                if (error != null) {
+                    errors.add(error);
+                } else {
+                    parsed.putIfAbsent(statement.sql(), parsedSql);
+                }
+            } catch (IllegalArgumentException e) {
+                errors.add("%s: %s".formatted(statement.location(), e.getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid queries:\n\t- " + String.join("\n\t- ", errors));
+        }
+
+        LOG.debugf("Parsed %d constant queries", parsed.size());
+        parsed.values().forEach(parsedSql -> parsedSqls.produce(new ParsedSqlBuildItem(parsedSql)));
+    }
+
+    @BuildStep
+    @Record(STATIC_INIT)
+    void registerParsedSql(FluentJdbcRecorder recorder, List<ParsedSqlBuildItem> parsedSqls) {
+        for (var parsedSql : parsedSqls) {
+            var parsed = parsedSql.getParsedSql();
+            recorder.registerParsedSql(parsed.sql(), parsed.positionalSql(), parsed.paramCount(), parsed.paramNames());
+        }
+    }
+
+    /**
+     * @return the records annotated with {@link MappedRecord}, the records used in fields of type
+     *         <code>RecordMapper&lt;MyRecord&gt;</code> and the records returned by repositories.
+     */
+    private static Set<DotName> mappedRecords(IndexView index) {
+        var result = new TreeSet<DotName>();
+        for (var annotation : index.getAnnotations(MAPPED_RECORD)) {
+            result.add(annotation.target().asClass().name());
+        }
+
+        for (var user : index.getKnownUsers(RECORD_MAPPER)) {
+            for (var field : user.fields()) {
+                var type = field.type();
+                if (type.kind() == Type.Kind.PARAMETERIZED_TYPE && type.name().equals(RECORD_MAPPER)) {
+                    var argument = type.asParameterizedType().arguments().get(0);
+                    if (argument.kind() == Type.Kind.CLASS) {
+                        result.add(argument.name());
+                    }
+                }
+            }
+        }
+        result.addAll(RepositoryGenerator.mappedRecords(index));
+        return result;
+    }
 }
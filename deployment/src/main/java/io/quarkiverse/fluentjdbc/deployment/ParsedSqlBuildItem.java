@@ -0,0 +1,20 @@
+package io.quarkiverse.fluentjdbc.deployment;
+
+import io.quarkiverse.fluentjdbc.runtime.ParsedSql;
+import io.quarkus.builder.item.MultiBuildItem;
+
+/**
+ * A constant query of the application that was parsed at build time.
+ */
+public final class ParsedSqlBuildItem extends MultiBuildItem {
+
+    private final ParsedSql parsedSql;
+
+    public ParsedSqlBuildItem(ParsedSql parsedSql) {
+        this.parsedSql = parsedSql;
+    }
+
+    public ParsedSql getParsedSql() {
+        return parsedSql;
+    }
+}
@@ -0,0 +1,25 @@
+package io.quarkiverse.fluentjdbc.deployment;
+
+import io.quarkus.builder.item.MultiBuildItem;
+
+/**
+ * A {@link io.quarkiverse.fluentjdbc.runtime.RecordFactory} that was generated for a Java Record.
+ */
+public final class RecordFactoryBuildItem extends MultiBuildItem {
+
+    private final String recordType;
+    private final String recordFactory;
+
+    public RecordFactoryBuildItem(String recordType, String recordFactory) {
+        this.recordType = recordType;
+        this.recordFactory = recordFactory;
+    }
+
+    public String getRecordType() {
+        return recordType;
+    }
+
+    public String getRecordFactory() {
+        return recordFactory;
+    }
+}
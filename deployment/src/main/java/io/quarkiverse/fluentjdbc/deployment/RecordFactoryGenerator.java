@@ -0,0 +1,262 @@
+package io.quarkiverse.fluentjdbc.deployment;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.RecordComponentInfo;
+import org.jboss.jandex.Type;
+
+import io.quarkiverse.fluentjdbc.runtime.RecordFactory;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import io.quarkus.gizmo.DescriptorUtils;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+
+/**
+ * Generates a {@link RecordFactory} for a Java Record, which reads the columns with the typed getters of the
+ * {@link ResultSet} and calls the canonical constructor of the record directly. Primitives are not boxed, and SQL
+ * <code>NULL</code> is read as <code>null</code> for all other types.
+ */
+class RecordFactoryGenerator {
+
+    static final String SUFFIX = "$$RecordFactory";
+
+    // the record component type and the ResultSet getter that reads it without conversion
+    private static final Map<DotName, ColumnGetter> GETTERS = Map.ofEntries(
+            getter(String.class, "getString", String.class),
+            getter(Long.class, "getLong", long.class),
+            getter(long.class, "getLong", long.class),
+            getter(Integer.class, "getInt", int.class),
+            getter(int.class, "getInt", int.class),
+            getter(Double.class, "getDouble", double.class),
+            getter(double.class, "getDouble", double.class),
+            getter(Float.class, "getFloat", float.class),
+            getter(float.class, "getFloat", float.class),
+            getter(Short.class, "getShort", short.class),
+            getter(short.class, "getShort", short.class),
+            getter(Byte.class, "getByte", byte.class),
+            getter(byte.class, "getByte", byte.class),
+            getter(Boolean.class, "getBoolean", boolean.class),
+            getter(boolean.class, "getBoolean", boolean.class),
+            getter(BigDecimal.class, "getBigDecimal", BigDecimal.class),
+            getter(java.sql.Date.class, "getDate", java.sql.Date.class),
+            getter(Timestamp.class, "getTimestamp", Timestamp.class),
+            getter(java.util.Date.class, "getTimestamp", Timestamp.class),
+            getter(Array.class, "getArray", Array.class),
+            getter(Blob.class, "getBlob", Blob.class),
+            getter(Clob.class, "getClob", Clob.class),
+            getter(NClob.class, "getNClob", NClob.class),
+            getter(InputStream.class, "getBinaryStream", InputStream.class),
+            getter(Reader.class, "getCharacterStream", Reader.class));
+
+    // types that are converted by the JDBC driver with ResultSet.getObject(int, Class)
+    private static final List<DotName> CONVERTED_TYPES = List.of(
+            DotName.createSimple(LocalDate.class),
+            DotName.createSimple(LocalDateTime.class),
+            DotName.createSimple(LocalTime.class),
+            DotName.createSimple(OffsetDateTime.class),
+            DotName.createSimple(UUID.class));
+
+    private static final DotName CALENDAR = DotName.createSimple(Calendar.class);
+    private static final DotName INSTANT = DotName.createSimple(Instant.class);
+    private static final MethodDescriptor WAS_NULL = MethodDescriptor.ofMethod(ResultSet.class, "wasNull", boolean.class);
+    private static final MethodDescriptor GET_STRING = MethodDescriptor.ofMethod(ResultSet.class, "getString", String.class,
+            int.class);
+    private static final MethodDescriptor GET_TIMESTAMP = MethodDescriptor.ofMethod(ResultSet.class, "getTimestamp",
+            Timestamp.class, int.class);
+
+    private final IndexView index;
+    private final ClassOutput classOutput;
+
+    RecordFactoryGenerator(IndexView index, ClassOutput classOutput) {
+        this.index = index;
+        this.classOutput = classOutput;
+    }
+
+    /**
+     * @return whether a factory can be generated: the canonical constructor must be accessible from the package of the
+     *         record and all components must be readable without reflection.
+     */
+    boolean isSupported(ClassInfo record) {
+        if (!record.isRecord() || Modifier.isPrivate(record.flags()) || record.nestingType() == ClassInfo.NestingType.LOCAL
+                || record.nestingType() == ClassInfo.NestingType.ANONYMOUS) {
+            return false;
+        }
+
+        var componentTypes = record.recordComponentsInDeclarationOrder().stream().map(RecordComponentInfo::type).toList();
+        var constructor = record.method("<init>", componentTypes);
+        if (constructor == null || Modifier.isPrivate(constructor.flags())) {
+            return false;
+        }
+
+        return componentTypes.stream().noneMatch(type -> type.name().equals(CALENDAR)
+                || type.kind() == Type.Kind.PRIMITIVE && !GETTERS.containsKey(type.name())
+                || isEnum(type) && Modifier.isPrivate(enumModifiers(this.index, type)));
+    }
+
+    /**
+     * @return the name of the generated class
+     */
+    String generate(ClassInfo record) {
+        var factoryName = record.name().toString() + SUFFIX;
+        var components = record.recordComponentsInDeclarationOrder();
+
+        try (var creator = ClassCreator.builder()
+                .classOutput(this.classOutput)
+                .className(factoryName)
+                .interfaces(RecordFactory.class)
+                .build()) {
+
+            try (var parameterNames = creator.getMethodCreator("parameterNames", String[].class)) {
+                var names = parameterNames.newArray(String.class, components.size());
+                for (int i = 0; i < components.size(); i++) {
+                    parameterNames.writeArrayValue(names, i, parameterNames.load(components.get(i).name()));
+                }
+                parameterNames.returnValue(names);
+            }
+
+            try (var newInstance = creator.getMethodCreator("newInstance", Record.class, ResultSet.class, int[].class)) {
+                newInstance.addException(SQLException.class);
+                var rs = newInstance.getMethodParam(0);
+                var columnIndexes = newInstance.getMethodParam(1);
+
+                var args = new ResultHandle[components.size()];
+                var parameterTypes = new String[components.size()];
+                for (int i = 0; i < components.size(); i++) {
+                    var type = components.get(i).type();
+                    parameterTypes[i] = DescriptorUtils.typeToString(type);
+                    args[i] = readColumn(newInstance, type, rs, newInstance.readArrayValue(columnIndexes, i));
+                }
+
+                var constructor = MethodDescriptor.ofConstructor(record.name().toString(), (Object[]) parameterTypes);
+                newInstance.returnValue(newInstance.newInstance(constructor, args));
+            }
+        }
+        return factoryName;
+    }
+
+    private ResultHandle readColumn(MethodCreator method, Type type, ResultHandle rs, ResultHandle index) {
+        var getter = GETTERS.get(type.name());
+        if (getter != null) {
+            // primitives are passed to the constructor without boxing
+            var value = method.invokeInterfaceMethod(getter.method(), rs, index);
+            if (type.kind() == Type.Kind.PRIMITIVE || !getter.returnType().isPrimitive()) {
+                return value;
+            }
+            // a wrapper is null instead of the 0 or false of the getter when the column is SQL NULL
+            var wrapper = method.createVariable(DescriptorUtils.typeToString(type));
+            var wasNull = method.ifTrue(method.invokeInterfaceMethod(WAS_NULL, rs));
+            wasNull.trueBranch().assign(wrapper, wasNull.trueBranch().loadNull());
+            wasNull.falseBranch().assign(wrapper, box(wasNull.falseBranch(), getter.returnType(), value));
+            return wrapper;
+        }
+
+        if (type.name().equals(INSTANT)) {
+            var timestamp = method.invokeInterfaceMethod(GET_TIMESTAMP, rs, index);
+            return ifNotNull(method, timestamp, type, notNull -> notNull.invokeVirtualMethod(
+                    MethodDescriptor.ofMethod(Timestamp.class, "toInstant", Instant.class), timestamp));
+        }
+
+        if (isEnum(type)) {
+            var enumType = type.name().toString();
+            var name = method.invokeInterfaceMethod(GET_STRING, rs, index);
+            return ifNotNull(method, name, type, notNull -> notNull.invokeStaticMethod(
+                    MethodDescriptor.ofMethod(enumType, "valueOf", enumType, String.class), name));
+        }
+
+        if (CONVERTED_TYPES.contains(type.name())) {
+            var getObject = MethodDescriptor.ofMethod(ResultSet.class, "getObject", Object.class, int.class, Class.class);
+            var value = method.invokeInterfaceMethod(getObject, rs, index, method.loadClass(type.name().toString()));
+            return method.checkCast(value, type.name().toString());
+        }
+
+        var getObject = MethodDescriptor.ofMethod(ResultSet.class, "getObject", Object.class, int.class);
+        return method.checkCast(method.invokeInterfaceMethod(getObject, rs, index), DescriptorUtils.typeToString(type));
+    }
+
+    /**
+     * @return null when the value is null, or else the converted value
+     */
+    private static ResultHandle ifNotNull(BytecodeCreator method, ResultHandle value, Type type,
+            Function<BytecodeCreator, ResultHandle> converter) {
+        var result = method.createVariable(DescriptorUtils.typeToString(type));
+        var isNull = method.ifNull(value);
+        isNull.trueBranch().assign(result, isNull.trueBranch().loadNull());
+        isNull.falseBranch().assign(result, converter.apply(isNull.falseBranch()));
+        return result;
+    }
+
+    private boolean isEnum(Type type) {
+        return enumModifiers(this.index, type) != null;
+    }
+
+    /**
+     * @return the modifiers of the enum, or null when the type is not an enum. Enums that are not indexed, e.g.
+     *         {@link java.time.DayOfWeek} or the enums of dependencies, are loaded from the class loader.
+     */
+    static Integer enumModifiers(IndexView index, Type type) {
+        if (type.kind() != Type.Kind.CLASS) {
+            return null;
+        }
+        var typeClass = index.getClassByName(type.name());
+        if (typeClass != null) {
+            return typeClass.isEnum() ? (int) typeClass.flags() : null;
+        }
+        try {
+            var loaded = Class.forName(type.name().toString(), false, Thread.currentThread().getContextClassLoader());
+            return loaded.isEnum() ? loaded.getModifiers() : null;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static ResultHandle box(BytecodeCreator method, Class<?> primitive, ResultHandle value) {
+        var wrapper = switch (primitive.getName()) {
+            case "long" -> Long.class;
+            case "int" -> Integer.class;
+            case "double" -> Double.class;
+            case "float" -> Float.class;
+            case "short" -> Short.class;
+            case "byte" -> Byte.class;
+            case "boolean" -> Boolean.class;
+            default -> null;
+        };
+        if (wrapper == null) {
+            return value;
+        }
+        return method.invokeStaticMethod(MethodDescriptor.ofMethod(wrapper, "valueOf", wrapper, primitive), value);
+    }
+
+    private static Map.Entry<DotName, ColumnGetter> getter(Class<?> componentType, String name, Class<?> returnType) {
+        var method = MethodDescriptor.ofMethod(ResultSet.class, name, returnType, int.class);
+        return Map.entry(DotName.createSimple(componentType.getName()), new ColumnGetter(method, returnType));
+    }
+
+    private record ColumnGetter(MethodDescriptor method, Class<?> returnType) {
+    }
+}
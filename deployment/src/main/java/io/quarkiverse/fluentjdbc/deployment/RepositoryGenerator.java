@@ -0,0 +1,602 @@
+package io.quarkiverse.fluentjdbc.deployment;
+
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.mapper.Mappers;
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.UpdateResult;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.MethodInfo;
+import org.jboss.jandex.RecordComponentInfo;
+import org.jboss.jandex.Type;
+
+import io.quarkiverse.fluentjdbc.runtime.Batch;
+import io.quarkiverse.fluentjdbc.runtime.ParsedSql;
+import io.quarkiverse.fluentjdbc.runtime.RecordMapper;
+import io.quarkiverse.fluentjdbc.runtime.Repositories;
+import io.quarkiverse.fluentjdbc.runtime.Select;
+import io.quarkiverse.fluentjdbc.runtime.Update;
+import io.quarkus.gizmo.BytecodeCreator;
+import io.quarkus.gizmo.ClassCreator;
+import io.quarkus.gizmo.ClassOutput;
+import io.quarkus.gizmo.DescriptorUtils;
+import io.quarkus.gizmo.FieldDescriptor;
+import io.quarkus.gizmo.MethodCreator;
+import io.quarkus.gizmo.MethodDescriptor;
+import io.quarkus.gizmo.ResultHandle;
+
+/**
+ * Generates the implementation of a repository interface, see {@link Repositories}: a singleton bean of which each
+ * method binds its parameters to the query that was parsed at build time, and maps the rows with a
+ * {@link RecordMapper}, for which a {@link io.quarkiverse.fluentjdbc.runtime.RecordFactory} is generated as well.
+ */
+class RepositoryGenerator {
+
+    static final String SUFFIX = "$$FluentJdbcRepository";
+    static final DotName SELECT = DotName.createSimple(Select.class);
+    static final DotName UPDATE = DotName.createSimple(Update.class);
+    static final DotName BATCH = DotName.createSimple(Batch.class);
+
+    private static final DotName OPTIONAL = DotName.createSimple(Optional.class);
+    private static final DotName MAP = DotName.createSimple(Map.class);
+    private static final DotName OBJECT = DotName.createSimple(Object.class);
+    private static final DotName UPDATE_RESULT = DotName.createSimple(UpdateResult.class);
+    private static final DotName STREAM = DotName.createSimple(Stream.class);
+    private static final Set<DotName> LISTS = Set.of(DotName.createSimple(List.class),
+            DotName.createSimple(java.util.Collection.class), DotName.createSimple(Iterable.class));
+    private static final Set<DotName> ITEMS = Set.of(DotName.createSimple(List.class),
+            DotName.createSimple(java.util.Collection.class), DotName.createSimple(Iterable.class),
+            DotName.createSimple(Set.class), STREAM);
+
+    // the types of a first column result, which are read by the ColumnReader of the type, as are enums
+    private static final Set<DotName> COLUMN_TYPES = Set.of(
+            DotName.createSimple(String.class),
+            DotName.createSimple(Long.class),
+            DotName.createSimple(Integer.class),
+            DotName.createSimple(Double.class),
+            DotName.createSimple(Float.class),
+            DotName.createSimple(Short.class),
+            DotName.createSimple(Byte.class),
+            DotName.createSimple(Boolean.class),
+            DotName.createSimple(BigDecimal.class),
+            DotName.createSimple(LocalDate.class),
+            DotName.createSimple(LocalDateTime.class),
+            DotName.createSimple(LocalTime.class),
+            DotName.createSimple(OffsetDateTime.class),
+            DotName.createSimple(java.sql.Date.class),
+            DotName.createSimple(Timestamp.class),
+            DotName.createSimple(UUID.class),
+            DotName.createSimple(Instant.class),
+            OBJECT);
+
+    private static final Map<String, Class<?>> WRAPPERS = Map.of(
+            "long", Long.class,
+            "int", Integer.class,
+            "double", Double.class,
+            "boolean", Boolean.class,
+            "short", Short.class,
+            "byte", Byte.class,
+            "float", Float.class,
+            "char", Character.class);
+
+    private static final MethodDescriptor LIST = repositories("list", List.class, Mapper.class);
+    private static final MethodDescriptor FIRST = repositories("first", Optional.class, Mapper.class);
+    private static final MethodDescriptor SINGLE = repositories("single", Object.class, Mapper.class);
+    private static final MethodDescriptor UPDATE_COUNT = repositories("updateCount", long.class);
+    private static final MethodDescriptor UPDATE_RESULT_OF = repositories("update", UpdateResult.class);
+    private static final MethodDescriptor UPDATE_FETCH_KEY = repositories("updateFetchKey", Optional.class, Mapper.class,
+            String[].class);
+    private static final MethodDescriptor BATCH_OF = MethodDescriptor.ofMethod(Repositories.class, "batch", List.class,
+            FluentJdbc.class, String.class, Object.class, Function.class);
+    private static final MethodDescriptor COLUMN = MethodDescriptor.ofMethod(Repositories.class, "column", Mapper.class,
+            Class.class);
+    private static final MethodDescriptor PARAM = MethodDescriptor.ofMethod(Repositories.class, "param", Object.class,
+            Object.class);
+
+    private final IndexView index;
+    private final ClassOutput beanOutput;
+    private final ClassOutput classOutput;
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * @param beanOutput the output of the repository beans
+     * @param classOutput the output of the parameter binders of the batches
+     */
+    RepositoryGenerator(IndexView index, ClassOutput beanOutput, ClassOutput classOutput) {
+        this.index = index;
+        this.beanOutput = beanOutput;
+        this.classOutput = classOutput;
+    }
+
+    /**
+     * @return the interfaces that declare or inherit methods annotated with {@link Select}, {@link Update} or
+     *         {@link Batch}, except the interfaces that are extended by another one, so that a bean type is never
+     *         implemented twice.
+     */
+    static Set<DotName> repositories(IndexView index) {
+        var result = new TreeSet<DotName>();
+        for (var annotation : List.of(SELECT, UPDATE, BATCH)) {
+            for (var instance : index.getAnnotations(annotation)) {
+                var declaringClass = instance.target().asMethod().declaringClass().name();
+                result.add(declaringClass);
+                index.getAllKnownSubinterfaces(declaringClass).forEach(subinterface -> result.add(subinterface.name()));
+            }
+        }
+        result.removeIf(name -> !index.getKnownDirectSubinterfaces(name).isEmpty());
+        return result;
+    }
+
+    /**
+     * @return the records that are returned by the selects of the repositories.
+     */
+    static Set<DotName> mappedRecords(IndexView index) {
+        var result = new TreeSet<DotName>();
+        for (var annotation : index.getAnnotations(SELECT)) {
+            var rowType = rowType(annotation.target().asMethod().returnType());
+            var rowClass = rowType.kind() == Type.Kind.CLASS ? index.getClassByName(rowType.name()) : null;
+            if (rowClass != null && rowClass.isRecord()) {
+                result.add(rowClass.name());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the errors of the repositories that were generated, e.g. an unknown parameter or an unsupported return
+     *         type. The generated classes are invalid when there are errors.
+     */
+    List<String> errors() {
+        return this.errors;
+    }
+
+    /**
+     * @return the name of the generated class
+     */
+    String generate(ClassInfo repository) {
+        var className = repository.name().toString() + SUFFIX;
+        if (!repository.isInterface()) {
+            this.errors.add("%s: only the methods of an interface can be annotated with @Select, @Update or @Batch"
+                    .formatted(repository.name()));
+            return className;
+        }
+
+        try (var creator = ClassCreator.builder()
+                .classOutput(this.beanOutput)
+                .className(className)
+                .interfaces(repository.name().toString())
+                .build()) {
+            creator.addAnnotation(Singleton.class);
+
+            var jdbc = creator.getFieldCreator("jdbc", FluentJdbc.class).setModifiers(0);
+            jdbc.addAnnotation(Inject.class);
+            var dataSource = repository.declaredAnnotation(FluentJdbcProcessor.DATA_SOURCE);
+            if (dataSource != null) {
+                jdbc.addAnnotation(dataSource);
+            }
+
+            var constructor = creator.getMethodCreator(MethodDescriptor.INIT, void.class);
+            constructor.invokeSpecialMethod(MethodDescriptor.ofConstructor(Object.class), constructor.getThis());
+            var implementation = new Implementation(creator, constructor, jdbc.getFieldDescriptor());
+            for (var method : abstractMethods(repository)) {
+                try (var methodCreator = creator.getMethodCreator(MethodDescriptor.of(method))) {
+                    if (!implementation.implement(method, methodCreator)) {
+                        methodCreator.throwException(UnsupportedOperationException.class, "Invalid repository method");
+                    }
+                }
+            }
+            constructor.returnVoid();
+            constructor.close();
+        }
+        return className;
+    }
+
+    /**
+     * @return the abstract methods of the interface and of the interfaces it extends, by name and descriptor.
+     */
+    private List<MethodInfo> abstractMethods(ClassInfo repository) {
+        var methods = new LinkedHashMap<String, MethodInfo>();
+        var types = new ArrayList<>(List.of(repository));
+        for (int i = 0; i < types.size(); i++) {
+            for (var method : types.get(i).methods()) {
+                if (Modifier.isAbstract(method.flags())) {
+                    methods.putIfAbsent(method.name() + method.descriptor(), method);
+                }
+            }
+            for (var interfaceName : types.get(i).interfaceNames()) {
+                var type = this.index.getClassByName(interfaceName);
+                if (type != null) {
+                    types.add(type);
+                }
+            }
+        }
+        return List.copyOf(methods.values());
+    }
+
+    /**
+     * @return the type of the rows: the element type of a list or an Optional, or else the type itself.
+     */
+    private static Type rowType(Type returnType) {
+        if (returnType.kind() == Type.Kind.PARAMETERIZED_TYPE
+                && (LISTS.contains(returnType.name()) || returnType.name().equals(OPTIONAL))) {
+            return returnType.asParameterizedType().arguments().get(0);
+        }
+        return returnType;
+    }
+
+    private static MethodDescriptor repositories(String name, Class<?> returnType, Class<?>... parameterTypes) {
+        var types = new ArrayList<Class<?>>(List.of(FluentJdbc.class, String.class, Object[].class));
+        types.addAll(Arrays.asList(parameterTypes));
+        return MethodDescriptor.ofMethod(Repositories.class, name, returnType, types.toArray(Class<?>[]::new));
+    }
+
+    private static String location(MethodInfo method) {
+        return method.declaringClass().name() + "." + method.name();
+    }
+
+    /**
+     * The methods of a repository class, which share the mappers of the same row type.
+     */
+    private final class Implementation {
+        private final ClassCreator creator;
+        private final MethodCreator constructor;
+        private final FieldDescriptor jdbc;
+        private final Map<String, FieldDescriptor> fields = new HashMap<>();
+        private int binders;
+
+        Implementation(ClassCreator creator, MethodCreator constructor, FieldDescriptor jdbc) {
+            this.creator = creator;
+            this.constructor = constructor;
+            this.jdbc = jdbc;
+        }
+
+        /**
+         * @return false when the method is invalid, see {@link #errors()}
+         */
+        boolean implement(MethodInfo method, MethodCreator methodCreator) {
+            var annotations = Stream.of(SELECT, UPDATE, BATCH).map(method::declaredAnnotation).filter(a -> a != null).toList();
+            if (annotations.size() != 1) {
+                return error(method, annotations.isEmpty() ? "not annotated with @Select, @Update or @Batch"
+                        : "annotated with more than one of @Select, @Update and @Batch");
+            }
+            var annotation = annotations.get(0);
+
+            ParsedSql sql;
+            try {
+                sql = ParsedSql.parse(annotation.value().asString());
+            } catch (IllegalArgumentException e) {
+                return error(method, e.getMessage());
+            }
+            var kind = annotation.name().equals(SELECT) ? SqlScanner.Kind.SELECT : SqlScanner.Kind.UPDATE;
+            var invalid = SqlScanner.validate(new SqlScanner.Statement(sql.sql(), kind, -1, location(method)), sql);
+            if (invalid != null) {
+                RepositoryGenerator.this.errors.add(invalid);
+                return false;
+            }
+
+            if (annotation.name().equals(BATCH)) {
+                return batch(method, methodCreator, sql);
+            }
+            var params = params(method, methodCreator, sql);
+            if (params == null) {
+                return false;
+            }
+            return annotation.name().equals(SELECT) ? select(method, methodCreator, sql, params)
+                    : update(method, methodCreator, annotation, sql, params);
+        }
+
+        private boolean select(MethodInfo method, MethodCreator methodCreator, ParsedSql sql, ResultHandle params) {
+            var returnType = method.returnType();
+            var rowType = rowType(returnType);
+            var mapper = mapper(rowType);
+            if (mapper == null) {
+                return error(method, "unsupported result type " + returnType);
+            }
+
+            var execute = rowType == returnType ? SINGLE : LISTS.contains(returnType.name()) ? LIST : FIRST;
+            var result = methodCreator.invokeStaticMethod(execute, jdbc(methodCreator),
+                    methodCreator.load(sql.positionalSql()), params, methodCreator.readInstanceField(mapper,
+                            methodCreator.getThis()));
+            if (returnType.kind() == Type.Kind.PRIMITIVE) {
+                methodCreator.returnValue(unbox(methodCreator, result, returnType));
+            } else {
+                methodCreator.returnValue(execute == SINGLE ? methodCreator.checkCast(result, returnType.name().toString())
+                        : result);
+            }
+            return true;
+        }
+
+        private boolean update(MethodInfo method, MethodCreator methodCreator, AnnotationInstance annotation, ParsedSql sql,
+                ResultHandle params) {
+            var returnType = method.returnType();
+            var jdbc = jdbc(methodCreator);
+            var positionalSql = methodCreator.load(sql.positionalSql());
+
+            if (returnType.kind() == Type.Kind.PARAMETERIZED_TYPE && returnType.name().equals(OPTIONAL)) {
+                var keyType = returnType.asParameterizedType().arguments().get(0);
+                var keyMapper = keyType.kind() == Type.Kind.CLASS && COLUMN_TYPES.contains(keyType.name()) ? mapper(keyType)
+                        : null;
+                if (keyMapper == null) {
+                    return error(method, "unsupported generated key type " + keyType);
+                }
+                var keyColumnsValue = annotation.value("keyColumns");
+                var keyColumns = keyColumnsValue != null ? keyColumnsValue.asStringArray() : new String[0];
+                var keyColumnsArray = methodCreator.newArray(String.class, keyColumns.length);
+                for (int i = 0; i < keyColumns.length; i++) {
+                    methodCreator.writeArrayValue(keyColumnsArray, i, methodCreator.load(keyColumns[i]));
+                }
+                methodCreator.returnValue(methodCreator.invokeStaticMethod(UPDATE_FETCH_KEY, jdbc, positionalSql, params,
+                        methodCreator.readInstanceField(keyMapper, methodCreator.getThis()), keyColumnsArray));
+                return true;
+            }
+
+            switch (returnType.name().toString()) {
+                case "void" -> {
+                    methodCreator.invokeStaticMethod(UPDATE_COUNT, jdbc, positionalSql, params);
+                    methodCreator.returnVoid();
+                }
+                case "long" -> methodCreator.returnValue(methodCreator.invokeStaticMethod(UPDATE_COUNT, jdbc, positionalSql,
+                        params));
+                case "int" -> methodCreator.returnValue(methodCreator.convertPrimitive(
+                        methodCreator.invokeStaticMethod(UPDATE_COUNT, jdbc, positionalSql, params), int.class));
+                default -> {
+                    if (!returnType.name().equals(UPDATE_RESULT)) {
+                        return error(method, "unsupported return type %s, expected void, long, int, UpdateResult or an Optional of the generated key"
+                                .formatted(returnType));
+                    }
+                    methodCreator.returnValue(methodCreator.invokeStaticMethod(UPDATE_RESULT_OF, jdbc, positionalSql,
+                            params));
+                }
+            }
+            return true;
+        }
+
+        private boolean batch(MethodInfo method, MethodCreator methodCreator, ParsedSql sql) {
+            var itemsType = method.parametersCount() == 1 ? method.parameterType(0) : null;
+            var itemType = itemsType != null && itemsType.kind() == Type.Kind.PARAMETERIZED_TYPE
+                    && ITEMS.contains(itemsType.name()) ? itemsType.asParameterizedType().arguments().get(0) : null;
+            var item = itemType != null ? record(itemType) : null;
+            if (item == null) {
+                return error(method, "a batch has a single Iterable or Stream parameter of records");
+            }
+
+            var returnType = method.returnType();
+            var returnsResults = returnType.kind() == Type.Kind.PARAMETERIZED_TYPE && LISTS.contains(returnType.name())
+                    && returnType.asParameterizedType().arguments().get(0).name().equals(UPDATE_RESULT);
+            if (returnType.kind() != Type.Kind.VOID && !returnsResults) {
+                return error(method, "unsupported return type %s, expected void or List<UpdateResult>".formatted(returnType));
+            }
+
+            var binder = binder(method, item, sql);
+            if (binder == null) {
+                return false;
+            }
+            var binderField = field("binder:" + binder, Function.class, constructor -> constructor.newInstance(
+                    MethodDescriptor.ofConstructor(binder)));
+            var results = methodCreator.invokeStaticMethod(BATCH_OF, jdbc(methodCreator),
+                    methodCreator.load(sql.positionalSql()), methodCreator.getMethodParam(0),
+                    methodCreator.readInstanceField(binderField, methodCreator.getThis()));
+            if (returnsResults) {
+                methodCreator.returnValue(results);
+            } else {
+                methodCreator.returnVoid();
+            }
+            return true;
+        }
+
+        /**
+         * Generates the function that returns the parameters of a batch item.
+         *
+         * @return the name of the generated class, or null when a parameter is not a component of the item
+         */
+        private String binder(MethodInfo method, ClassInfo item, ParsedSql sql) {
+            var components = item.recordComponentsInDeclarationOrder();
+            var bound = new ArrayList<RecordComponentInfo>();
+            if (sql.isNamed()) {
+                for (var name : sql.paramNames()) {
+                    var component = item.recordComponent(name);
+                    if (component == null) {
+                        error(method, "record %s has no component :%s".formatted(item.name(), name));
+                        return null;
+                    }
+                    bound.add(component);
+                }
+            } else if (sql.paramCount() != components.size()) {
+                error(method, "the statement has %d parameters, but record %s has %d components".formatted(sql.paramCount(),
+                        item.name(), components.size()));
+                return null;
+            } else {
+                bound.addAll(components);
+            }
+
+            var binderName = this.creator.getClassName().replace('/', '.') + "$" + method.name() + "Binder"
+                    + this.binders++;
+            try (var binder = ClassCreator.builder()
+                    .classOutput(RepositoryGenerator.this.classOutput)
+                    .className(binderName)
+                    .interfaces(Function.class)
+                    .build()) {
+                try (var apply = binder.getMethodCreator("apply", Object.class, Object.class)) {
+                    var record = apply.checkCast(apply.getMethodParam(0), item.name().toString());
+                    var params = apply.newArray(Object.class, bound.size());
+                    for (int i = 0; i < bound.size(); i++) {
+                        apply.writeArrayValue(params, i, component(apply, record, bound.get(i)));
+                    }
+                    apply.returnValue(apply.invokeStaticMethod(
+                            MethodDescriptor.ofMethod(Arrays.class, "asList", List.class, Object[].class), params));
+                }
+            }
+            return binderName;
+        }
+
+        /**
+         * Binds the named parameters to the method parameters or to the components of record parameters, and the
+         * positional parameters to the method parameters in order.
+         *
+         * @return the parameter array, or null when a parameter cannot be bound
+         */
+        private ResultHandle params(MethodInfo method, BytecodeCreator methodCreator, ParsedSql sql) {
+            var values = new ArrayList<ResultHandle>();
+            if (!sql.isNamed()) {
+                if (sql.paramCount() != method.parametersCount()) {
+                    error(method, "the query has %d parameters, but the method has %d".formatted(sql.paramCount(),
+                            method.parametersCount()));
+                    return null;
+                }
+                for (int i = 0; i < method.parametersCount(); i++) {
+                    values.add(param(methodCreator, methodCreator.getMethodParam(i), method.parameterType(i)));
+                }
+            } else {
+                for (var name : sql.paramNames()) {
+                    var value = namedParam(method, methodCreator, name);
+                    if (value == null) {
+                        error(method, method.parametersCount() > 0 && method.parameterName(0) == null
+                                ? "the parameter names are unknown, compile with -parameters"
+                                : "no parameter or record component :" + name);
+                        return null;
+                    }
+                    values.add(value);
+                }
+            }
+
+            var params = methodCreator.newArray(Object.class, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                methodCreator.writeArrayValue(params, i, values.get(i));
+            }
+            return params;
+        }
+
+        private ResultHandle namedParam(MethodInfo method, BytecodeCreator methodCreator, String name) {
+            for (int i = 0; i < method.parametersCount(); i++) {
+                if (name.equals(method.parameterName(i))) {
+                    return param(methodCreator, methodCreator.getMethodParam(i), method.parameterType(i));
+                }
+            }
+            for (int i = 0; i < method.parametersCount(); i++) {
+                var record = record(method.parameterType(i));
+                var component = record != null ? record.recordComponent(name) : null;
+                if (component != null) {
+                    return component(methodCreator, methodCreator.getMethodParam(i), component);
+                }
+            }
+            return null;
+        }
+
+        private ResultHandle component(BytecodeCreator methodCreator, ResultHandle record, RecordComponentInfo component) {
+            var accessor = MethodDescriptor.ofMethod(component.declaringClass().name().toString(), component.name(),
+                    DescriptorUtils.typeToString(component.type()));
+            return param(methodCreator, methodCreator.invokeVirtualMethod(accessor, record), component.type());
+        }
+
+        /**
+         * @return the value to bind: a boxed primitive, or the name of an enum or the value of an Optional
+         */
+        private ResultHandle param(BytecodeCreator methodCreator, ResultHandle value, Type type) {
+            if (type.kind() == Type.Kind.PRIMITIVE) {
+                var wrapper = WRAPPERS.get(type.name().toString());
+                return methodCreator.invokeStaticMethod(MethodDescriptor.ofMethod(wrapper, "valueOf", wrapper,
+                        type.name().toString()), value);
+            }
+            if (type.name().equals(OPTIONAL) || type.name().equals(OBJECT) || isEnum(type)) {
+                return methodCreator.invokeStaticMethod(PARAM, value);
+            }
+            return value;
+        }
+
+        private static ResultHandle unbox(BytecodeCreator methodCreator, ResultHandle value, Type primitive) {
+            var name = primitive.name().toString();
+            var wrapper = WRAPPERS.get(name);
+            return methodCreator.invokeVirtualMethod(MethodDescriptor.ofMethod(wrapper, name + "Value", name),
+                    methodCreator.checkCast(value, wrapper));
+        }
+
+        /**
+         * @return the field of the mapper of the rows, or null when the row type is not supported
+         */
+        private FieldDescriptor mapper(Type rowType) {
+            if (rowType.kind() == Type.Kind.PRIMITIVE) {
+                var wrapper = WRAPPERS.get(rowType.name().toString());
+                return wrapper != null && COLUMN_TYPES.contains(DotName.createSimple(wrapper)) ? columnMapper(wrapper.getName())
+                        : null;
+            }
+            if (rowType.kind() == Type.Kind.PARAMETERIZED_TYPE && rowType.name().equals(MAP)) {
+                return field("map", Mapper.class, constructor -> constructor.invokeStaticMethod(
+                        MethodDescriptor.ofMethod(Mappers.class, "map", Mapper.class)));
+            }
+            if (rowType.kind() != Type.Kind.CLASS) {
+                return null;
+            }
+            if (COLUMN_TYPES.contains(rowType.name()) || isEnum(rowType)) {
+                return columnMapper(rowType.name().toString());
+            }
+            var record = record(rowType);
+            if (record == null) {
+                return null;
+            }
+            return field("record:" + record.name(), Mapper.class, constructor -> constructor.newInstance(
+                    MethodDescriptor.ofConstructor(RecordMapper.class, Class.class),
+                    constructor.loadClass(record.name().toString())));
+        }
+
+        private FieldDescriptor columnMapper(String type) {
+            return field("column:" + type, Mapper.class, constructor -> constructor.invokeStaticMethod(COLUMN,
+                    constructor.loadClass(type)));
+        }
+
+        /**
+         * @return a field that is initialized in the constructor, which is shared by the methods with the same key.
+         */
+        private FieldDescriptor field(String key, Class<?> type, Function<MethodCreator, ResultHandle> initializer) {
+            return this.fields.computeIfAbsent(key, k -> {
+                var field = this.creator.getFieldCreator("field" + this.fields.size(), type)
+                        .setModifiers(Modifier.PRIVATE | Modifier.FINAL)
+                        .getFieldDescriptor();
+                this.constructor.writeInstanceField(field, this.constructor.getThis(), initializer.apply(this.constructor));
+                return field;
+            });
+        }
+
+        private ResultHandle jdbc(BytecodeCreator methodCreator) {
+            return methodCreator.readInstanceField(this.jdbc, methodCreator.getThis());
+        }
+
+        private boolean isEnum(Type type) {
+            return RecordFactoryGenerator.enumModifiers(RepositoryGenerator.this.index, type) != null;
+        }
+
+        private ClassInfo record(Type type) {
+            var typeClass = type.kind() == Type.Kind.CLASS ? RepositoryGenerator.this.index.getClassByName(type.name()) : null;
+            return typeClass != null && typeClass.isRecord() ? typeClass : null;
+        }
+
+        private boolean error(MethodInfo method, String message) {
+            RepositoryGenerator.this.errors.add(location(method) + ": " + message);
+            return false;
+        }
+    }
+}
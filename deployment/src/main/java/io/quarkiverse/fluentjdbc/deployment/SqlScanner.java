@@ -0,0 +1,204 @@
+package io.quarkiverse.fluentjdbc.deployment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import io.quarkiverse.fluentjdbc.runtime.ParsedSql;
+import io.quarkiverse.fluentjdbc.runtime.Sql;
+
+/**
+ * Finds the constant queries of classes: the constants annotated with {@link Sql}, and the string literals that are
+ * passed directly to a method that executes a query, e.g. <code>query().select("select ...")</code>. The compiler
+ * inlines constants, so these include the constants of other classes.
+ */
+class SqlScanner {
+
+    // the methods that take a query, by the internal name of their class
+    private static final Map<String, Map<String, Kind>> QUERY_METHODS = Map.of(
+            "org/codejargon/fluentjdbc/api/query/Query",
+            Map.of("select", Kind.SELECT, "update", Kind.UPDATE, "batch", Kind.UPDATE),
+            "io/quarkiverse/fluentjdbc/runtime/QueryCache", Map.of("select", Kind.SELECT));
+
+    // statements that modify rows, which can only be selected when they return them
+    private static final Set<String> UPDATES = Set.of("insert", "update", "delete", "merge");
+
+    private final List<Statement> statements = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * @param sqlFields the expected number of parameters of the fields annotated with {@link Sql}, by name
+     */
+    void scan(byte[] classBytes, Map<String, Integer> sqlFields) {
+        new ClassReader(classBytes).accept(new ClassVisitor(Opcodes.ASM9) {
+            private String className;
+
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName,
+                    String[] interfaces) {
+                this.className = name.replace('/', '.');
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                var expectedParams = sqlFields.get(name);
+                if (expectedParams != null) {
+                    var location = this.className + "." + name;
+                    if (value instanceof String sql) {
+                        SqlScanner.this.statements.add(new Statement(sql, Kind.ANY, expectedParams, location));
+                    } else {
+                        SqlScanner.this.errors.add("@Sql field %s is not a constant string".formatted(location));
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                    String[] exceptions) {
+                return new QueryCallVisitor(this.className + "." + name);
+            }
+        }, ClassReader.SKIP_FRAMES);
+    }
+
+    List<Statement> statements() {
+        return this.statements;
+    }
+
+    List<String> errors() {
+        return this.errors;
+    }
+
+    /**
+     * @return the error of the query, or null when it is valid.
+     */
+    static String validate(Statement statement, ParsedSql parsed) {
+        if (statement.expectedParams >= 0 && parsed.paramCount() != statement.expectedParams) {
+            return "%s: expected %d parameters, but the query has %d: %s".formatted(statement.location,
+                    statement.expectedParams, parsed.paramCount(), statement.sql);
+        }
+        var keyword = parsed.keyword();
+        if (statement.kind == Kind.SELECT && UPDATES.contains(keyword)
+                && !statement.sql.toLowerCase(Locale.ROOT).contains("returning")) {
+            return "%s: an %s statement is executed as a select: %s".formatted(statement.location, keyword, statement.sql);
+        }
+        if (statement.kind == Kind.UPDATE && keyword.equals("select")) {
+            return "%s: a select is executed as an update: %s".formatted(statement.location, statement.sql);
+        }
+        return null;
+    }
+
+    enum Kind {
+        SELECT,
+        UPDATE,
+        ANY
+    }
+
+    /**
+     * @param expectedParams the expected number of parameters, -1 when unknown
+     * @param location the field or the method and line of the query, for the error messages
+     */
+    record Statement(String sql, Kind kind, int expectedParams, String location) {
+    }
+
+    /**
+     * Finds the string literals that are loaded right before a query method is called.
+     */
+    private final class QueryCallVisitor extends MethodVisitor {
+        private final String method;
+        private String literal;
+        private int line;
+
+        QueryCallVisitor(String method) {
+            super(Opcodes.ASM9);
+            this.method = method;
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start) {
+            this.line = line;
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            this.literal = value instanceof String sql ? sql : null;
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            var methods = QUERY_METHODS.get(owner);
+            var kind = methods != null ? methods.get(name) : null;
+            if (kind != null && this.literal != null && descriptor.startsWith("(Ljava/lang/String;)")) {
+                SqlScanner.this.statements.add(new Statement(this.literal, kind, -1, "%s line %d".formatted(this.method,
+                        this.line)));
+            }
+            this.literal = null;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int varIndex) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+                Object... bootstrapMethodArguments) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitIincInsn(int varIndex, int increment) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            this.literal = null;
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            this.literal = null;
+        }
+    }
+}
@@ -2,15 +2,28 @@ package io.quarkiverse.fluentjdbc.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.TestInstance.Lifecycle.PER_CLASS;
 
+import java.io.ByteArrayOutputStream;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.IntStream;
 
+import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
 
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.mapper.Mappers;
+import org.codejargon.fluentjdbc.api.query.Mapper;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.junit.jupiter.api.BeforeAll;
@@ -22,17 +35,35 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
+import io.quarkiverse.fluentjdbc.runtime.Batch;
+import io.quarkiverse.fluentjdbc.runtime.BulkInsert;
 import io.quarkiverse.fluentjdbc.runtime.DynamicQuery;
 import io.quarkiverse.fluentjdbc.runtime.FluentJdbcConfig;
+import io.quarkiverse.fluentjdbc.runtime.MappedRecord;
+import io.quarkiverse.fluentjdbc.runtime.ParsedSql;
+import io.quarkiverse.fluentjdbc.runtime.QueryCache;
+import io.quarkiverse.fluentjdbc.runtime.QueryExport;
+import io.quarkiverse.fluentjdbc.runtime.ReactiveFluentJdbc;
 import io.quarkiverse.fluentjdbc.runtime.RecordMapper;
+import io.quarkiverse.fluentjdbc.runtime.Select;
+import io.quarkiverse.fluentjdbc.runtime.Sql;
+import io.quarkiverse.fluentjdbc.runtime.Update;
+import io.quarkiverse.fluentjdbc.runtime.WriteBatcher;
+import io.quarkus.agroal.DataSource;
 import io.quarkus.test.QuarkusUnitTest;
 
 @TestInstance(PER_CLASS)
 public class FluentjdbcTest {
 
+    @Sql(params = 2)
+    static final String SELECT_BY_NAME = "select name from fruit where name = :name or name = :name";
+
     @RegisterExtension
     static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
-            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class).addAsResource("application.properties"));
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Fruit.class, FruitRaw.class, FruitDelivery.class, FruitRepository.class,
+                            FruitService.class)
+                    .addAsResource("application.properties"));
 
     @Inject
     FluentJdbc jdbc;
@@ -40,6 +71,25 @@ public class FluentjdbcTest {
     @Inject
     FluentJdbcConfig config;
 
+    @Inject
+    ReactiveFluentJdbc reactiveJdbc;
+
+    @Inject
+    WriteBatcher writeBatcher;
+
+    @Inject
+    QueryCache queryCache;
+
+    @Inject
+    @DataSource("replica")
+    FluentJdbc replicaJdbc;
+
+    @Inject
+    FruitRepository fruitRepository;
+
+    @Inject
+    FruitService fruitService;
+
     RecordMapper fruitMapper = new RecordMapper(Fruit.class);
     RecordMapper rawMapper = new RecordMapper(FruitRaw.class, false);
 
@@ -122,6 +172,14 @@ public class FluentjdbcTest {
         assertEquals("apple", fruitRaw.type());
     }
 
+    @Test
+    public void checkGeneratedRecordFactory() throws ClassNotFoundException {
+        var classLoader = Thread.currentThread().getContextClassLoader();
+        assertNotNull(Class.forName(Fruit.class.getName() + "$$RecordFactory", false, classLoader));
+        assertThrows(ClassNotFoundException.class,
+                () -> Class.forName(FruitRaw.class.getName() + "$$RecordFactory", false, classLoader));
+    }
+
     @ParameterizedTest
     @CsvSource(textBlock = """
             ,,1
@@ -144,9 +202,204 @@ public class FluentjdbcTest {
         assertEquals(expectedCount, fruits.size());
     }
 
+    @Test
+    void reactiveQueries() {
+        var inserted = this.reactiveJdbc.inTransaction(query -> query
+                .update("insert into fruit(ext_id, name, type) values(?,?,?)")
+                .params(UUID.randomUUID(), "Conference", "pear")
+                .run()
+                .affectedRows())
+                .await().indefinitely();
+        assertEquals(1L, inserted);
+
+        var fruits = (List<?>) this.reactiveJdbc.listResult(this.reactiveJdbc.query().select("select * from fruit order by id"),
+                this.fruitMapper)
+                .await().indefinitely();
+        assertEquals(2, fruits.size());
+
+        var names = this.reactiveJdbc.streamResult(this.reactiveJdbc.query().select("select name from fruit order by id"),
+                Mappers.singleString())
+                .collect().asList()
+                .await().indefinitely();
+        assertEquals(List.of("McIntosh", "Conference"), names);
+    }
+
+    @Test
+    void namedDataSources() {
+        var database = this.replicaJdbc.query()
+                .plainConnection(con -> con.getMetaData().getDatabaseProductName());
+        assertEquals("H2", database);
+        assertEquals(1L, this.replicaJdbc.query().select("select 1").singleResult(Mappers.singleLong()));
+        assertEquals(500, this.config.namedDataSources().get("replica").fetchSize().orElseThrow());
+    }
+
+    @Test
+    void batchWrites() {
+        var results = IntStream.range(0, 10)
+                .mapToObj(i -> this.writeBatcher.updateFetchGenKeys("insert into fruit(ext_id, name, type) values(?,?,?)",
+                        List.of(UUID.randomUUID(), "fruit-" + i, "berry"), Mappers.singleLong()))
+                .map(CompletionStage::toCompletableFuture)
+                .toList();
+        var failed = this.writeBatcher.update("insert into fruit(ext_id, name, type) values(?,?,?)", UUID.randomUUID(),
+                null, "berry");
+
+        results.forEach(result -> assertTrue(result.join().firstKey().isPresent()));
+        assertThrows(CompletionException.class, () -> failed.toCompletableFuture().join());
+        assertEquals(10L, this.jdbc.query().select("select count(*) from fruit where type = 'berry'")
+                .singleResult(Mappers.singleLong()));
+    }
+
+    @Test
+    void bulkInsert() {
+        var insert = new BulkInsert("fruit", "ext_id", "name", "type").chunkSize(1000);
+
+        var ids = insert.mode(BulkInsert.Mode.VALUES).runFetchGenKeys(this.jdbc,
+                IntStream.range(0, 2500).mapToObj(i -> List.of(UUID.randomUUID(), "fruit-" + i, "bulk")),
+                Mappers.singleLong(), "id");
+        assertEquals(2500, ids.size());
+        assertEquals(2500, ids.stream().distinct().count());
+
+        var copied = insert.run(this.jdbc,
+                IntStream.range(0, 2500).mapToObj(i -> new FruitRow(UUID.randomUUID(), "copy \"" + i + "\", ok", "copy")));
+        assertEquals(2500L, copied);
+        assertEquals(1L, this.jdbc.query().select("select count(*) from fruit where name = 'copy \"42\", ok'")
+                .singleResult(Mappers.singleLong()));
+    }
+
+    @Test
+    void bulkInsertInvalidatesCache() {
+        // the same mapper, as it is part of the key of the cached result
+        var mapper = Mappers.singleLong();
+        var count = this.queryCache.select("select count(*) from fruit where type = ?").params("copy");
+        assertEquals(0L, count.singleResult(mapper));
+        assertEquals(0L, count.singleResult(mapper));
+
+        new BulkInsert("fruit", "ext_id", "name", "type").mode(BulkInsert.Mode.COPY).run(this.jdbc,
+                IntStream.range(0, 10).mapToObj(i -> List.of(UUID.randomUUID(), "fruit-" + i, "copy")));
+        assertEquals(10L, count.singleResult(mapper));
+    }
+
+    @Test
+    void cacheIgnoresRolledBackTransaction() {
+        var mapper = Mappers.singleString();
+        assertThrows(IllegalStateException.class, () -> this.fruitService.insertAndRollBack("Cox", mapper));
+
+        // the select in the transaction read the uncommitted insert
+        assertEquals(List.of("McIntosh"), this.queryCache.select("select name from fruit order by name")
+                .listResult(mapper));
+    }
+
+    @Test
+    void export() {
+        var csv = new ByteArrayOutputStream();
+        assertEquals(1L, QueryExport.csv().write(this.jdbc, "select name, type from fruit", List.of(), csv));
+        assertEquals("name,type\nMcIntosh,apple\n", csv.toString());
+
+        var ndjson = new ByteArrayOutputStream();
+        assertEquals(1L, QueryExport.ndjson().fetchSize(10).write(this.jdbc, "select name from fruit where type = ?",
+                List.of("apple"), ndjson));
+        assertEquals("{\"name\":\"McIntosh\"}\n", ndjson.toString());
+    }
+
+    @Test
+    void parsedSql() {
+        var parsed = ParsedSql.of(SELECT_BY_NAME);
+        assertEquals("select name from fruit where name = ? or name = ?", parsed.positionalSql());
+
+        assertEquals(List.of("McIntosh"), this.jdbc.query().select(parsed.positionalSql())
+                .params(parsed.params(Map.of("name", "McIntosh")))
+                .listResult(Mappers.singleString()));
+    }
+
+    @Test
+    void repository() {
+        var id = this.fruitRepository.insert(new Fruit(UUID.randomUUID(), "Cox", "apple")).orElseThrow();
+        assertEquals(2L, this.fruitRepository.count("apple"));
+        assertEquals(List.of("Cox", "McIntosh"), this.fruitRepository.findByType("apple").stream().map(Fruit::name).toList());
+        assertEquals(Optional.of("Cox"), this.fruitRepository.findById(id).map(Fruit::name));
+        assertEquals(Optional.empty(), this.fruitRepository.findById(-1));
+
+        assertEquals(1, this.fruitRepository.rename(id, "Cox Orange"));
+        this.fruitRepository.insertAll(List.of(new Fruit(UUID.randomUUID(), "Conference", "pear"),
+                new Fruit(UUID.randomUUID(), "Williams", "pear")));
+        assertEquals(List.of("Conference", "Williams"), this.fruitRepository.findByType("pear").stream().map(Fruit::name)
+                .toList());
+    }
+
+    @Test
+    void repositoryWithUnindexedEnum() {
+        // DayOfWeek is not in the index of the application
+        assertEquals(List.of(new FruitDelivery("McIntosh", DayOfWeek.MONDAY)),
+                this.fruitRepository.findDeliveries(DayOfWeek.MONDAY));
+    }
+
+    interface FruitRepository {
+
+        @Select("select * from fruit where type = :type order by name")
+        List<Fruit> findByType(String type);
+
+        @Select("select * from fruit where id = ?")
+        Optional<Fruit> findById(long id);
+
+        @Select("select count(*) from fruit where type = :type")
+        long count(String type);
+
+        @Update(value = "insert into fruit(ext_id, name, type) values(:extId, :name, :type)", keyColumns = "id")
+        Optional<Long> insert(Fruit fruit);
+
+        @Update("update fruit set name = :name where id = :id")
+        int rename(long id, String name);
+
+        @Batch("insert into fruit(ext_id, name, type) values(?, ?, ?)")
+        void insertAll(List<Fruit> fruits);
+
+        @Select("select name, cast(:weekday as varchar) weekday from fruit")
+        List<FruitDelivery> findDeliveries(DayOfWeek weekday);
+    }
+
+    record FruitRow(UUID extId, String name, String type) {
+    }
+
+    @Test
+    void streamWithCursor() {
+        // without a cursor, all rows would be read before the first one is emitted
+        var numbers = this.reactiveJdbc.streamResult(this.reactiveJdbc.query()
+                .select("select * from generate_series(1, 10000000)")
+                .fetchSize(100), Mappers.singleLong())
+                .select().first(10)
+                .collect().asList()
+                .await().atMost(Duration.ofSeconds(10));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), numbers);
+    }
+
+    @ApplicationScoped
+    public static class FruitService {
+
+        @Inject
+        FluentJdbc jdbc;
+
+        @Inject
+        QueryCache queryCache;
+
+        @Transactional
+        public void insertAndRollBack(String name, Mapper<String> mapper) {
+            this.jdbc.query().update("insert into fruit(ext_id, name, type) values(?, ?, ?)")
+                    .params(UUID.randomUUID(), name, "apple")
+                    .run();
+            assertEquals(List.of(name, "McIntosh"), this.queryCache.select("select name from fruit order by name")
+                    .listResult(mapper));
+            throw new IllegalStateException("rollback");
+        }
+    }
+
+    @MappedRecord
     public record Fruit(UUID extId, String name, String type) {
     }
 
     public record FruitRaw(UUID ext_id, String name, String type) {
     }
+
+    @MappedRecord
+    public record FruitDelivery(String name, DayOfWeek weekday) {
+    }
 }
@@ -0,0 +1,59 @@
+package io.quarkiverse.fluentjdbc.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.fluentjdbc.runtime.Batch;
+import io.quarkiverse.fluentjdbc.runtime.Select;
+import io.quarkiverse.fluentjdbc.runtime.Update;
+import io.quarkus.test.QuarkusUnitTest;
+
+public class InvalidRepositoryTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Fruit.class, Repository.class)
+                    .addAsResource("application.properties"))
+            .assertException(e -> {
+                var message = e.getMessage();
+                assertTrue(message.contains("Repository.findByName: no parameter or record component :name"), message);
+                assertTrue(message.contains("Repository.findByType: the query has 1 parameters, but the method has 2"),
+                        message);
+                assertTrue(message.contains("Repository.insert: unsupported generated key type"), message);
+                assertTrue(message.contains("Repository.insertAll: record"), message);
+                assertTrue(message.contains("Repository.count: not annotated with @Select, @Update or @Batch"), message);
+            });
+
+    @Test
+    void failBuild() {
+        fail("The build should fail");
+    }
+
+    record Fruit(String name, String type) {
+    }
+
+    interface Repository {
+        @Select("select * from fruit where name = :name")
+        List<Fruit> findByName(String fruitName);
+
+        @Select("select * from fruit where type = ?")
+        List<Fruit> findByType(String type, int limit);
+
+        @Update("insert into fruit(name, type) values(:name, :type)")
+        Optional<Fruit> insert(Fruit fruit);
+
+        @Batch("insert into fruit(name, type) values(:name, :color)")
+        void insertAll(List<Fruit> fruits);
+
+        long count();
+    }
+}
@@ -0,0 +1,43 @@
+package io.quarkiverse.fluentjdbc.test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.fluentjdbc.runtime.Sql;
+import io.quarkus.test.QuarkusUnitTest;
+
+public class InvalidSqlTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest unitTest = new QuarkusUnitTest()
+            .setArchiveProducer(() -> ShrinkWrap.create(JavaArchive.class)
+                    .addClasses(Queries.class)
+                    .addAsResource("application.properties"))
+            .assertException(e -> {
+                var message = e.getMessage();
+                assertTrue(message.contains("Queries.COUNT: expected 1 parameters, but the query has 0"), message);
+                assertTrue(message.contains("unterminated string literal"), message);
+                assertTrue(message.contains("a select is executed as an update"), message);
+            });
+
+    @Test
+    void failBuild() {
+        fail("The build should fail");
+    }
+
+    static class Queries {
+        @Sql(params = 1)
+        static final String COUNT = "select count(*) from fruit";
+
+        static void run(FluentJdbc jdbc) {
+            jdbc.query().select("select * from fruit where name = 'apple").listResult(rs -> rs.getString(1));
+            jdbc.query().update("select 1").run();
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.acme.fluentjdbc;
 
+import com.acme.fluentjdbc.controller.dto.FarmerHarvest;
 import com.acme.fluentjdbc.controller.dto.Fruit;
+import io.quarkiverse.fluentjdbc.runtime.AggregateMapper;
 import io.quarkiverse.fluentjdbc.runtime.RecordMapper;
+import io.quarkiverse.fluentjdbc.runtime.Sql;
 
 import java.time.format.DateTimeFormatter;
 
@@ -10,13 +13,17 @@ public class App {
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
 
     public static class Mappers {
-        public static final RecordMapper fruitMapper = new RecordMapper(Fruit.class);
+        public static final RecordMapper<Fruit> fruitMapper = new RecordMapper<>(Fruit.class);
+
+        // a farmer with its fruits from the rows of a join, farmers without fruits have an empty list
+        public static final AggregateMapper<String, FarmerHarvest.Harvest, FarmerHarvest> farmerHarvestMapper =
+                AggregateMapper.of("id", rs -> rs.getString("farmer"),
+                                new RecordMapper<>(FarmerHarvest.Harvest.class), FarmerHarvest::new)
+                        .childKey("fruit");
     }
 
     public static class Queries {
-        public static final String INSERT_FRUIT = "insert into fruit(ext_id,name,type,calories,carbohydrates,fiber,sugars,fat,protein) values(?,?,?,?,?,?,?,?,?)";
         public static final String INSERT_FARMER = "insert into farmer(name, city, certificates) values(?,?, ?::jsonb)";
-        public static final String INSERT_FRUIT_FARMER = "insert into fruit_farmer(farmer_id, fruit_id, amount) values(?,?,?)";
 
         public static final String SELECT_FARMER = "select * from farmer";
         public static final String SELECT_FRUIT_FARMER_AMOUNTS = """
@@ -27,6 +34,16 @@ public class App {
                     order by farmer 
                 """;
 
+        // all farmers, also the ones without fruits, limited to the first 50 farmers instead of a number of rows
+        public static final String SELECT_FARMER_HARVESTS = """
+                    select fa.id, fa.name farmer, fr.name fruit, ff.amount
+                    from farmer fa
+                    left outer join fruit_farmer ff on ff.farmer_id = fa.id
+                    left outer join fruit fr on ff.fruit_id = fr.id
+                    where fa.id in (select id from farmer order by id limit 50)
+                    order by fa.id
+                """;
+
         public static final String FRUIT_REPORT = """
                     select fa.name farmer, fr.type fruit, sum(ff.amount)
                     from fruit_farmer ff
@@ -36,6 +53,8 @@ public class App {
                     order by farmer 
                 """;
 
-        public static final String EXPORT_CSV = "copy (select * from fruit order by id) to STDOUT (FORMAT csv, HEADER, DELIMITER ';', ENCODING 'UTF-8')";
+        // validated at build time, the other queries are detected as they are passed to query().select/update
+        @Sql(params = 0)
+        public static final String EXPORT_FRUITS = "select * from fruit order by id";
     }
 }
@@ -1,5 +1,6 @@
 package com.acme.fluentjdbc.config;
 
+import io.quarkiverse.fluentjdbc.runtime.Keyset;
 import io.quarkus.logging.Log;
 import jakarta.ws.rs.WebApplicationException;
 import org.codejargon.fluentjdbc.api.FluentJdbcException;
@@ -36,6 +37,15 @@ public class ExceptionMapper {
         ));
     }
 
+    @ServerExceptionMapper
+    public RestResponse<Map<String, String>> toResponse(Keyset.InvalidTokenException e) {
+        Log.error(e.getMessage());
+        return RestResponse.status(BAD_REQUEST, Map.of(
+                "message", e.getMessage(),
+                "exception", e.getClass().getName()
+        ));
+    }
+
     @ServerExceptionMapper
     public RestResponse<Map<String, String>> toResponse(FluentJdbcException e) {
         var expMsg = e.getMessage();
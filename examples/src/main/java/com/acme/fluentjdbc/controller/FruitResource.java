@@ -4,13 +4,10 @@ import static com.acme.fluentjdbc.App.Mappers.fruitMapper;
 import static com.acme.fluentjdbc.controller.dto.SearchCriteria.Operator.EQ;
 import static jakarta.ws.rs.core.HttpHeaders.CONTENT_DISPOSITION;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Stream;
 
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
@@ -24,38 +21,54 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
-import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
 
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.mapper.Mappers;
-import org.codejargon.fluentjdbc.api.query.UpdateResult;
 import org.jboss.resteasy.reactive.RestPath;
 import org.jboss.resteasy.reactive.RestQuery;
 import org.jboss.resteasy.reactive.RestResponse;
-import org.postgresql.copy.CopyManager;
-import org.postgresql.jdbc.PgConnection;
 
 import com.acme.fluentjdbc.App;
 import com.acme.fluentjdbc.controller.dto.AddFruitPOST;
 import com.acme.fluentjdbc.controller.dto.Farmer;
+import com.acme.fluentjdbc.controller.dto.FarmerHarvest;
 import com.acme.fluentjdbc.controller.dto.FarmerPOST;
 import com.acme.fluentjdbc.controller.dto.Fruit;
 import com.acme.fluentjdbc.controller.dto.FruitPOST;
 import com.acme.fluentjdbc.controller.dto.FruitPUT;
 import com.acme.fluentjdbc.controller.dto.SearchCriteria;
+import com.acme.fluentjdbc.repository.FruitRepository;
 
+import io.quarkiverse.fluentjdbc.runtime.BulkInsert;
+import io.quarkiverse.fluentjdbc.runtime.ColumnarResult;
 import io.quarkiverse.fluentjdbc.runtime.DynamicQuery;
 import io.quarkiverse.fluentjdbc.runtime.JsonObjectMapper;
+import io.quarkiverse.fluentjdbc.runtime.Keyset;
+import io.quarkiverse.fluentjdbc.runtime.QueryCache;
+import io.quarkiverse.fluentjdbc.runtime.QueryExport;
+import io.quarkiverse.fluentjdbc.runtime.QueryTemplate;
+import io.quarkiverse.fluentjdbc.runtime.ReactiveFluentJdbc;
 import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
 
 @Path("/fruits")
 public class FruitResource {
+    private static final Keyset BY_ID = Keyset.of("id");
+    private static final QueryExport EXPORT_FRUITS = QueryExport.csv(';');
+    private static final BulkInsert INSERT_FRUITS = new BulkInsert("fruit", "ext_id", "name", "type", "calories",
+            "carbohydrates", "fiber", "sugars", "fat", "protein");
+    // parsed once, the query is cached per combination of provided fields
+    private static final QueryTemplate UPDATE_FRUIT = new DynamicQuery()
+            .updateClauses("name", "type", "calories", "carbohydrates", "fiber", "sugars", "fat", "protein")
+            .where("id")
+            .template();
 
     @Inject
     FluentJdbc jdbc;
@@ -63,14 +76,18 @@ public class FruitResource {
     @Inject
     JsonObjectMapper jsonObjectMapper;
 
+    @Inject
+    ReactiveFluentJdbc reactiveJdbc;
+
+    @Inject
+    QueryCache queryCache;
+
+    @Inject
+    FruitRepository fruitRepository;
+
     @POST
     public RestResponse<Void> save(@Valid FruitPOST fruit, @Context UriInfo uriInfo) {
-        var id = this.jdbc.query()
-                .update(App.Queries.INSERT_FRUIT)
-                .params(UUID.randomUUID(), fruit.name(), fruit.type(), fruit.calories(), fruit.carbohydrates(), fruit.fiber(),
-                        fruit.sugars(), fruit.fat(), fruit.protein())
-                .runFetchGenKeys(Mappers.singleLong())
-                .firstKey();
+        var id = this.fruitRepository.insert(UUID.randomUUID(), fruit);
 
         return RestResponse.created(uriInfo.getAbsolutePathBuilder().path(id.get().toString()).build());
     }
@@ -78,41 +95,20 @@ public class FruitResource {
     @POST
     @Path("/batch")
     public RestResponse<Void> saveAll(@Valid @Size(min = 1, max = 100) List<FruitPOST> fruits) {
-        Stream<List<?>> params = fruits.stream()
-                .map(fruit -> {
-                    var res = new ArrayList();
-                    res.add(UUID.randomUUID());
-                    res.add(fruit.name());
-                    res.add(fruit.type());
-                    res.add(fruit.calories());
-                    res.add(fruit.carbohydrates());
-                    res.add(fruit.fiber());
-                    res.add(fruit.sugars());
-                    res.add(fruit.fat());
-                    res.add(fruit.protein());
-                    return res;
-
-                    // or shorthand:
-                    //                    var result = new LinkedHashMap<String, Object>();
-                    //                    result.put("extId", UUID.randomUUID());
-                    //                    result.putAll(JsonObject.mapFrom(fruit).getMap());
-                    //                    return new ArrayList<>(result.values());
-                });
-
-        var count = this.jdbc.query()
-                .batch(App.Queries.INSERT_FRUIT)
-                .params(params)
-                .batchSize(100)
-                .runFetchGenKeys(Mappers.singleLong())
-                .stream().mapToLong(UpdateResult::affectedRows).sum();
+        // one multi-row insert instead of a statement per fruit
+        var ids = INSERT_FRUITS.runFetchGenKeys(this.jdbc, fruits.stream()
+                .map(fruit -> Arrays.asList(UUID.randomUUID(), fruit.name(), fruit.type(), fruit.calories(),
+                        fruit.carbohydrates(), fruit.fiber(), fruit.sugars(), fruit.fat(), fruit.protein())),
+                Mappers.singleLong(), "id");
 
-        Log.infof("%d fruits created", count);
+        Log.infof("%d fruits created", ids.size());
         return RestResponse.ok();
     }
 
     @GET
     @Path("/search")
-    public List<Fruit> search(@BeanParam @Valid SearchCriteria criteria) {
+    public Keyset.Page<Fruit> search(@BeanParam @Valid SearchCriteria criteria, @RestQuery String page,
+            @RestQuery @Min(1) @Max(100) @DefaultValue("50") int size) {
         // dynamic search with operators, e.g. : where calories < 200 and fiber > 50 etc.
         var queryResult = new DynamicQuery()
                 .selectClauses(
@@ -125,23 +121,19 @@ public class FruitResource {
                         "fat %s :fat".formatted(criteria.fatOp().orElse(EQ).value),
                         "protein %s :prot".formatted(criteria.protOp().orElse(EQ).value))
                 .paramsFromDto(criteria, name -> !name.contains("Op"))
+                .page(BY_ID, page)
                 .build();
 
-        return this.jdbc.query()
-                .select("select * from fruit %s order by id".formatted(queryResult.query()))
-                .params(queryResult.parameters())
-                .listResult(fruitMapper);
+        return BY_ID.list(this.jdbc.query()
+                .select("select * from fruit" + queryResult.query())
+                .params(queryResult.parameters()), size, fruitMapper);
     }
 
     @PUT
     @Path("/{id}")
     public RestResponse<Void> update(@RestPath @Min(1) Long id, @Valid FruitPUT fruit) {
         // will create a dynamic query by checking the provided params: set name = ?, type = ?, ... where id = ?
-        var queryResult = new DynamicQuery()
-                .updateClauses("name", "type", "calories", "carbohydrates", "fiber", "sugars", "fat", "protein")
-                .where("id")
-                .paramsFromDto(fruit, id)
-                .build();
+        var queryResult = UPDATE_FRUIT.buildFromDto(fruit, id);
 
         var count = this.jdbc.query()
                 .update("update fruit %s".formatted(queryResult.query()))
@@ -157,20 +149,20 @@ public class FruitResource {
     }
 
     @GET
-    public List<Fruit> findAll(@RestQuery @DefaultValue("0") @Min(0) int start,
-            @RestQuery @Min(1) @Max(100) @DefaultValue("50") long size) {
-        return this.jdbc.query()
-                .select("select %s from fruit where id > ? order by id".formatted(fruitMapper.columnNames()))
-                .params(start)
-                .maxRows(size)
-                .listResult(fruitMapper);
+    public Keyset.Page<Fruit> findAll(@RestQuery String page, @RestQuery @Min(1) @Max(100) @DefaultValue("50") int size) {
+        // keyset pagination: a page continues after the id of the last fruit of the previous page
+        var queryResult = BY_ID.apply(new DynamicQuery.QueryResult("", List.of()), page);
+
+        return BY_ID.list(this.jdbc.query()
+                .select("select id, %s from fruit%s".formatted(fruitMapper.columnNames(), queryResult.query()))
+                .params(queryResult.parameters()), size, fruitMapper);
     }
 
-    // with jsonb
+    // with jsonb, cached until a farmer is added
     @GET
     @Path("/farmers")
     public List<Farmer> findAllFarmers() {
-        return this.jdbc.query()
+        return this.queryCache
                 .select(App.Queries.SELECT_FARMER)
                 .maxRows(50L)
                 .listResult(Farmer::fromRow);
@@ -192,11 +184,7 @@ public class FruitResource {
     @POST
     @Path("/farmers/fruits")
     public RestResponse<Void> addFruit(@Valid AddFruitPOST fruit) {
-        var count = this.jdbc.query()
-                .update(App.Queries.INSERT_FRUIT_FARMER)
-                .params(fruit.farmerId(), fruit.fruitId(), fruit.amount())
-                .run()
-                .affectedRows();
+        var count = this.fruitRepository.addFruit(fruit);
 
         if (count > 0) {
             Log.infof("%d fruits added for farmer(id=%d)", fruit.amount(), fruit.farmerId());
@@ -207,33 +195,37 @@ public class FruitResource {
 
     @GET
     @Path("/farmers/fruits")
-    public List<JsonObject> findAllFruitFarmers() {
-        return this.jdbc.query()
+    @Produces(MediaType.APPLICATION_JSON)
+    public StreamingOutput findAllFruitFarmers() {
+        // the rows are written to the response while reading the result set
+        return out -> this.jsonObjectMapper.writeArray(this.jdbc.query()
                 .select(App.Queries.SELECT_FRUIT_FARMER_AMOUNTS)
-                .maxRows(50L)
-                .listResult(this.jsonObjectMapper);
+                .maxRows(50L), out);
+    }
+
+    // one query instead of a query per farmer
+    @GET
+    @Path("/farmers/harvests")
+    public List<FarmerHarvest> findAllFarmerHarvests() {
+        return App.Mappers.farmerHarvestMapper.list(this.jdbc.query().select(App.Queries.SELECT_FARMER_HARVESTS));
     }
 
+    // runs on the event loop, the query is executed on a virtual thread and the rows are read into an array per column
     @GET
     @Path("/reports")
-    public List<Map<String, Object>> reports() {
-        return this.jdbc.query()
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<Buffer> reports() {
+        return this.reactiveJdbc.execute(query -> ColumnarResult.read(query
                 .select(App.Queries.FRUIT_REPORT)
-                .maxRows(50L)
-                .listResult(Mappers.map());
+                .maxRows(50L)).toBuffer());
     }
 
     @GET
     @Path("/export")
     @Produces("text/csv")
     public Response export() {
-        StreamingOutput stream = out -> this.jdbc.query().plainConnection(con -> {
-            try {
-                return new CopyManager(con.unwrap(PgConnection.class)).copyOut(App.Queries.EXPORT_CSV, out);
-            } catch (IOException e) {
-                throw new WebApplicationException(e);
-            }
-        });
+        // copied by PostgreSQL, without reading the rows
+        StreamingOutput stream = out -> EXPORT_FRUITS.write(this.jdbc, App.Queries.EXPORT_FRUITS, List.of(), out);
 
         var date = LocalDateTime.now().format(App.DATE_FORMATTER);
         return Response.ok(stream)
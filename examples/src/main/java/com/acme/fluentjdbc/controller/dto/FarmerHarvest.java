@@ -0,0 +1,9 @@
+package com.acme.fluentjdbc.controller.dto;
+
+import java.util.List;
+
+public record FarmerHarvest(String farmer, List<Harvest> fruits) {
+
+    public record Harvest(String fruit, long amount) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.acme.fluentjdbc.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import com.acme.fluentjdbc.controller.dto.AddFruitPOST;
+import com.acme.fluentjdbc.controller.dto.FruitPOST;
+
+import io.quarkiverse.fluentjdbc.runtime.Update;
+
+// implemented at build time, the parameters are bound by name to the method parameters and record components
+public interface FruitRepository {
+
+    @Update(value = """
+                insert into fruit(ext_id, name, type, calories, carbohydrates, fiber, sugars, fat, protein)
+                values(:extId, :name, :type, :calories, :carbohydrates, :fiber, :sugars, :fat, :protein)
+            """, keyColumns = "id")
+    Optional<Long> insert(UUID extId, FruitPOST fruit);
+
+    @Update("insert into fruit_farmer(farmer_id, fruit_id, amount) values(:farmerId, :fruitId, :amount)")
+    long addFruit(AddFruitPOST fruit);
+}
@@ -0,0 +1,166 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.SelectQuery;
+
+/**
+ * Maps the rows of a one-to-many join into aggregates, e.g. a farmer with the list of its fruits, with a single query
+ * instead of a query per parent:
+ *
+ * <pre>
+ * static final AggregateMapper&lt;String, Harvest, FarmerHarvest&gt; FARMER_HARVESTS = AggregateMapper
+ *         .of("id", rs -&gt; rs.getString("farmer"), new RecordMapper&lt;&gt;(Harvest.class), FarmerHarvest::new)
+ *         .childKey("fruit");
+ *
+ * List&lt;FarmerHarvest&gt; farmers = FARMER_HARVESTS.list(query().select("""
+ *         select fa.id, fa.name farmer, fr.name fruit, ff.amount from farmer fa
+ *         left join fruit_farmer ff on ff.farmer_id = fa.id left join fruit fr on ff.fruit_id = fr.id"""));
+ * </pre>
+ *
+ * The rows are grouped by the key column: the parent is mapped from the first row of a key, and the child from each
+ * row of the key. A row whose child key column is SQL <code>NULL</code> has no child, like a parent without children
+ * of a left join. Limit the number of parents in the query rather than the number of rows, which would cut off the
+ * children of the last parent.
+ * <p>
+ * A mapper is immutable and thread-safe.
+ *
+ * @param <P> the parent, e.g. a record of the parent columns
+ * @param <C> the child
+ * @param <A> the aggregate of a parent and its children
+ */
+public final class AggregateMapper<P, C, A> {
+    private final String keyColumn;
+    private final String childKeyColumn;
+    private final Mapper<P> parentMapper;
+    private final Mapper<C> childMapper;
+    private final BiFunction<P, List<C>, A> aggregator;
+
+    private AggregateMapper(String keyColumn, String childKeyColumn, Mapper<P> parentMapper, Mapper<C> childMapper,
+            BiFunction<P, List<C>, A> aggregator) {
+        this.keyColumn = keyColumn;
+        this.childKeyColumn = childKeyColumn;
+        this.parentMapper = parentMapper;
+        this.childMapper = childMapper;
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * @param keyColumn the label of the column of the parent key
+     * @param parentMapper maps the parent of the first row of a key
+     * @param childMapper maps the child of a row
+     * @param aggregator creates the aggregate of a parent and its children
+     */
+    public static <P, C, A> AggregateMapper<P, C, A> of(String keyColumn, Mapper<P> parentMapper, Mapper<C> childMapper,
+            BiFunction<P, List<C>, A> aggregator) {
+        return new AggregateMapper<>(keyColumn, null, parentMapper, childMapper, aggregator);
+    }
+
+    /**
+     * @param childKeyColumn the label of a column of the child, rows where it is SQL <code>NULL</code> have no child
+     */
+    public AggregateMapper<P, C, A> childKey(String childKeyColumn) {
+        return new AggregateMapper<>(this.keyColumn, childKeyColumn, this.parentMapper, this.childMapper, this.aggregator);
+    }
+
+    /**
+     * Maps all rows of the query. The rows of a key do not need to be consecutive, the aggregates are in the order of
+     * the first row of their key.
+     */
+    public List<A> list(SelectQuery query) {
+        var groups = new LinkedHashMap<Object, Group<P, C>>();
+        var state = new State();
+        query.iterateResult(rs -> {
+            state.resolve(rs);
+            var key = rs.getObject(state.key);
+            var group = groups.get(key);
+            if (group == null) {
+                group = new Group<>(key, this.parentMapper.map(rs));
+                groups.put(key, group);
+            }
+            addChild(group, rs, state);
+            return null;
+        }, ignored -> {
+        });
+
+        var result = new ArrayList<A>(groups.size());
+        for (var group : groups.values()) {
+            result.add(aggregate(group));
+        }
+        return result;
+    }
+
+    /**
+     * Maps the rows of the query while reading them, the rows must be ordered by the key. An aggregate is passed to
+     * the consumer as soon as the key changes, so only the current aggregate is kept in memory.
+     *
+     * @return the number of aggregates
+     */
+    public long iterate(SelectQuery query, Consumer<? super A> consumer) {
+        var state = new State();
+        query.iterateResult(rs -> {
+            state.resolve(rs);
+            var key = rs.getObject(state.key);
+            if (state.current == null || !Objects.equals(state.current.key, key)) {
+                state.accept(consumer);
+                state.current = new Group<>(key, this.parentMapper.map(rs));
+            }
+            addChild(state.current, rs, state);
+            return null;
+        }, ignored -> {
+        });
+
+        state.accept(consumer);
+        return state.count;
+    }
+
+    private void addChild(Group<P, C> group, ResultSet rs, State state) throws SQLException {
+        if (state.childKey == 0 || rs.getObject(state.childKey) != null) {
+            group.children.add(this.childMapper.map(rs));
+        }
+    }
+
+    private A aggregate(Group<P, C> group) {
+        return this.aggregator.apply(group.parent, group.children);
+    }
+
+    private record Group<P, C>(Object key, P parent, List<C> children) {
+        Group(Object key, P parent) {
+            this(key, parent, new ArrayList<>());
+        }
+    }
+
+    /**
+     * The indexes of the key columns, resolved once per query, and the current group of {@link #iterate}.
+     */
+    private final class State {
+        int key;
+        int childKey;
+        Group<P, C> current;
+        long count;
+
+        void resolve(ResultSet rs) throws SQLException {
+            if (this.key == 0) {
+                this.key = rs.findColumn(AggregateMapper.this.keyColumn);
+                if (AggregateMapper.this.childKeyColumn != null) {
+                    this.childKey = rs.findColumn(AggregateMapper.this.childKeyColumn);
+                }
+            }
+        }
+
+        void accept(Consumer<? super A> consumer) {
+            if (this.current != null) {
+                consumer.accept(aggregate(this.current));
+                this.count++;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a repository interface that executes a statement once per item in a JDBC batch, see
+ * {@link Repositories}.
+ * <p>
+ * The method has a single <code>Iterable</code> or <code>Stream</code> parameter of Java Records, and returns
+ * <code>void</code> or the <code>List&lt;UpdateResult&gt;</code> of the items.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Batch {
+
+    /**
+     * @return the statement, with <code>:name</code> parameters bound to the record components of an item, or
+     *         positional <code>?</code> parameters bound in the order of the record components.
+     */
+    String value();
+}
@@ -0,0 +1,174 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.query.Mapper;
+
+/**
+ * Inserts many rows into a table, with multi-row inserts of {@link #chunkSize(int)} rows, or with
+ * <code>COPY FROM STDIN</code> on PostgreSQL, so that the number of statements does not grow with the rows:
+ *
+ * <pre>
+ * static final BulkInsert INSERT_FRUITS = new BulkInsert("fruit", "ext_id", "name", "type");
+ *
+ * var count = INSERT_FRUITS.run(this.jdbc, fruits.stream());
+ * var ids = INSERT_FRUITS.runFetchGenKeys(this.jdbc, fruits.stream(), Mappers.singleLong(), "id");
+ * </pre>
+ *
+ * A row is a list of values in the order of the columns, or a DTO of which the values are read like
+ * {@link DynamicQuery#paramsFromDto(Object, Object...)}, e.g. a record with the components in the order of the columns.
+ * The rows are read from the stream while inserting, so they do not need to fit in memory.
+ * <p>
+ * All rows are inserted in one transaction, or in the transaction of the caller. A bulk insert is immutable and
+ * thread-safe.
+ */
+public class BulkInsert {
+    // the maximum number of parameters of a PostgreSQL statement
+    static final int MAX_PARAMS = 32767;
+
+    private final String table;
+    private final String[] columns;
+    private final int chunkSize;
+    private final Mode mode;
+    private final String chunkSql;
+
+    public BulkInsert(String table, String... columns) {
+        this(table, columns, 1000, Mode.AUTO);
+    }
+
+    private BulkInsert(String table, String[] columns, int chunkSize, Mode mode) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("No columns to insert into " + table);
+        }
+        this.table = table;
+        this.columns = columns.clone();
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_PARAMS / columns.length));
+        this.mode = mode;
+        this.chunkSql = insertSql(this.chunkSize);
+    }
+
+    /**
+     * @param rows the number of rows of a multi-row insert, 1000 by default. It is limited by the maximum number of
+     *        parameters of a statement of PostgreSQL.
+     */
+    public BulkInsert chunkSize(int rows) {
+        return new BulkInsert(this.table, this.columns, rows, this.mode);
+    }
+
+    /**
+     * @param mode how the rows are inserted, {@link Mode#AUTO} by default.
+     */
+    public BulkInsert mode(Mode mode) {
+        return new BulkInsert(this.table, this.columns, this.chunkSize, mode);
+    }
+
+    /**
+     * Inserts the rows.
+     *
+     * @return the number of inserted rows
+     */
+    public long run(FluentJdbc jdbc, Stream<?> rows) {
+        var query = jdbc.query();
+        return query.transaction().in(() -> {
+            if (this.mode == Mode.COPY || this.mode == Mode.AUTO && query.plainConnection(BulkInsert::isPostgreSql)) {
+                return query.plainConnection(connection -> PgCopy.copyIn(connection, this.table, this.columns,
+                        rows.iterator()));
+            }
+
+            var count = new long[1];
+            insertChunks(rows.iterator(), (sql, params) -> count[0] += query.update(sql).params(params).run()
+                    .affectedRows());
+            return count[0];
+        });
+    }
+
+    /**
+     * Inserts the rows with multi-row inserts and reads their generated keys, e.g. to insert their children.
+     *
+     * @param keyColumns the columns of the generated keys, which some drivers require to return the keys of all rows.
+     * @return the generated keys, in the order of the rows.
+     */
+    public <K> List<K> runFetchGenKeys(FluentJdbc jdbc, Stream<?> rows, Mapper<K> keyMapper, String... keyColumns) {
+        var query = jdbc.query();
+        return query.transaction().in(() -> {
+            var keys = new ArrayList<K>();
+            insertChunks(rows.iterator(), (sql, params) -> {
+                var update = query.update(sql).params(params);
+                keys.addAll((keyColumns.length > 0 ? update.runFetchGenKeys(keyMapper, keyColumns)
+                        : update.runFetchGenKeys(keyMapper)).generatedKeys());
+            });
+            return keys;
+        });
+    }
+
+    String insertSql(int rows) {
+        var row = "(" + "?,".repeat(this.columns.length - 1) + "?)";
+        var sql = new StringBuilder(32 + rows * (row.length() + 1))
+                .append("insert into ").append(this.table)
+                .append("(").append(String.join(",", this.columns)).append(") values ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i > 0 ? "," : "").append(row);
+        }
+        return sql.toString();
+    }
+
+    private void insertChunks(Iterator<?> rows, ChunkInserter inserter) {
+        var params = new ArrayList<>(this.chunkSize * this.columns.length);
+        var count = 0;
+        while (rows.hasNext()) {
+            addRow(params, rows.next());
+            if (++count == this.chunkSize) {
+                inserter.insert(this.chunkSql, params);
+                params.clear();
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            inserter.insert(insertSql(count), params);
+        }
+    }
+
+    private void addRow(List<Object> params, Object row) {
+        var values = values(row);
+        if (values.size() != this.columns.length) {
+            throw new IllegalArgumentException("Expected %d values to insert into %s, but got %d: %s"
+                    .formatted(this.columns.length, this.table, values.size(), values));
+        }
+        params.addAll(values);
+    }
+
+    static List<?> values(Object row) {
+        return row instanceof List<?> list ? list : DtoParams.of(row, name -> true);
+    }
+
+    static boolean isPostgreSql(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("postgres");
+    }
+
+    public enum Mode {
+        /**
+         * <code>COPY</code> on PostgreSQL, otherwise multi-row inserts.
+         */
+        AUTO,
+        /**
+         * Multi-row inserts.
+         */
+        VALUES,
+        /**
+         * PostgreSQL <code>COPY FROM STDIN</code> in the CSV format, which requires the PostgreSQL driver.
+         */
+        COPY
+    }
+
+    @FunctionalInterface
+    private interface ChunkInserter {
+        void insert(String sql, List<Object> params);
+    }
+}
@@ -0,0 +1,113 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * Reads a single column of the current row of a {@link ResultSet}.
+ * <p>
+ * The reader for a Java type is resolved once, so mapping a row does not need to inspect the type again. SQL
+ * <code>NULL</code> is read as <code>null</code> for all types but the primitives, e.g. as <code>null</code> for a
+ * <code>Long</code> and as <code>0</code> for a <code>long</code>.
+ */
+@FunctionalInterface
+interface ColumnReader {
+
+    Object read(ResultSet rs, int columnIndex) throws SQLException;
+
+    static ColumnReader of(Class<?> type) {
+        if (type.isEnum()) {
+            return ofEnum(type);
+        }
+        return switch (type.getName()) {
+            case "java.lang.String" -> ResultSet::getString;
+            case "long" -> ResultSet::getLong;
+            case "java.lang.Long" -> nullable(ResultSet::getLong);
+            case "int" -> ResultSet::getInt;
+            case "java.lang.Integer" -> nullable(ResultSet::getInt);
+            case "double" -> ResultSet::getDouble;
+            case "java.lang.Double" -> nullable(ResultSet::getDouble);
+            case "float" -> ResultSet::getFloat;
+            case "java.lang.Float" -> nullable(ResultSet::getFloat);
+            case "short" -> ResultSet::getShort;
+            case "java.lang.Short" -> nullable(ResultSet::getShort);
+            case "byte" -> ResultSet::getByte;
+            case "java.lang.Byte" -> nullable(ResultSet::getByte);
+            case "boolean" -> ResultSet::getBoolean;
+            case "java.lang.Boolean" -> nullable(ResultSet::getBoolean);
+            case "java.math.BigDecimal" -> ResultSet::getBigDecimal;
+            case "java.util.UUID" -> (rs, i) -> rs.getObject(i, UUID.class);
+            case "java.time.Instant" -> (rs, i) -> {
+                var timestamp = rs.getTimestamp(i);
+                return timestamp != null ? timestamp.toInstant() : null;
+            };
+            case "java.time.LocalDate" -> (rs, i) -> {
+                var date = rs.getDate(i);
+                return date != null ? date.toLocalDate() : null;
+            };
+            case "java.time.LocalDateTime" -> (rs, i) -> {
+                var timestamp = rs.getTimestamp(i);
+                return timestamp != null ? timestamp.toLocalDateTime() : null;
+            };
+            case "java.time.LocalTime" -> (rs, i) -> {
+                var time = rs.getTime(i);
+                return time != null ? time.toLocalTime() : null;
+            };
+            case "java.time.OffsetDateTime" -> (rs, i) -> rs.getObject(i, OffsetDateTime.class);
+            case "java.sql.Date" -> ResultSet::getDate;
+            case "java.sql.Timestamp", "java.util.Date" -> ResultSet::getTimestamp;
+            case "java.util.Calendar" -> (rs, i) -> {
+                var timestamp = rs.getTimestamp(i);
+                if (timestamp == null) {
+                    return null;
+                }
+                var calendar = Calendar.getInstance();
+                calendar.setTime(timestamp);
+                return calendar;
+            };
+            case "java.sql.Array" -> ResultSet::getArray;
+            case "java.sql.Blob" -> ResultSet::getBlob;
+            case "java.sql.Clob" -> ResultSet::getClob;
+            case "java.sql.NClob" -> ResultSet::getNClob;
+            case "java.io.InputStream" -> ResultSet::getBinaryStream;
+            case "java.io.Reader" -> ResultSet::getCharacterStream;
+            default -> ResultSet::getObject;
+        };
+    }
+
+    /**
+     * @return a reader of a wrapper type, which returns <code>null</code> instead of the <code>0</code> or
+     *         <code>false</code> of the typed getter when the column is SQL <code>NULL</code>.
+     */
+    private static ColumnReader nullable(ColumnReader reader) {
+        return (rs, i) -> {
+            var value = reader.read(rs, i);
+            return rs.wasNull() ? null : value;
+        };
+    }
+
+    /**
+     * @return a reader of an enum constant by its name, see {@link Repositories#param(Object)}
+     */
+    private static ColumnReader ofEnum(Class<?> type) {
+        var constants = new HashMap<String, Object>();
+        for (var constant : type.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name(), constant);
+        }
+        return (rs, i) -> {
+            var name = rs.getString(i);
+            if (name == null) {
+                return null;
+            }
+            var constant = constants.get(name);
+            if (constant == null) {
+                throw new IllegalArgumentException("No constant %s of enum %s".formatted(name, type.getName()));
+            }
+            return constant;
+        };
+    }
+}
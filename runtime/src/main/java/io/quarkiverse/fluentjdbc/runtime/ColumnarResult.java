@@ -0,0 +1,454 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codejargon.fluentjdbc.api.query.SelectQuery;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * The rows of a query read into an array per column, e.g. for a report of a few numeric columns and many rows:
+ *
+ * <pre>
+ * var result = ColumnarResult.read(this.jdbc.query().select("select farmer, fruit, sum(amount) from report group by 1, 2"));
+ * var farmers = (ColumnarResult.StringColumn) result.column(0);
+ * var amounts = (ColumnarResult.ObjectColumn) result.column(2);
+ * </pre>
+ *
+ * Integer columns and decimal columns without a scale of at most 18 digits are read into a <code>long[]</code>,
+ * floating point columns into a <code>double[]</code> and character columns into an <code>int[]</code> of codes of a
+ * dictionary of the distinct strings. Other columns are read into an <code>Object[]</code>, e.g. the other decimal
+ * columns as <code>BigDecimal</code>, unless they are read as doubles, see {@link #read(SelectQuery, boolean)}. A
+ * column marks its SQL <code>NULL</code> values in a bitmap, the array has <code>0</code> at that row. So a row does
+ * not need a map or an object per value.
+ * <p>
+ * A result is not thread-safe while it is read, and must not be modified afterwards.
+ */
+public final class ColumnarResult {
+    private static final int INITIAL_CAPACITY = 64;
+    // the number of decimal digits that always fit in a long
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final Column[] columns;
+    private int rows;
+
+    private ColumnarResult(Column[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Reads all rows of the query. A query without rows has no columns, since the columns are known from the first row.
+     */
+    public static ColumnarResult read(SelectQuery query) {
+        return read(query, false);
+    }
+
+    /**
+     * Reads all rows of the query, see {@link #read(SelectQuery)}.
+     *
+     * @param decimalsAsDoubles whether the decimal columns with a scale are read into a {@link DoubleColumn}, which may
+     *        lose precision, instead of an {@link ObjectColumn} of <code>BigDecimal</code>
+     */
+    public static ColumnarResult read(SelectQuery query, boolean decimalsAsDoubles) {
+        var result = new ColumnarResult[1];
+        query.iterateResult(rs -> {
+            if (result[0] == null) {
+                result[0] = new ColumnarResult(columns(rs.getMetaData(), decimalsAsDoubles));
+            }
+            result[0].append(rs);
+            return null;
+        }, ignored -> {
+        });
+        return result[0] != null ? result[0].trim() : new ColumnarResult(new Column[0]);
+    }
+
+    /**
+     * Reads the remaining rows of the result set, which is not closed.
+     */
+    public static ColumnarResult read(ResultSet rs) throws SQLException {
+        return read(rs, false);
+    }
+
+    /**
+     * Reads the remaining rows of the result set, see {@link #read(SelectQuery, boolean)}.
+     */
+    public static ColumnarResult read(ResultSet rs, boolean decimalsAsDoubles) throws SQLException {
+        var result = new ColumnarResult(columns(rs.getMetaData(), decimalsAsDoubles));
+        while (rs.next()) {
+            result.append(rs);
+        }
+        return result.trim();
+    }
+
+    public int rowCount() {
+        return this.rows;
+    }
+
+    public List<Column> columns() {
+        return List.of(this.columns);
+    }
+
+    /**
+     * @param index the index of the column, starting at 0
+     */
+    public Column column(int index) {
+        return this.columns[index];
+    }
+
+    /**
+     * @return the column with the label, ignoring the case
+     */
+    public Column column(String label) {
+        for (var column : this.columns) {
+            if (column.label.equalsIgnoreCase(label)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("No column " + label);
+    }
+
+    /**
+     * Writes the result as a JSON object with an array of values per column label, e.g.
+     * <code>{"farmer":["Anna","Ben"],"amount":[10,null]}</code>. The output stream is not closed.
+     */
+    public void writeJson(OutputStream out) {
+        try (var generator = JsonObjectMapper.JSON_FACTORY.createGenerator(out)) {
+            generator.writeStartObject();
+            for (var column : this.columns) {
+                generator.writeFieldName(column.label);
+                generator.writeStartArray();
+                for (int row = 0; row < this.rows; row++) {
+                    if (column.isNull(row)) {
+                        generator.writeNull();
+                    } else {
+                        column.writeValue(generator, row);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the result into a buffer, see {@link #writeJson(OutputStream)}.
+     */
+    public Buffer toBuffer() {
+        var buffer = Buffer.buffer();
+        writeJson(new OutputStream() {
+            @Override
+            public void write(int b) {
+                buffer.appendByte((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                buffer.appendBytes(b, off, len);
+            }
+        });
+        return buffer;
+    }
+
+    private static Column[] columns(ResultSetMetaData metadata, boolean decimalsAsDoubles) throws SQLException {
+        var columns = new Column[metadata.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            var label = JsonObjectMapper.label(metadata, i + 1);
+            columns[i] = switch (metadata.getColumnType(i + 1)) {
+                case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> new LongColumn(label, i + 1);
+                case Types.DOUBLE, Types.FLOAT, Types.REAL -> new DoubleColumn(label, i + 1);
+                case Types.NUMERIC, Types.DECIMAL -> decimalColumn(metadata, label, i + 1, decimalsAsDoubles);
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR ->
+                    new StringColumn(label, i + 1);
+                default -> new ObjectColumn(label, i + 1);
+            };
+        }
+        return columns;
+    }
+
+    private static Column decimalColumn(ResultSetMetaData metadata, String label, int index, boolean decimalsAsDoubles)
+            throws SQLException {
+        // e.g. numeric(10), the precision of an unconstrained numeric is 0 or its maximum
+        var precision = metadata.getPrecision(index);
+        if (metadata.getScale(index) == 0 && precision > 0 && precision <= MAX_LONG_DIGITS) {
+            return new LongColumn(label, index);
+        }
+        return decimalsAsDoubles ? new DoubleColumn(label, index) : new ObjectColumn(label, index);
+    }
+
+    private void append(ResultSet rs) throws SQLException {
+        for (var column : this.columns) {
+            column.append(rs, this.rows);
+        }
+        this.rows++;
+    }
+
+    private ColumnarResult trim() {
+        for (var column : this.columns) {
+            column.trim(this.rows);
+        }
+        return this;
+    }
+
+    static int grow(int capacity) {
+        return Math.max(INITIAL_CAPACITY, capacity * 2);
+    }
+
+    /**
+     * A column of a result, with a bitmap of its SQL <code>NULL</code> values.
+     */
+    public abstract static sealed class Column permits LongColumn, DoubleColumn, StringColumn, ObjectColumn {
+        private final String label;
+        private final int index;
+        private long[] nulls = new long[0];
+        private int nullCount;
+
+        Column(String label, int index) {
+            this.label = label;
+            this.index = index;
+        }
+
+        public String label() {
+            return this.label;
+        }
+
+        public boolean isNull(int row) {
+            var word = row >>> 6;
+            return word < this.nulls.length && (this.nulls[word] & (1L << row)) != 0;
+        }
+
+        public int nullCount() {
+            return this.nullCount;
+        }
+
+        /**
+         * @return the value of the row, <code>null</code> for SQL <code>NULL</code>
+         */
+        public abstract Object get(int row);
+
+        abstract void read(ResultSet rs, int index, int row) throws SQLException;
+
+        abstract void trim(int rows);
+
+        abstract void writeValue(JsonGenerator generator, int row) throws IOException, SQLException;
+
+        final void append(ResultSet rs, int row) throws SQLException {
+            read(rs, this.index, row);
+            if (rs.wasNull()) {
+                var word = row >>> 6;
+                if (word >= this.nulls.length) {
+                    this.nulls = Arrays.copyOf(this.nulls, Math.max(word + 1, this.nulls.length * 2));
+                }
+                this.nulls[word] |= 1L << row;
+                this.nullCount++;
+            }
+        }
+    }
+
+    public static final class LongColumn extends Column {
+        private long[] values = new long[0];
+
+        LongColumn(String label, int index) {
+            super(label, index);
+        }
+
+        public long getLong(int row) {
+            return this.values[row];
+        }
+
+        /**
+         * @return the values of all rows, <code>0</code> for SQL <code>NULL</code>. The array must not be modified.
+         */
+        public long[] values() {
+            return this.values;
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : this.values[row];
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            if (row == this.values.length) {
+                this.values = Arrays.copyOf(this.values, grow(this.values.length));
+            }
+            this.values[row] = rs.getLong(index);
+        }
+
+        @Override
+        void trim(int rows) {
+            if (rows < this.values.length) {
+                this.values = Arrays.copyOf(this.values, rows);
+            }
+        }
+
+        @Override
+        void writeValue(JsonGenerator generator, int row) throws IOException {
+            generator.writeNumber(this.values[row]);
+        }
+    }
+
+    public static final class DoubleColumn extends Column {
+        private double[] values = new double[0];
+
+        DoubleColumn(String label, int index) {
+            super(label, index);
+        }
+
+        public double getDouble(int row) {
+            return this.values[row];
+        }
+
+        /**
+         * @return the values of all rows, <code>0</code> for SQL <code>NULL</code>. The array must not be modified.
+         */
+        public double[] values() {
+            return this.values;
+        }
+
+        @Override
+        public Object get(int row) {
+            return isNull(row) ? null : this.values[row];
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            if (row == this.values.length) {
+                this.values = Arrays.copyOf(this.values, grow(this.values.length));
+            }
+            this.values[row] = rs.getDouble(index);
+        }
+
+        @Override
+        void trim(int rows) {
+            if (rows < this.values.length) {
+                this.values = Arrays.copyOf(this.values, rows);
+            }
+        }
+
+        @Override
+        void writeValue(JsonGenerator generator, int row) throws IOException {
+            generator.writeNumber(this.values[row]);
+        }
+    }
+
+    /**
+     * A column of strings, read as codes of a dictionary of the distinct values, e.g. to group by the codes.
+     */
+    public static final class StringColumn extends Column {
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private int[] codes = new int[0];
+
+        StringColumn(String label, int index) {
+            super(label, index);
+        }
+
+        /**
+         * @return the codes of all rows, the index of the value in the {@link #dictionary()}, or <code>-1</code> for
+         *         SQL <code>NULL</code>. The array must not be modified.
+         */
+        public int[] codes() {
+            return this.codes;
+        }
+
+        /**
+         * @return the distinct values, in the order of their first row
+         */
+        public List<String> dictionary() {
+            return Collections.unmodifiableList(this.dictionary);
+        }
+
+        @Override
+        public String get(int row) {
+            var code = this.codes[row];
+            return code < 0 ? null : this.dictionary.get(code);
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            if (row == this.codes.length) {
+                this.codes = Arrays.copyOf(this.codes, grow(this.codes.length));
+            }
+            var value = rs.getString(index);
+            if (value == null) {
+                this.codes[row] = -1;
+                return;
+            }
+            var code = this.codesByValue.get(value);
+            if (code == null) {
+                code = this.dictionary.size();
+                this.codesByValue.put(value, code);
+                this.dictionary.add(value);
+            }
+            this.codes[row] = code;
+        }
+
+        @Override
+        void trim(int rows) {
+            if (rows < this.codes.length) {
+                this.codes = Arrays.copyOf(this.codes, rows);
+            }
+            this.codesByValue.clear();
+        }
+
+        @Override
+        void writeValue(JsonGenerator generator, int row) throws IOException {
+            generator.writeString(this.dictionary.get(this.codes[row]));
+        }
+    }
+
+    /**
+     * A column of another type, e.g. dates or booleans, read with <code>getObject</code>.
+     */
+    public static final class ObjectColumn extends Column {
+        private Object[] values = new Object[0];
+
+        ObjectColumn(String label, int index) {
+            super(label, index);
+        }
+
+        @Override
+        public Object get(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        void read(ResultSet rs, int index, int row) throws SQLException {
+            if (row == this.values.length) {
+                this.values = Arrays.copyOf(this.values, grow(this.values.length));
+            }
+            this.values[row] = rs.getObject(index);
+        }
+
+        @Override
+        void trim(int rows) {
+            if (rows < this.values.length) {
+                this.values = Arrays.copyOf(this.values, rows);
+            }
+        }
+
+        @Override
+        void writeValue(JsonGenerator generator, int row) throws IOException, SQLException {
+            JsonObjectMapper.writeValue(generator, this.values[row]);
+        }
+    }
+}
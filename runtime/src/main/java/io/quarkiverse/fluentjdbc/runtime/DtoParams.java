@@ -0,0 +1,132 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import io.quarkus.logging.Log;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Reads the parameters of a DTO, see {@link DynamicQuery#paramsFromDto(Object, Predicate, Object...)}.
+ * <p>
+ * The components of a record are read with their accessors in declaration order. The accessors are resolved once per
+ * record type. Other DTOs, and records with Jackson annotations like <code>@JsonIgnore</code> or
+ * <code>@JsonProperty</code>, are read with {@link JsonObject#mapFrom(Object)}.
+ */
+final class DtoParams {
+    private static final String JACKSON_ANNOTATIONS = "com.fasterxml.jackson.annotation.";
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final ClassValue<DtoParams> PARAMS = new ClassValue<>() {
+        @Override
+        protected DtoParams computeValue(Class<?> type) {
+            return new DtoParams(type);
+        }
+    };
+
+    private final String[] names;
+    // null when the type is not an accessible record
+    private final MethodHandle[] accessors;
+
+    private DtoParams(Class<?> type) {
+        var recordComponents = type.isRecord() ? type.getRecordComponents() : null;
+        this.names = recordComponents != null ? new String[recordComponents.length] : new String[0];
+        this.accessors = recordComponents != null && !hasJacksonAnnotations(type, recordComponents)
+                ? accessors(type, recordComponents, this.names)
+                : null;
+    }
+
+    /**
+     * @return a mutable list with the values of the DTO that pass the filter
+     */
+    static List<Object> of(Object dto, Predicate<String> nameFilter) {
+        var params = PARAMS.get(dto.getClass());
+        if (params.accessors == null) {
+            return JsonObject.mapFrom(dto).stream()
+                    .filter(entry -> nameFilter.test(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        return params.values(dto, nameFilter);
+    }
+
+    private List<Object> values(Object dto, Predicate<String> nameFilter) {
+        var values = new ArrayList<>(this.names.length + 2);
+
+        for (int i = 0; i < this.names.length; i++) {
+            if (!nameFilter.test(this.names[i])) {
+                continue;
+            }
+            try {
+                values.add(value(this.accessors[i].invokeExact(dto)));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not read %s of %s".formatted(this.names[i], dto.getClass()), e);
+            }
+        }
+        return values;
+    }
+
+    // the same values as the JSON representation for the types that JDBC drivers do not support
+    private static Object value(Object value) {
+        if (value instanceof Optional<?> optional) {
+            value = optional.orElse(null);
+        }
+        return value instanceof Enum<?> e ? e.name() : value;
+    }
+
+    /**
+     * @return whether the record or its components have Jackson annotations, which change the JSON representation
+     */
+    private static boolean hasJacksonAnnotations(Class<?> type, RecordComponent[] recordComponents) {
+        var annotated = new ArrayList<AnnotatedElement>();
+        annotated.add(type);
+        for (var component : recordComponents) {
+            annotated.add(component.getAccessor());
+            try {
+                annotated.add(type.getDeclaredField(component.getName()));
+            } catch (NoSuchFieldException e) {
+                // not a field of the record
+            }
+        }
+        for (var constructor : type.getDeclaredConstructors()) {
+            annotated.addAll(Arrays.asList(constructor.getParameters()));
+        }
+
+        for (var element : annotated) {
+            for (var annotation : element.getDeclaredAnnotations()) {
+                if (annotation.annotationType().getName().startsWith(JACKSON_ANNOTATIONS)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static MethodHandle[] accessors(Class<?> type, RecordComponent[] recordComponents, String[] names) {
+        try {
+            var lookup = MethodHandles.lookup();
+            var accessors = new MethodHandle[recordComponents.length];
+            for (int i = 0; i < recordComponents.length; i++) {
+                var accessor = recordComponents[i].getAccessor();
+                accessor.setAccessible(true);
+                names[i] = recordComponents[i].getName();
+                accessors[i] = lookup.unreflect(accessor).asType(ACCESSOR_TYPE);
+            }
+            return accessors;
+        } catch (IllegalAccessException | RuntimeException e) {
+            Log.debugf("Using JSON to read the parameters of %s: %s", type, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,22 +1,15 @@
 package io.quarkiverse.fluentjdbc.runtime;
 
 import static io.quarkiverse.fluentjdbc.runtime.QueryOperator.AND;
-import static io.quarkiverse.fluentjdbc.runtime.QueryOperator.COMMA;
 import static io.quarkiverse.fluentjdbc.runtime.QueryParamNamer.UNNUMBERED;
-import static java.lang.Math.max;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.BiConsumer;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 
 import io.quarkus.runtime.annotations.RegisterForReflection;
-import io.vertx.core.json.JsonObject;
 
 /**
  * <p>
@@ -35,15 +28,13 @@ import io.vertx.core.json.JsonObject;
  */
 @RegisterForReflection
 public class DynamicQuery {
-    // e.g. just "name" without " = :name"
-    private static final String UNNAMED_CLAUSE = "\\w+\\s*$";
-    private static final Pattern CLAUSE_PATTERN = Pattern.compile("^(.*?)\\s*$");
-
     protected final List<Object> parameters = new ArrayList<>();
 
     protected String[] clauses;
     protected QueryOperator operator = AND;
     protected QueryParamNamer paramNamer = UNNUMBERED;
+    protected Keyset keyset;
+    protected String pageToken;
 
     public DynamicQuery selectClauses(String... clauses) {
         this.clauses = clauses;
@@ -60,11 +51,13 @@ public class DynamicQuery {
     }
 
     public DynamicQuery paramsFromDto(Object dto, Object... otherParams) {
-        return paramsFromDto(dto, true, otherParams);
+        return paramsFromDto(dto, name -> true, otherParams);
     }
 
     /**
-     * Reads the values from the given DTO.
+     * Reads the values from the given DTO. The components of a record are read in declaration order and keep their
+     * types, except for enums which are read by their name and optionals which are unwrapped. Other DTOs are read from
+     * their JSON representation.
      *
      * @param dto the DTO
      * @param nameFilter the parameters to be ex- or included by checking the name of a field in the DTO.
@@ -73,12 +66,7 @@ public class DynamicQuery {
      */
     public DynamicQuery paramsFromDto(Object dto, Predicate<String> nameFilter, Object... otherParams) {
         this.parameters.clear();
-        var dtoParams = JsonObject.mapFrom(dto).stream()
-                .filter(entry -> nameFilter.test(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .toList();
-
-        this.parameters.addAll(dtoParams);
+        this.parameters.addAll(DtoParams.of(dto, nameFilter));
         Collections.addAll(this.parameters, otherParams);
         return this;
     }
@@ -104,89 +92,28 @@ public class DynamicQuery {
         return this;
     }
 
-    public QueryResult build() {
-        var paramCounter = new AtomicInteger(1);
-        var finalQuery = processClauses(paramCounter, (exp, list) -> {
-            list.add("(%s)".formatted(renameParams(exp, paramCounter)));
-        }, this.clauses);
-
-        if (!finalQuery.isBlank()) {
-            finalQuery = " where " + finalQuery;
-        }
-
-        return new QueryResult(finalQuery, this.parameters);
-    }
-
-    protected String processClauses(AtomicInteger paramCounter, BiConsumer<String, List> consumer, String... clauses) {
-        var validExpressions = new ArrayList<>();
-        var paramIndex = 0;
-
-        for (var clause : clauses) {
-            var matcher = CLAUSE_PATTERN.matcher(clause);
-            while (matcher.find()) {
-                var expression = matcher.group(1).trim();
-                var validationResult = validateParams(expression, paramIndex);
-
-                if (validationResult.isValid()) {
-                    if (expression.matches(UNNAMED_CLAUSE)) {
-                        validExpressions.add(nameExpression(expression, paramCounter));
-                    } else {
-                        consumer.accept(expression, validExpressions);
-                    }
-                    paramIndex += validationResult.paramCount();
-                } else {
-                    removeNullParams(paramIndex, validationResult.paramCount());
-                }
-            }
-        }
-
-        return String.join(this.operator.value, validExpressions.toArray(String[]::new));
-    }
-
-    protected String renameParams(String expression, AtomicInteger paramCounter) {
-        return switch (this.paramNamer) {
-            case NAMED -> expression;
-            case NUMBERED -> replaceParams(expression, "?%d".formatted(paramCounter.getAndIncrement()));
-            case UNNUMBERED -> replaceParams(expression, "?");
-        };
-    }
-
-    private String nameExpression(String expression, AtomicInteger paramCounter) {
-        return switch (this.paramNamer) {
-            case NAMED -> "%s = %s%s".formatted(expression, this.paramNamer.param, expression);
-            case NUMBERED -> "%s = ?%d".formatted(expression, paramCounter.getAndIncrement());
-            case UNNUMBERED -> "%s = %s".formatted(expression, this.paramNamer.param);
-        };
-    }
-
-    private void removeNullParams(int paramIndex, int times) {
-        for (int i = 0; i < times; i++) {
-            this.parameters.remove(paramIndex);
-        }
-    }
-
-    private ValidParamResult validateParams(String expression, int paramIndex) {
-        var paramCounter = 0;
-        var matcher = Pattern.compile(":").matcher(expression);
-        var isValid = paramIndex < this.parameters.size() && this.parameters.get(paramIndex) != null;
-
-        while (matcher.find()) {
-            paramCounter++;
-            isValid &= this.parameters.get(paramIndex++) != null;
-        }
-
-        return new ValidParamResult(isValid, max(1, paramCounter));
+    /**
+     * Adds the predicate of the page after the token and the order by of the keyset to the query, see {@link Keyset}.
+     *
+     * @param token the token of the page, null or blank for the first page
+     */
+    public DynamicQuery page(Keyset keyset, String token) {
+        this.keyset = keyset;
+        this.pageToken = token;
+        return this;
     }
 
-    private static String replaceParams(String expression, String replacement) {
-        var result = expression;
-        while (result.contains(":")) {
-            result = result.replaceFirst(":\\w+", replacement);
-        }
-        return result;
+    /**
+     * Parses the clauses once into a template that can be reused to build queries, see {@link QueryTemplate}.
+     * The parameters of this query are not part of the template.
+     */
+    public QueryTemplate template() {
+        return QueryTemplate.select(this.clauses, this.operator, this.paramNamer, true);
     }
 
-    private record ValidParamResult(boolean isValid, int paramCount) {
+    public QueryResult build() {
+        var result = QueryTemplate.select(this.clauses, this.operator, this.paramNamer, false).build(this.parameters);
+        return this.keyset != null ? this.keyset.apply(result, this.pageToken, this.paramNamer) : result;
     }
 
     public record QueryResult(String query, List<Object> parameters) {
@@ -214,27 +141,21 @@ public class DynamicQuery {
             return this;
         }
 
+        /**
+         * @throws UnsupportedOperationException as an update cannot be paginated
+         */
+        @Override
+        public UpdateQuery page(Keyset keyset, String token) {
+            throw new UnsupportedOperationException("Keyset pagination is only supported by select queries");
+        }
+
+        @Override
+        public QueryTemplate template() {
+            return QueryTemplate.update(this.clauses, this.whereClause, this.paramNamer, true);
+        }
+
         public QueryResult build() {
-            if (this.parameters.isEmpty()) {
-                throw new IllegalArgumentException("No parameters provided");
-            }
-
-            this.operator = COMMA;
-            var paramCounter = new AtomicInteger(1);
-            BiConsumer<String, List> updateExpAdder = (exp, list) -> list.add(renameParams(exp, paramCounter));
-            var query = processClauses(paramCounter, updateExpAdder, this.clauses);
-
-            if (query.isBlank()) {
-                throw new IllegalStateException("Invalid UPDATE statement: No fields to update.");
-            }
-
-            var whereQuery = this.whereClause != null ? processClauses(paramCounter, updateExpAdder, this.whereClause) : "";
-            String finalQuery = "SET " + query;
-            if (!whereQuery.isBlank()) {
-                finalQuery += " WHERE " + whereQuery;
-            }
-
-            return new QueryResult(finalQuery, this.parameters);
+            return QueryTemplate.update(this.clauses, this.whereClause, this.paramNamer, false).build(this.parameters);
         }
     }
 }
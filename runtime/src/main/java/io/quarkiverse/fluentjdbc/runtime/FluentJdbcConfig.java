@@ -2,18 +2,34 @@ package io.quarkiverse.fluentjdbc.runtime;
 
 import static io.quarkus.runtime.annotations.ConfigPhase.BUILD_AND_RUN_TIME_FIXED;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.codejargon.fluentjdbc.api.query.Transaction.Isolation;
 
+import io.quarkus.runtime.annotations.ConfigDocMapKey;
 import io.quarkus.runtime.annotations.ConfigRoot;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithParentName;
 
 @ConfigRoot(phase = BUILD_AND_RUN_TIME_FIXED)
 @ConfigMapping(prefix = "quarkus.fluentjdbc")
 public interface FluentJdbcConfig {
 
+    /**
+     * The configuration of the {@link org.codejargon.fluentjdbc.api.FluentJdbc} beans of the named datasources, e.g.
+     * <code>quarkus.fluentjdbc."replica".fetch-size</code>. The properties that are not set default to the ones of the
+     * default datasource.
+     *
+     * @return the configuration per named datasource
+     */
+    @WithParentName
+    @ConfigDocMapKey("datasource-name")
+    Map<String, DataSourceConfig> namedDataSources();
+
     /**
      * the default transaction isolation level.
      *
@@ -39,7 +55,263 @@ public interface FluentJdbcConfig {
     @WithDefault("20")
     Integer fetchSize();
 
+    /**
+     * The configuration of the {@link RecordMapper}.
+     *
+     * @return the record mapper configuration
+     */
+    RecordMapperConfig recordMapper();
+
+    /**
+     * The configuration of the metrics.
+     *
+     * @return the metrics configuration
+     */
+    MetricsConfig metrics();
+
+    /**
+     * The configuration of the tracing.
+     *
+     * @return the tracing configuration
+     */
+    TracingConfig tracing();
+
+    /**
+     * The configuration of the {@link ReactiveFluentJdbc}.
+     *
+     * @return the reactive configuration
+     */
+    ReactiveConfig reactive();
+
+    /**
+     * The configuration of the {@link QueryCache}.
+     *
+     * @return the query cache configuration
+     */
+    QueryCacheConfig cache();
+
+    /**
+     * The configuration of the prepared statement cache.
+     *
+     * @return the statement cache configuration
+     */
+    StatementCacheConfig statementCache();
+
+    /**
+     * The configuration of the {@link WriteBatcher}.
+     *
+     * @return the write batcher configuration
+     */
+    WriteBatcherConfig writeBatcher();
+
+    /**
+     * The configuration of the routing of selects to read replicas.
+     *
+     * @return the routing configuration
+     */
+    RoutingConfig routing();
+
+    /**
+     * The configuration of the validation of the constant queries at build time, see {@link Sql}.
+     *
+     * @return the SQL validation configuration
+     */
+    SqlValidationConfig sqlValidation();
+
     default boolean isNotEmpty() {
         return batchSize() != null || fetchSize() != null || transactionIsolation() != null;
     }
+
+    interface DataSourceConfig {
+
+        /**
+         * The default transaction isolation level of the datasource.
+         *
+         * @return the transaction isolation level
+         */
+        Optional<Isolation> transactionIsolation();
+
+        /**
+         * The default batch size for batch queries of the datasource.
+         *
+         * @return the batch size
+         */
+        Optional<Integer> batchSize();
+
+        /**
+         * The default fetch size for queries of the datasource.
+         *
+         * @return the fetch size
+         */
+        Optional<Integer> fetchSize();
+    }
+
+    interface RecordMapperConfig {
+
+        /**
+         * How records are instantiated when no mapper was generated for them at build time.
+         * Default is method-handle.
+         *
+         * @return the record mapper strategy
+         */
+        @WithDefault("method-handle")
+        RecordMapper.Strategy strategy();
+    }
+
+    interface MetricsConfig {
+
+        /**
+         * Whether the execution time, rows, batch sizes and errors of the queries are recorded, when the
+         * quarkus-micrometer extension is present.
+         * Default is true.
+         *
+         * @return whether metrics are enabled
+         */
+        @WithDefault("true")
+        boolean enabled();
+    }
+
+    interface TracingConfig {
+
+        /**
+         * Whether spans are created for the queries and transactions, when the quarkus-opentelemetry extension is
+         * present.
+         * Default is true.
+         *
+         * @return whether tracing is enabled
+         */
+        @WithDefault("true")
+        boolean enabled();
+    }
+
+    interface ReactiveConfig {
+
+        /**
+         * Whether the queries of the {@link ReactiveFluentJdbc} are executed on virtual threads. Otherwise, or when virtual
+         * threads are not supported, they are executed on the worker pool.
+         * Default is true.
+         *
+         * @return whether virtual threads are used
+         */
+        @WithDefault("true")
+        boolean virtualThreads();
+    }
+
+    interface QueryCacheConfig {
+
+        /**
+         * Whether the {@link QueryCache} bean is available, which caches the results of selects. It requires the
+         * <code>quarkus-caffeine</code> extension. Default is false.
+         *
+         * @return whether the query cache is enabled
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * The maximum number of cached results.
+         * Default is 10000.
+         *
+         * @return the maximum size
+         */
+        @WithDefault("10000")
+        long maximumSize();
+
+        /**
+         * The duration after which a cached result is removed, unless set for the select.
+         * Default is 60s.
+         *
+         * @return the time to live
+         */
+        @WithDefault("60s")
+        Duration timeToLive();
+    }
+
+    interface StatementCacheConfig {
+
+        /**
+         * The maximum number of prepared statements that are kept open per connection of the Agroal pool, so that they
+         * are reused when the same query is executed again on the connection. 0 disables the cache.
+         * Default is 0.
+         *
+         * @return the statement cache size
+         */
+        @WithDefault("0")
+        int size();
+    }
+
+    interface WriteBatcherConfig {
+
+        /**
+         * Whether the {@link WriteBatcher} bean is available, which executes the updates of concurrent callers as
+         * batches.
+         * Default is false.
+         *
+         * @return whether the write batcher is enabled
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * How long an update waits for other updates of the same query before its batch is executed.
+         * Default is 5ms.
+         *
+         * @return the maximum delay
+         */
+        @WithDefault("5ms")
+        Duration maxDelay();
+
+        /**
+         * The number of pending updates of the same query at which their batch is executed without waiting.
+         * Default is the batch-size.
+         *
+         * @return the maximum number of rows of a batch
+         */
+        Optional<Integer> maxRows();
+    }
+
+    interface SqlValidationConfig {
+
+        /**
+         * Whether the constant queries of the application are parsed at build time, which fails the build when one is
+         * invalid.
+         * Default is true.
+         *
+         * @return whether the queries are validated
+         */
+        @WithDefault("true")
+        boolean enabled();
+    }
+
+    interface RoutingConfig {
+
+        /**
+         * The names of the datasources of the read replicas of the default datasource. When set, the selects of the
+         * default {@link org.codejargon.fluentjdbc.api.FluentJdbc} bean that are executed outside a transaction are sent
+         * to them, everything else to the default datasource.
+         *
+         * @return the names of the read replica datasources
+         */
+        Optional<List<String>> readReplicas();
+
+        /**
+         * How a read replica is chosen for a select.
+         * Default is round-robin.
+         *
+         * @return the balancing strategy
+         */
+        @WithDefault("round-robin")
+        Balancing balancing();
+
+        enum Balancing {
+            /**
+             * The replicas in turn.
+             */
+            ROUND_ROBIN,
+            /**
+             * The replica with the fewest connections in use by FluentJdbc.
+             */
+            LEAST_IN_FLIGHT
+        }
+    }
 }
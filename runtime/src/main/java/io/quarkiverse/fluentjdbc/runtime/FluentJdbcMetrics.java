@@ -0,0 +1,104 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+
+/**
+ * Records the statements of FluentJdbc as Micrometer meters, tagged by the fingerprint of the query, see
+ * {@link SqlFingerprint}:
+ * <ul>
+ * <li><code>fluentjdbc.query</code>: the execution time, with a histogram for percentiles, tagged by outcome,</li>
+ * <li><code>fluentjdbc.query.rows</code>: the rows that were read or updated,</li>
+ * <li><code>fluentjdbc.batch.size</code>: the number of statements of a batch,</li>
+ * <li><code>fluentjdbc.query.errors</code>: the number of failed statements.</li>
+ * </ul>
+ * When the statement cache is enabled, <code>fluentjdbc.statement.cache</code> counts its lookups, tagged by the
+ * result: hit or miss.
+ * This bean is registered when the quarkus-micrometer extension is present.
+ */
+public class FluentJdbcMetrics implements StatementObserver {
+    static final String QUERY = "fluentjdbc.query";
+    static final String ROWS = "fluentjdbc.query.rows";
+    static final String BATCH_SIZE = "fluentjdbc.batch.size";
+    static final String ERRORS = "fluentjdbc.query.errors";
+    static final String STATEMENT_CACHE = "fluentjdbc.statement.cache";
+
+    private final MeterRegistry registry;
+    private final Map<MeterKey, Meters> meters = new ConcurrentHashMap<>();
+    private final Map<Boolean, Counter> statementCache = new ConcurrentHashMap<>();
+
+    @Inject
+    public FluentJdbcMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onStatement(StatementExecution execution) {
+        var key = new MeterKey(execution.fingerprint(), execution.type(), execution.isSuccess());
+        var meters = this.meters.computeIfAbsent(key, this::register);
+
+        meters.timer.record(execution.executionNanos(), TimeUnit.NANOSECONDS);
+        if (execution.rows() >= 0) {
+            meters.rows.record(execution.rows());
+        }
+        if (meters.batchSize != null) {
+            meters.batchSize.record(execution.batchSize());
+        }
+        if (meters.errors != null) {
+            meters.errors.increment();
+        }
+    }
+
+    @Override
+    public void onStatementCache(boolean hit) {
+        this.statementCache.computeIfAbsent(hit, ignored -> Counter.builder(STATEMENT_CACHE)
+                .description("The number of lookups of prepared statements in the statement cache")
+                .tag("result", hit ? "hit" : "miss")
+                .register(this.registry))
+                .increment();
+    }
+
+    private Meters register(MeterKey key) {
+        var tags = Tags.of("query", key.fingerprint, "type", key.type.name().toLowerCase(Locale.ROOT));
+
+        var timer = Timer.builder(QUERY)
+                .description("The execution time of the FluentJdbc queries")
+                .tags(tags)
+                .tag("outcome", key.success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(this.registry);
+        var rows = DistributionSummary.builder(ROWS)
+                .description("The number of rows read or updated by the FluentJdbc queries")
+                .tags(tags)
+                .register(this.registry);
+        var batchSize = key.type != Type.BATCH ? null
+                : DistributionSummary.builder(BATCH_SIZE)
+                        .description("The number of statements of the FluentJdbc batches")
+                        .tags(tags)
+                        .register(this.registry);
+        var errors = key.success ? null
+                : Counter.builder(ERRORS)
+                        .description("The number of failed FluentJdbc queries")
+                        .tags(tags)
+                        .register(this.registry);
+
+        return new Meters(timer, rows, batchSize, errors);
+    }
+
+    private record MeterKey(String fingerprint, Type type, boolean success) {
+    }
+
+    private record Meters(Timer timer, DistributionSummary rows, DistributionSummary batchSize, Counter errors) {
+    }
+}
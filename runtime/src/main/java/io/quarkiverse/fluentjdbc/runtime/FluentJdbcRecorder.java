@@ -2,12 +2,21 @@ package io.quarkiverse.fluentjdbc.runtime;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
 import jakarta.enterprise.util.TypeLiteral;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 
 import org.codejargon.fluentjdbc.api.FluentJdbc;
 import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
@@ -17,19 +26,38 @@ import org.codejargon.fluentjdbc.api.query.Transaction.Isolation;
 import org.codejargon.fluentjdbc.api.query.listen.AfterQueryListener;
 import org.eclipse.microprofile.config.ConfigProvider;
 
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalPoolInterceptor;
+import io.quarkiverse.fluentjdbc.runtime.FluentJdbcConfig.DataSourceConfig;
+import io.quarkus.agroal.runtime.AgroalDataSourceUtil;
 import io.quarkus.arc.Arc;
+import io.quarkus.arc.InjectableInstance;
+import io.quarkus.arc.SyntheticCreationalContext;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
 import io.quarkus.logging.Log;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
+import io.quarkus.virtual.threads.VirtualThreadsRecorder;
 import io.smallrye.config.SmallRyeConfig;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 
 @Recorder
 public class FluentJdbcRecorder {
 
     static final String CONFIG_PREFIX = "quarkus.fluentjdbc.";
 
-    public RuntimeValue<FluentJdbc> createFluentJdbc() {
-        var dataSource = Arc.container().instance(DataSource.class);
+    // the statement caches by datasource name, shared by the FluentJdbc of a datasource and the routing to it
+    private static final Map<String, DataSource> CACHING_DATA_SOURCES = new ConcurrentHashMap<>();
+
+    /**
+     * @param dataSourceName the name of the datasource, see {@link DataSourceUtil#DEFAULT_DATASOURCE_NAME}. The
+     *        properties of a named datasource default to the ones of the default datasource.
+     */
+    public RuntimeValue<FluentJdbc> createFluentJdbc(String dataSourceName) {
+        var isDefault = DataSourceUtil.isDefault(dataSourceName);
+        InjectableInstance<? extends DataSource> dataSource = isDefault
+                ? Arc.container().select(DataSource.class)
+                : AgroalDataSourceUtil.dataSourceInstance(dataSourceName);
         var sqlErrorHandler = Arc.container().instance(SqlErrorHandler.class);
         var afterQueryListener = Arc.container().instance(AfterQueryListener.class);
         var paramSetters = Arc.container().select(new TypeLiteral<ParamSetter<?>>() {
@@ -38,19 +66,32 @@ public class FluentJdbcRecorder {
                         param -> paramType(param.getBean().getTypes().iterator()),
                         param -> (ParamSetter) param.get()));
 
-        if (!dataSource.isAvailable()) {
-            throw new IllegalStateException("No datasource was configured");
+        if (!dataSource.isResolvable()) {
+            throw isDefault ? new IllegalStateException("No datasource was configured")
+                    : DataSourceUtil.dataSourceNotConfigured(dataSourceName);
         }
 
         var config = ConfigProvider.getConfig().unwrap(SmallRyeConfig.class);
-        var builder = new FluentJdbcBuilder().connectionProvider(dataSource.get());
+        var dataSourceConfig = isDefault ? Optional.<DataSourceConfig> empty()
+                : Optional.ofNullable(config.getConfigMapping(FluentJdbcConfig.class).namedDataSources().get(dataSourceName));
+        var observers = Arc.container().select(StatementObserver.class).stream().toList();
+        DataSource connections = cacheStatements(dataSourceName, dataSource.get(), config, observers);
+        if (isDefault) {
+            connections = route(connections, config, observers);
+        }
+        var builder = new FluentJdbcBuilder()
+                .connectionProvider(observe(connections, observers));
 
-        builder.defaultFetchSize(config.getValue(CONFIG_PREFIX + "fetch-size", Integer.class));
-        builder.defaultBatchSize(config.getValue(CONFIG_PREFIX + "batch-size", Integer.class));
+        builder.defaultFetchSize(dataSourceConfig.flatMap(DataSourceConfig::fetchSize)
+                .orElseGet(() -> config.getValue(CONFIG_PREFIX + "fetch-size", Integer.class)));
+        builder.defaultBatchSize(dataSourceConfig.flatMap(DataSourceConfig::batchSize)
+                .orElseGet(() -> config.getValue(CONFIG_PREFIX + "batch-size", Integer.class)));
 
-        var txIsolation = config.getOptionalValue(CONFIG_PREFIX + "transaction-isolation", Isolation.class);
+        var txIsolation = dataSourceConfig.flatMap(DataSourceConfig::transactionIsolation)
+                .or(() -> config.getOptionalValue(CONFIG_PREFIX + "transaction-isolation", Isolation.class));
         if (txIsolation.isPresent()) {
-            Log.infof("FluentJdbc - setting default transaction isolation: %s", txIsolation.get());
+            Log.infof("FluentJdbc - setting default transaction isolation of datasource %s: %s", dataSourceName,
+                    txIsolation.get());
             builder.defaultTransactionIsolation(txIsolation.get());
         }
 
@@ -72,6 +113,104 @@ public class FluentJdbcRecorder {
         return new RuntimeValue<>(builder.build());
     }
 
+    /**
+     * The queries are executed on virtual threads, unless disabled. Without support for virtual threads, the worker pool
+     * is used instead.
+     */
+    public Function<SyntheticCreationalContext<ReactiveFluentJdbc>, ReactiveFluentJdbc> createReactiveFluentJdbc() {
+        return context -> {
+            var config = ConfigProvider.getConfig().unwrap(SmallRyeConfig.class);
+            Executor executor = config.getValue(CONFIG_PREFIX + "reactive.virtual-threads", Boolean.class)
+                    ? VirtualThreadsRecorder.getCurrent()
+                    : Infrastructure.getDefaultWorkerPool();
+            return new ReactiveFluentJdbc(context.getInjectedReference(FluentJdbc.class), executor);
+        };
+    }
+
+    /**
+     * The statements are observed at the JDBC level, so a configured {@link AfterQueryListener} is still called.
+     */
+    private static DataSource observe(DataSource dataSource, List<StatementObserver> observers) {
+        if (observers.isEmpty()) {
+            return dataSource;
+        }
+
+        Log.infof("FluentJdbc - observing statements with: %s",
+                observers.stream().map(observer -> observer.getClass().getSimpleName()).toList());
+        return new ObservedDataSource(dataSource, observers);
+    }
+
+    /**
+     * The statements are cached per physical connection, so the connections must be pooled by Agroal, which notifies
+     * when they are closed. A datasource is wrapped once, also when it is a read replica.
+     */
+    private static DataSource cacheStatements(String dataSourceName, DataSource dataSource, SmallRyeConfig config,
+            List<StatementObserver> observers) {
+        return CACHING_DATA_SOURCES.computeIfAbsent(dataSourceName,
+                ignored -> cacheStatements(dataSource, config, observers));
+    }
+
+    private static DataSource cacheStatements(DataSource dataSource, SmallRyeConfig config,
+            List<StatementObserver> observers) {
+        var size = config.getValue(CONFIG_PREFIX + "statement-cache.size", Integer.class);
+        if (size <= 0) {
+            return dataSource;
+        }
+        if (!(dataSource instanceof AgroalDataSource agroal)) {
+            Log.warnf("FluentJdbc - not caching statements, the datasource is not an AgroalDataSource: %s",
+                    dataSource.getClass().getName());
+            return dataSource;
+        }
+
+        Log.infof("FluentJdbc - caching %d prepared statements per connection", size);
+        var cachingDataSource = new StatementCachingDataSource(dataSource, size, observers);
+        var interceptors = new ArrayList<AgroalPoolInterceptor>(agroal.getPoolInterceptors());
+        interceptors.add(cachingDataSource.interceptor());
+        agroal.setPoolInterceptors(interceptors);
+        return cachingDataSource;
+    }
+
+    /**
+     * The selects outside a transaction are routed to the read replicas, if any. An active JTA transaction, e.g. of a
+     * <code>@Transactional</code> method, counts as a transaction.
+     */
+    private static DataSource route(DataSource primary, SmallRyeConfig config, List<StatementObserver> observers) {
+        var routing = config.getConfigMapping(FluentJdbcConfig.class).routing();
+        var names = routing.readReplicas().orElse(List.of());
+        if (names.isEmpty()) {
+            return primary;
+        }
+
+        var replicas = names.stream()
+                .map(name -> cacheStatements(name, AgroalDataSourceUtil.dataSourceIfActive(name)
+                        .orElseThrow(() -> DataSourceUtil.dataSourceNotConfigured(name)), config, observers))
+                .toList();
+        var registry = Arc.container().instance(TransactionSynchronizationRegistry.class);
+        BooleanSupplier inTransaction = registry.isAvailable()
+                ? () -> registry.get().getTransactionKey() != null
+                : () -> false;
+        Log.infof("FluentJdbc - routing selects outside transactions to read replicas %s (%s)", names,
+                routing.balancing());
+        return new RoutingDataSource(primary, replicas, routing.balancing(), inTransaction);
+    }
+
+    public void registerRecordFactory(String recordType, String recordFactory) {
+        try {
+            var classLoader = Thread.currentThread().getContextClassLoader();
+            var factory = (RecordFactory<?>) classLoader.loadClass(recordFactory).getDeclaredConstructor().newInstance();
+            RecordMapper.registerRecordFactory(classLoader.loadClass(recordType), factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not register the generated mapper of record " + recordType, e);
+        }
+    }
+
+    /**
+     * Registers a constant query that was parsed at build time, see {@link ParsedSql#of(String)}.
+     */
+    public void registerParsedSql(String sql, String positionalSql, int paramCount, List<String> paramNames) {
+        ParsedSql.register(new ParsedSql(sql, positionalSql, paramCount, paramNames));
+    }
+
     private static Class paramType(Iterator<Type> types) {
         while (types.hasNext()) {
             Type type = types.next();
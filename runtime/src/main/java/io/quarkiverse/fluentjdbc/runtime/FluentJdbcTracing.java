@@ -0,0 +1,132 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+
+/**
+ * Traces the statements and transactions of FluentJdbc as OpenTelemetry spans. A span of a statement has the
+ * following attributes:
+ * <ul>
+ * <li><code>db.statement</code>: the query without its values, see {@link SqlFingerprint},</li>
+ * <li><code>db.operation</code>: the first keyword of the query, e.g. <code>SELECT</code>,</li>
+ * <li><code>db.fluentjdbc.rows</code>: the rows that were read or updated,</li>
+ * <li><code>db.fluentjdbc.fetch_size</code>: the fetch size of a select,</li>
+ * <li><code>db.fluentjdbc.execution_ms</code> and <code>db.fluentjdbc.fetch_ms</code>: the time spent executing the
+ * query and fetching the rows; the remaining time of the span was spent mapping the rows,</li>
+ * <li><code>db.operation.batch.size</code>: the number of statements of a batch.</li>
+ * </ul>
+ * The statements of a transaction are children of the span of the transaction.
+ * <p>
+ * This bean is registered when the quarkus-opentelemetry extension is present.
+ */
+public class FluentJdbcTracing implements StatementObserver {
+    static final String INSTRUMENTATION_NAME = "io.quarkiverse.fluentjdbc";
+    static final AttributeKey<String> STATEMENT = AttributeKey.stringKey("db.statement");
+    static final AttributeKey<String> OPERATION = AttributeKey.stringKey("db.operation");
+    static final AttributeKey<Long> ROWS = AttributeKey.longKey("db.fluentjdbc.rows");
+    static final AttributeKey<Long> FETCH_SIZE = AttributeKey.longKey("db.fluentjdbc.fetch_size");
+    static final AttributeKey<Double> EXECUTION_MS = AttributeKey.doubleKey("db.fluentjdbc.execution_ms");
+    static final AttributeKey<Double> FETCH_MS = AttributeKey.doubleKey("db.fluentjdbc.fetch_ms");
+    static final AttributeKey<Long> BATCH_SIZE = AttributeKey.longKey("db.operation.batch.size");
+    static final AttributeKey<Boolean> COMMITTED = AttributeKey.booleanKey("db.fluentjdbc.committed");
+
+    private final Tracer tracer;
+    // the transactions of FluentJdbc are bound to the thread
+    private final ThreadLocal<Deque<Transaction>> transactions = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Inject
+    public FluentJdbcTracing(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    }
+
+    @Override
+    public void onStatement(StatementExecution execution) {
+        // the span is created afterwards, so that its attributes are known
+        var end = epochNanos();
+        var start = end - (System.nanoTime() - execution.startNanos());
+        var statement = execution.fingerprint();
+        var operation = operation(statement, execution.type());
+
+        var builder = this.tracer.spanBuilder(operation)
+                .setSpanKind(SpanKind.CLIENT)
+                .setStartTimestamp(start, TimeUnit.NANOSECONDS)
+                .setAttribute(STATEMENT, statement)
+                .setAttribute(OPERATION, operation)
+                .setAttribute(EXECUTION_MS, execution.executionNanos() / 1e6);
+        if (execution.rows() >= 0) {
+            builder.setAttribute(ROWS, execution.rows());
+        }
+        if (execution.type() == Type.SELECT) {
+            builder.setAttribute(FETCH_SIZE, (long) execution.fetchSize());
+            builder.setAttribute(FETCH_MS, execution.fetchNanos() / 1e6);
+        } else if (execution.type() == Type.BATCH) {
+            builder.setAttribute(BATCH_SIZE, (long) execution.batchSize());
+        }
+
+        var span = builder.startSpan();
+        if (!execution.isSuccess()) {
+            fail(span, execution.error());
+        }
+        span.end(end, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onTransactionBegin() {
+        var span = this.tracer.spanBuilder("TRANSACTION").setSpanKind(SpanKind.CLIENT).startSpan();
+        this.transactions.get().push(new Transaction(span, span.makeCurrent()));
+    }
+
+    @Override
+    public void onTransactionEnd(boolean committed, SQLException error) {
+        var transaction = this.transactions.get().poll();
+        if (transaction == null) {
+            return;
+        }
+
+        transaction.scope.close();
+        transaction.span.setAttribute(COMMITTED, committed);
+        if (error != null) {
+            fail(transaction.span, error);
+        }
+        transaction.span.end();
+    }
+
+    /**
+     * @return the first keyword of the statement in upper case, or the type when there is none.
+     */
+    static String operation(String statement, Type type) {
+        var end = 0;
+        while (end < statement.length() && Character.isLetter(statement.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? type.name() : statement.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    private static void fail(Span span, SQLException error) {
+        span.recordException(error);
+        span.setStatus(StatusCode.ERROR, error.getMessage());
+    }
+
+    private static long epochNanos() {
+        var now = Instant.now();
+        return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+    }
+
+    private record Transaction(Span span, Scope scope) {
+    }
+}
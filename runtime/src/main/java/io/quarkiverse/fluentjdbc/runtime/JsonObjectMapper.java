@@ -1,32 +1,185 @@
 package io.quarkiverse.fluentjdbc.runtime;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.temporal.TemporalAccessor;
+import java.util.LinkedHashMap;
+import java.util.regex.Pattern;
 
 import jakarta.inject.Singleton;
 
 import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.SelectQuery;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 
 import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 
+/**
+ * Maps a row into a {@link JsonObject} with the column labels as keys, or writes all rows of a query as a JSON array
+ * without creating a {@link JsonObject} per row, see {@link #writeArray(SelectQuery, OutputStream)}.
+ */
 @Singleton
 @RegisterForReflection
 public class JsonObjectMapper implements Mapper<JsonObject> {
+    private static final Pattern UNNAMED_COLUMN = Pattern.compile("\\d+|\\?column\\?");
+    static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    // the labels of the result set that the current thread maps, so concurrent result sets do not evict each other
+    private final ThreadLocal<Labels> labels = new ThreadLocal<>();
 
     @Override
     public JsonObject map(ResultSet rs) throws SQLException {
-        var result = new JsonObject();
-        var metadata = rs.getMetaData();
-        var columnCount = metadata.getColumnCount();
+        var labels = labels(rs);
+        var result = new JsonObject(new LinkedHashMap<>(labels.length * 4 / 3 + 1));
 
-        for (int i = 1; i <= columnCount; i++) {
-            var columnName = metadata.getColumnLabel(i);
-            if (columnName == null || columnName.isBlank() || columnName.matches("\\d+|\\?column\\?")) {
-                columnName = "column_%d".formatted(i);
-            }
-            result.put(columnName, rs.getObject(i));
+        for (int i = 0; i < labels.length; i++) {
+            result.put(labels[i], rs.getObject(i + 1));
         }
         return result;
     }
+
+    /**
+     * Writes the rows of the query as a JSON array of objects. The rows are written while iterating the result set, so
+     * the memory does not depend on the number of rows. The output stream is not closed.
+     * <p>
+     * Numbers, booleans and strings are written as such, dates and times in the ISO-8601 format, binary data as Base64
+     * and SQL arrays as JSON arrays. Other values are written with their {@code toString()}.
+     */
+    public void writeArray(SelectQuery query, OutputStream out) {
+        try (var generator = JSON_FACTORY.createGenerator(out)) {
+            generator.writeStartArray();
+            query.iterateResult(rs -> {
+                writeRow(generator, rs);
+                return null;
+            }, ignored -> {
+            });
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the rows of the query as a JSON array of objects into a buffer, see
+     * {@link #writeArray(SelectQuery, OutputStream)}.
+     */
+    public Buffer toBuffer(SelectQuery query) {
+        var buffer = Buffer.buffer();
+        writeArray(query, new BufferOutputStream(buffer));
+        return buffer;
+    }
+
+    /**
+     * Writes the current row as a JSON object, see {@link #writeArray(SelectQuery, OutputStream)} for the values.
+     */
+    public void writeRow(JsonGenerator generator, ResultSet rs) throws SQLException {
+        var labels = labels(rs);
+        try {
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                generator.writeFieldName(labels[i]);
+                writeValue(generator, rs.getObject(i + 1));
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeValue(JsonGenerator generator, Object value) throws IOException, SQLException {
+        switch (value) {
+            case null -> generator.writeNull();
+            case String s -> generator.writeString(s);
+            case Integer i -> generator.writeNumber(i);
+            case Long l -> generator.writeNumber(l);
+            case Short s -> generator.writeNumber(s);
+            case Byte b -> generator.writeNumber(b);
+            case BigDecimal d -> generator.writeNumber(d);
+            case BigInteger i -> generator.writeNumber(i);
+            case Double d -> generator.writeNumber(d);
+            case Float f -> generator.writeNumber(f);
+            case Boolean b -> generator.writeBoolean(b);
+            case byte[] bytes -> generator.writeBinary(bytes);
+            case Timestamp t -> generator.writeString(t.toLocalDateTime().toString());
+            case Time t -> generator.writeString(t.toLocalTime().toString());
+            case java.sql.Date d -> generator.writeString(d.toLocalDate().toString());
+            case TemporalAccessor t -> generator.writeString(t.toString());
+            case Array array -> {
+                generator.writeStartArray();
+                for (var element : (Object[]) array.getArray()) {
+                    writeValue(generator, element);
+                }
+                generator.writeEndArray();
+            }
+            default -> generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * The labels of the columns are read once per result set and thread.
+     */
+    private String[] labels(ResultSet rs) throws SQLException {
+        var current = this.labels.get();
+        if (current != null && current.resultSet.get() == rs) {
+            return current.names;
+        }
+
+        var metadata = rs.getMetaData();
+        var names = new String[metadata.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = label(metadata, i + 1);
+        }
+
+        this.labels.set(new Labels(new WeakReference<>(rs), names));
+        return names;
+    }
+
+    /**
+     * @return the label of the column, or <code>column_n</code> for an unnamed column like <code>select 1</code>.
+     */
+    static String label(ResultSetMetaData metadata, int column) throws SQLException {
+        var columnName = metadata.getColumnLabel(column);
+        if (columnName == null || columnName.isBlank() || UNNAMED_COLUMN.matcher(columnName).matches()) {
+            return "column_%d".formatted(column);
+        }
+        return columnName;
+    }
+
+    private record Labels(WeakReference<ResultSet> resultSet, String[] names) {
+    }
+
+    private static final class BufferOutputStream extends OutputStream {
+        private final Buffer buffer;
+
+        BufferOutputStream(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            this.buffer.appendByte((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.buffer.appendBytes(b, off, len);
+        }
+    }
 }
@@ -0,0 +1,412 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.SelectQuery;
+
+import io.quarkiverse.fluentjdbc.runtime.DynamicQuery.QueryResult;
+
+/**
+ * Keyset pagination: a page continues after the sort key of the last row of the previous page, instead of skipping
+ * the rows of the previous pages with an offset, so that every page costs the same with an index on the sort key:
+ *
+ * <pre>
+ * static final Keyset BY_CALORIES = Keyset.of("calories desc", "name nulls last", "id");
+ *
+ * var page = new DynamicQuery().selectClauses("type").params(type).page(BY_CALORIES, token).build();
+ * Keyset.Page&lt;Fruit&gt; fruits = BY_CALORIES.list(this.jdbc.query()
+ *         .select("select * from fruit" + page.query())
+ *         .params(page.parameters()), 50, fruitMapper);
+ * // fruits.next() is the token of the next page, null on the last page
+ * </pre>
+ *
+ * A sort column is a column with an optional <code>asc</code> or <code>desc</code>, and <code>nulls first</code> or
+ * <code>nulls last</code> when it is nullable. Without a nulls ordering, a column must not be null. The last column
+ * must be unique, e.g. the primary key, so that the rows have a total order. The sort columns must be selected, they
+ * are read by their name without the table alias.
+ * <p>
+ * The token is opaque to clients, but not signed, so it only contains the values of the sort columns of a row. A
+ * keyset is immutable and thread-safe.
+ */
+public final class Keyset {
+    private final Column[] columns;
+    private final String orderBy;
+
+    private Keyset(Column[] columns) {
+        this.columns = columns;
+        var orderBy = new StringBuilder(" order by ");
+        for (int i = 0; i < columns.length; i++) {
+            orderBy.append(i > 0 ? ", " : "").append(columns[i].expression)
+                    .append(columns[i].descending ? " desc" : "")
+                    .append(columns[i].nulls.orderBy);
+        }
+        this.orderBy = orderBy.toString();
+    }
+
+    /**
+     * @param sortColumns e.g. <code>"calories desc", "name nulls last", "id"</code>
+     */
+    public static Keyset of(String... sortColumns) {
+        if (sortColumns.length == 0) {
+            throw new IllegalArgumentException("No sort columns");
+        }
+        var columns = new Column[sortColumns.length];
+        for (int i = 0; i < sortColumns.length; i++) {
+            columns[i] = Column.parse(sortColumns[i]);
+        }
+        return new Keyset(columns);
+    }
+
+    /**
+     * Adds the predicate of the page after the token, if any, and the order by to the query. The clauses of the query
+     * are parenthesized, so that they can be combined with <code>or</code>.
+     *
+     * @param token the token of the page, null or blank for the first page
+     */
+    public QueryResult apply(QueryResult query, String token) {
+        return apply(query, token, QueryParamNamer.UNNUMBERED);
+    }
+
+    QueryResult apply(QueryResult query, String token, QueryParamNamer paramNamer) {
+        if (paramNamer == QueryParamNamer.NAMED) {
+            throw new IllegalArgumentException("Keyset pagination requires positional parameters");
+        }
+        if (token == null || token.isBlank()) {
+            return new QueryResult(query.query() + this.orderBy, query.parameters());
+        }
+
+        var parameters = new ArrayList<>(query.parameters());
+        var sql = new StringBuilder(query.query().length() + 64);
+        var where = query.query().strip();
+        if (where.isEmpty()) {
+            sql.append(" where ");
+        } else {
+            // " where ..."
+            sql.append(" where (").append(where.substring("where".length()).strip()).append(") and ");
+        }
+        var params = new Params(parameters, paramNamer, query.query());
+        appendPredicate(sql, decode(token), params);
+        return new QueryResult(sql.append(this.orderBy).toString(), parameters);
+    }
+
+    /**
+     * Selects a page of rows of a query built with {@link #apply(QueryResult, String)}. One more row is selected to
+     * know whether there is a next page.
+     *
+     * @param size the maximum number of rows of the page
+     */
+    public <T> Page<T> list(SelectQuery query, int size, Mapper<T> mapper) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The size of a page must be at least 1, but was " + size);
+        }
+        var last = new Object[1][];
+        var count = new int[1];
+        var rows = query.maxRows(size + 1L).listResult(rs -> {
+            if (++count[0] == size) {
+                last[0] = values(rs);
+            }
+            return mapper.map(rs);
+        });
+
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        return new Page<>(new ArrayList<>(rows.subList(0, size)), encode(last[0]));
+    }
+
+    /**
+     * @return the token of the page after the row with the given values of the sort columns.
+     */
+    public String token(Object... values) {
+        if (values.length != this.columns.length) {
+            throw new IllegalArgumentException("Expected %d sort values, but got %d".formatted(this.columns.length,
+                    values.length));
+        }
+        return encode(values);
+    }
+
+    /**
+     * The rows after the values are the ones that are after them in the sort column of one of the columns, and equal
+     * in all columns before it: <code>(a > ?) or (a = ? and b > ?) ...</code>
+     */
+    private void appendPredicate(StringBuilder sql, Object[] values, Params params) {
+        sql.append('(');
+        var terms = 0;
+        for (int i = 0; i < this.columns.length; i++) {
+            var column = this.columns[i];
+            // after a null in nulls last order, only nulls follow
+            if (values[i] == null && column.nulls != Nulls.FIRST) {
+                continue;
+            }
+
+            sql.append(terms++ > 0 ? " or (" : "(");
+            for (int j = 0; j < i; j++) {
+                if (values[j] == null) {
+                    sql.append(this.columns[j].expression).append(" is null and ");
+                } else {
+                    sql.append(this.columns[j].expression).append(" = ").append(params.add(values[j])).append(" and ");
+                }
+            }
+            if (values[i] == null) {
+                sql.append(column.expression).append(" is not null");
+            } else {
+                var operator = column.descending ? " < " : " > ";
+                if (column.nulls == Nulls.LAST) {
+                    sql.append('(').append(column.expression).append(operator).append(params.add(values[i]))
+                            .append(" or ").append(column.expression).append(" is null)");
+                } else {
+                    sql.append(column.expression).append(operator).append(params.add(values[i]));
+                }
+            }
+            sql.append(')');
+        }
+        if (terms == 0) {
+            // the last row
+            sql.append("1 = 0");
+        }
+        sql.append(')');
+    }
+
+    private Object[] values(ResultSet rs) throws SQLException {
+        var values = new Object[this.columns.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(this.columns[i].label);
+        }
+        return values;
+    }
+
+    private String encode(Object[] values) {
+        var bytes = new ByteArrayOutputStream(64);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(values.length);
+            for (var value : values) {
+                var type = Type.of(value);
+                out.writeByte(type.ordinal());
+                if (value != null) {
+                    out.writeUTF(type.text(value));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private Object[] decode(String token) {
+        Object[] values;
+        try (var in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            values = new Object[in.readUnsignedByte()];
+            var types = Type.values();
+            for (int i = 0; i < values.length; i++) {
+                var type = types[in.readUnsignedByte()];
+                values[i] = type == Type.NULL ? null : type.parse(in.readUTF());
+            }
+            if (in.available() > 0) {
+                values = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new InvalidTokenException(token, e);
+        }
+        if (values == null || values.length != this.columns.length) {
+            throw new InvalidTokenException(token, null);
+        }
+        return values;
+    }
+
+    /**
+     * @param items the rows of the page
+     * @param next the token of the next page, null when this is the last page
+     */
+    public record Page<T>(List<T> items, String next) {
+
+        public boolean hasNext() {
+            return this.next != null;
+        }
+    }
+
+    /**
+     * Thrown when a page token is invalid, e.g. because it was modified by a client, so that it can be mapped to a
+     * client error without mapping every {@link IllegalArgumentException}.
+     */
+    public static final class InvalidTokenException extends IllegalArgumentException {
+
+        InvalidTokenException(String token, Throwable cause) {
+            super("Invalid page token: " + token, cause);
+        }
+    }
+
+    private enum Nulls {
+        NOT_NULL(""),
+        FIRST(" nulls first"),
+        LAST(" nulls last");
+
+        final String orderBy;
+
+        Nulls(String orderBy) {
+            this.orderBy = orderBy;
+        }
+    }
+
+    private record Column(String expression, String label, boolean descending, Nulls nulls) {
+
+        static Column parse(String sortColumn) {
+            var words = sortColumn.strip().split("\\s+");
+            var expression = words[0];
+            var descending = false;
+            var nulls = Nulls.NOT_NULL;
+            for (int i = 1; i < words.length; i++) {
+                switch (words[i].toLowerCase(Locale.ROOT)) {
+                    case "asc" -> descending = false;
+                    case "desc" -> descending = true;
+                    case "nulls" -> {
+                        var order = i + 1 < words.length ? words[++i].toLowerCase(Locale.ROOT) : "";
+                        nulls = switch (order) {
+                            case "first" -> Nulls.FIRST;
+                            case "last" -> Nulls.LAST;
+                            default -> throw new IllegalArgumentException("Invalid sort column: " + sortColumn);
+                        };
+                    }
+                    default -> throw new IllegalArgumentException("Invalid sort column: " + sortColumn);
+                }
+            }
+            var label = expression.substring(expression.lastIndexOf('.') + 1).replace("\"", "");
+            return new Column(expression, label, descending, nulls);
+        }
+    }
+
+    /**
+     * The types of the values of a token, by the types that drivers return for the usual sort columns.
+     */
+    private enum Type {
+        NULL,
+        STRING,
+        INTEGER,
+        LONG,
+        SHORT,
+        DOUBLE,
+        FLOAT,
+        BIG_DECIMAL,
+        BOOLEAN,
+        UUID,
+        DATE,
+        TIMESTAMP,
+        LOCAL_DATE,
+        LOCAL_DATE_TIME,
+        OFFSET_DATE_TIME,
+        INSTANT;
+
+        static Type of(Object value) {
+            return switch (value) {
+                case null -> NULL;
+                case String ignored -> STRING;
+                case Integer ignored -> INTEGER;
+                case Long ignored -> LONG;
+                case Short ignored -> SHORT;
+                case Double ignored -> DOUBLE;
+                case Float ignored -> FLOAT;
+                case BigDecimal ignored -> BIG_DECIMAL;
+                case Boolean ignored -> BOOLEAN;
+                case java.util.UUID ignored -> UUID;
+                case Date ignored -> DATE;
+                case Timestamp ignored -> TIMESTAMP;
+                case LocalDate ignored -> LOCAL_DATE;
+                case LocalDateTime ignored -> LOCAL_DATE_TIME;
+                case OffsetDateTime ignored -> OFFSET_DATE_TIME;
+                case Instant ignored -> INSTANT;
+                default -> throw new IllegalArgumentException("Unsupported type of a sort column: "
+                        + value.getClass().getName());
+            };
+        }
+
+        String text(Object value) {
+            return switch (this) {
+                case DATE -> ((Date) value).toLocalDate().toString();
+                case TIMESTAMP -> ((Timestamp) value).toLocalDateTime().toString();
+                case BIG_DECIMAL -> ((BigDecimal) value).toPlainString();
+                default -> value.toString();
+            };
+        }
+
+        Object parse(String text) {
+            return switch (this) {
+                case NULL -> null;
+                case STRING -> text;
+                case INTEGER -> Integer.valueOf(text);
+                case LONG -> Long.valueOf(text);
+                case SHORT -> Short.valueOf(text);
+                case DOUBLE -> Double.valueOf(text);
+                case FLOAT -> Float.valueOf(text);
+                case BIG_DECIMAL -> new BigDecimal(text);
+                case BOOLEAN -> Boolean.valueOf(text);
+                case UUID -> java.util.UUID.fromString(text);
+                case DATE -> Date.valueOf(LocalDate.parse(text));
+                case TIMESTAMP -> Timestamp.valueOf(LocalDateTime.parse(text));
+                case LOCAL_DATE -> LocalDate.parse(text);
+                case LOCAL_DATE_TIME -> LocalDateTime.parse(text);
+                case OFFSET_DATE_TIME -> OffsetDateTime.parse(text);
+                case INSTANT -> Instant.parse(text);
+            };
+        }
+    }
+
+    /**
+     * Adds the parameters of the predicate after the ones of the query. Numbered parameters continue after the highest
+     * number of the query, as a {@link QueryTemplate} numbers its parameters per clause.
+     */
+    private static final class Params {
+        private final List<Object> parameters;
+        private final QueryParamNamer paramNamer;
+        private int number;
+
+        Params(List<Object> parameters, QueryParamNamer paramNamer, String query) {
+            this.parameters = parameters;
+            this.paramNamer = paramNamer;
+            this.number = paramNamer == QueryParamNamer.NUMBERED ? maxNumber(query) : 0;
+        }
+
+        String add(Object value) {
+            this.parameters.add(value);
+            return this.paramNamer == QueryParamNamer.NUMBERED ? "?" + ++this.number : "?";
+        }
+
+        private static int maxNumber(String query) {
+            var max = 0;
+            var inLiteral = false;
+            for (int i = 0; i < query.length(); i++) {
+                var c = query.charAt(i);
+                if (c == '\'') {
+                    inLiteral = !inLiteral;
+                } else if (c == '?' && !inLiteral) {
+                    var end = i + 1;
+                    while (end < query.length() && Character.isDigit(query.charAt(end))) {
+                        end++;
+                    }
+                    if (end > i + 1) {
+                        max = Math.max(max, Integer.parseInt(query, i + 1, end, 10));
+                    }
+                    i = end - 1;
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a Java Record for which a {@link RecordFactory} is generated at build time.
+ * <p>
+ * A {@link RecordMapper} for such a record calls the canonical constructor directly instead of using reflection.
+ * Records that are used in a field of type <code>RecordMapper&lt;MyRecord&gt;</code> are detected automatically.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface MappedRecord {
+}
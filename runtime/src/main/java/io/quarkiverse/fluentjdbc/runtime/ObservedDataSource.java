@@ -0,0 +1,339 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import io.quarkiverse.fluentjdbc.runtime.DelegatingStatement.Execution;
+import io.quarkiverse.fluentjdbc.runtime.DelegatingStatement.Interceptor;
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+import io.quarkus.logging.Log;
+
+/**
+ * A {@link DataSource} of which the connections notify the {@link StatementObserver}s of the executed statements and
+ * transactions.
+ * <p>
+ * The connections, statements and result sets wrap the ones of the underlying data source, only the calls that are
+ * observed are intercepted. Unwrapping them returns the objects of the driver.
+ */
+final class ObservedDataSource extends DelegatingDataSource {
+    private final List<StatementObserver> observers;
+
+    ObservedDataSource(DataSource dataSource, List<StatementObserver> observers) {
+        super(dataSource);
+        this.observers = List.copyOf(observers);
+    }
+
+    @Override
+    Connection wrap(Connection connection) {
+        return new ObservedConnection(connection);
+    }
+
+    /**
+     * Executes an update that does not use a statement of the connection, e.g. with the copy API of the driver, and
+     * publishes it to the observers of the connection, if it is observed.
+     *
+     * @return the number of updated rows
+     */
+    static long observeUpdate(Connection connection, String sql, Execution<Long> update) throws SQLException {
+        if (connection instanceof ObservedConnection observed) {
+            return observed.observeUpdate(sql, update);
+        }
+        return update.execute();
+    }
+
+    private void publish(StatementExecution execution) {
+        publish(observer -> observer.onStatement(execution));
+    }
+
+    private void publish(Consumer<StatementObserver> event) {
+        for (var observer : this.observers) {
+            try {
+                event.accept(observer);
+            } catch (RuntimeException e) {
+                Log.warnf(e, "FluentJdbc - StatementObserver %s failed", observer.getClass().getName());
+            }
+        }
+    }
+
+    private final class ObservedConnection extends DelegatingConnection {
+        private boolean inTransaction;
+
+        ObservedConnection(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        Statement wrapStatement(Statement statement) {
+            // createStatement has no query, the query is passed when it is executed
+            return new DelegatingStatement<>(statement, this, new Observation(statement, null));
+        }
+
+        @Override
+        PreparedStatement wrapPreparedStatement(PreparedStatement statement, String sql) {
+            return new DelegatingPreparedStatement<>(statement, this, new Observation(statement, sql));
+        }
+
+        @Override
+        CallableStatement wrapCallableStatement(CallableStatement statement, String sql) {
+            return new DelegatingCallableStatement(statement, this, new Observation(statement, sql));
+        }
+
+        long observeUpdate(String sql, Execution<Long> update) throws SQLException {
+            return new Observation(null, sql).executeUpdate(null, update);
+        }
+
+        @Override
+        public void setAutoCommit(boolean autoCommit) throws SQLException {
+            if (autoCommit && this.inTransaction) {
+                // enabling auto-commit commits the transaction
+                endTransaction(() -> this.connection.setAutoCommit(true), true);
+                return;
+            }
+
+            this.connection.setAutoCommit(autoCommit);
+            if (!autoCommit && !this.inTransaction) {
+                this.inTransaction = true;
+                publish(StatementObserver::onTransactionBegin);
+            }
+        }
+
+        @Override
+        public void commit() throws SQLException {
+            endTransaction(this.connection::commit, true);
+        }
+
+        // a rollback to a savepoint does not end the transaction
+        @Override
+        public void rollback() throws SQLException {
+            endTransaction(this.connection::rollback, false);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                this.connection.close();
+            } finally {
+                // the pool rolls back the transaction
+                if (this.inTransaction) {
+                    this.inTransaction = false;
+                    publish(observer -> observer.onTransactionEnd(false, null));
+                }
+            }
+        }
+
+        private void endTransaction(TransactionEnd end, boolean commit) throws SQLException {
+            if (!this.inTransaction) {
+                end.run();
+                return;
+            }
+
+            this.inTransaction = false;
+            try {
+                end.run();
+                publish(observer -> observer.onTransactionEnd(commit, null));
+            } catch (SQLException e) {
+                publish(observer -> observer.onTransactionEnd(false, e));
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface TransactionEnd {
+        void run() throws SQLException;
+    }
+
+    /**
+     * The executions of a statement, a select is published when its result set or the statement is closed, or when
+     * the statement is executed again.
+     */
+    private final class Observation implements Interceptor {
+        private final Statement statement;
+        private String sql;
+        private int batchSize;
+        private long startNanos;
+        // -1 when there is no select to publish
+        private long selectNanos = -1;
+        private long fetchNanos;
+        private long rows;
+        private int fetchSize;
+
+        Observation(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public ResultSet executeQuery(Statement statement, String sql, Execution<ResultSet> execution)
+                throws SQLException {
+            start(sql);
+            var start = this.startNanos;
+            try {
+                var resultSet = execution.execute();
+                startSelect(System.nanoTime() - start);
+                return new ObservedResultSet(resultSet, statement, this);
+            } catch (SQLException e) {
+                publish(execution(Type.SELECT, System.nanoTime() - start, -1, 0, e));
+                throw e;
+            }
+        }
+
+        @Override
+        public <T> T executeUpdate(String sql, Execution<T> execution) throws SQLException {
+            start(sql);
+            var start = this.startNanos;
+            try {
+                var result = execution.execute();
+                publish(execution(Type.UPDATE, System.nanoTime() - start, ((Number) result).longValue(), 0, null));
+                return result;
+            } catch (SQLException e) {
+                publish(execution(Type.UPDATE, System.nanoTime() - start, -1, 0, e));
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean execute(String sql, Execution<Boolean> execution) throws SQLException {
+            start(sql);
+            var start = this.startNanos;
+            try {
+                boolean isResultSet = execution.execute();
+                if (isResultSet) {
+                    startSelect(System.nanoTime() - start);
+                } else {
+                    // the update count can only be read once, so it is left to the caller
+                    publish(execution(Type.UPDATE, System.nanoTime() - start, -1, 0, null));
+                }
+                return isResultSet;
+            } catch (SQLException e) {
+                publish(execution(Type.UPDATE, System.nanoTime() - start, -1, 0, e));
+                throw e;
+            }
+        }
+
+        @Override
+        public <T> T executeBatch(Execution<T> execution) throws SQLException {
+            start(null);
+            var start = this.startNanos;
+            var batchSize = this.batchSize;
+            this.batchSize = 0;
+            try {
+                var result = execution.execute();
+                publish(execution(Type.BATCH, System.nanoTime() - start, batchRows(result), batchSize, null));
+                return result;
+            } catch (SQLException e) {
+                publish(execution(Type.BATCH, System.nanoTime() - start, -1, batchSize, e));
+                throw e;
+            }
+        }
+
+        @Override
+        public ResultSet resultSet(Statement statement, ResultSet resultSet) {
+            return resultSet != null && this.selectNanos >= 0 ? new ObservedResultSet(resultSet, statement, this)
+                    : resultSet;
+        }
+
+        @Override
+        public void addBatch(String sql) {
+            if (sql != null) {
+                this.sql = sql;
+            }
+            this.batchSize++;
+        }
+
+        @Override
+        public void clearBatch() {
+            this.batchSize = 0;
+        }
+
+        @Override
+        public void close() {
+            notifySelect();
+        }
+
+        private void start(String sql) {
+            notifySelect();
+            if (sql != null) {
+                this.sql = sql;
+            }
+            this.startNanos = System.nanoTime();
+        }
+
+        private void startSelect(long nanos) throws SQLException {
+            this.selectNanos = nanos;
+            this.fetchNanos = 0;
+            this.rows = 0;
+            this.fetchSize = this.statement.getFetchSize();
+        }
+
+        private void notifySelect() {
+            if (this.selectNanos >= 0) {
+                var execution = new StatementExecution(this.sql, Type.SELECT, this.startNanos, this.selectNanos,
+                        this.fetchNanos, this.rows, this.fetchSize, 0, null);
+                this.selectNanos = -1;
+                publish(execution);
+            }
+        }
+
+        private StatementExecution execution(Type type, long executionNanos, long rows, int batchSize, SQLException error) {
+            return new StatementExecution(this.sql, type, this.startNanos, executionNanos, 0, rows, 0, batchSize, error);
+        }
+
+        private static long batchRows(Object result) {
+            var rows = 0L;
+            if (result instanceof int[] counts) {
+                for (var count : counts) {
+                    if (count < 0) {
+                        return -1;
+                    }
+                    rows += count;
+                }
+            } else if (result instanceof long[] counts) {
+                for (var count : counts) {
+                    if (count < 0) {
+                        return -1;
+                    }
+                    rows += count;
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class ObservedResultSet extends DelegatingResultSet {
+        private final Observation observation;
+
+        ObservedResultSet(ResultSet resultSet, Statement statement, Observation observation) {
+            super(resultSet, statement);
+            this.observation = observation;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            var start = System.nanoTime();
+            var hasNext = this.resultSet.next();
+            this.observation.fetchNanos += System.nanoTime() - start;
+            if (hasNext) {
+                this.observation.rows++;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                this.resultSet.close();
+            } finally {
+                this.observation.notifySelect();
+            }
+        }
+    }
+}
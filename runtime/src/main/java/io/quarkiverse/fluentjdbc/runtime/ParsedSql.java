@@ -0,0 +1,271 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A query of which the parameters were found: the positional <code>?</code> parameters, or the named
+ * <code>:name</code> parameters, which are replaced with <code>?</code>. String literals, quoted identifiers, comments,
+ * dollar quotes and casts like <code>::jsonb</code> are skipped.
+ * <p>
+ * The constant queries of the application are parsed at build time, see {@link Sql}, so that looking them up does not
+ * parse them again:
+ *
+ * <pre>
+ * var sql = ParsedSql.of(SELECT_BY_TYPE);
+ * var fruits = this.jdbc.query().select(sql.positionalSql()).params(sql.params(Map.of("type", type))).listResult(mapper);
+ * </pre>
+ *
+ * Other queries are parsed once and cached, up to a maximum number of queries.
+ * <p>
+ * Only {@link QueryCache}, the generated repositories and the callers of {@link #of(String)} use the parsed queries.
+ * The <code>namedParams</code> of a FluentJdbc query are still parsed by FluentJdbc on every execution.
+ */
+public final class ParsedSql {
+    static final int MAX_CACHED_QUERIES = 1024;
+    private static final Map<String, ParsedSql> QUERIES = new ConcurrentHashMap<>();
+
+    private final String sql;
+    private final String positionalSql;
+    private final int paramCount;
+    // the name of each parameter, empty for positional parameters
+    private final List<String> paramNames;
+
+    ParsedSql(String sql, String positionalSql, int paramCount, List<String> paramNames) {
+        this.sql = sql;
+        this.positionalSql = positionalSql;
+        this.paramCount = paramCount;
+        this.paramNames = List.copyOf(paramNames);
+    }
+
+    /**
+     * @return the parsed query, which was parsed at build time for the constant queries of the application.
+     * @throws IllegalArgumentException when the query is invalid, see {@link #parse(String)}
+     */
+    public static ParsedSql of(String sql) {
+        var parsed = QUERIES.get(sql);
+        if (parsed == null) {
+            parsed = parse(sql);
+            if (QUERIES.size() < MAX_CACHED_QUERIES) {
+                QUERIES.put(sql, parsed);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Registers a query that was parsed at build time.
+     */
+    static void register(ParsedSql parsed) {
+        QUERIES.put(parsed.sql, parsed);
+    }
+
+    /**
+     * Finds the parameters of the query. The query is not parsed by the grammar of a database, it is only checked for
+     * unterminated literals, quotes and comments, unbalanced parentheses and a mix of named and positional parameters.
+     *
+     * @throws IllegalArgumentException when the query is invalid
+     */
+    public static ParsedSql parse(String sql) {
+        var positionalSql = new StringBuilder(sql.length());
+        var names = new ArrayList<String>();
+        var positional = 0;
+        var depth = 0;
+        var length = sql.length();
+
+        for (int i = 0; i < length; i++) {
+            var c = sql.charAt(i);
+            var start = i;
+            switch (c) {
+                case '\'' -> i = endOfLiteral(sql, i, i > 0 && (sql.charAt(i - 1) == 'E' || sql.charAt(i - 1) == 'e')
+                        && (i < 2 || !isWordChar(sql.charAt(i - 2))));
+                case '"', '`' -> i = end(sql, sql.indexOf(c, i + 1), "quoted identifier", i);
+                case '-' -> {
+                    if (i + 1 < length && sql.charAt(i + 1) == '-') {
+                        var end = sql.indexOf('\n', i);
+                        i = end < 0 ? length - 1 : end;
+                    }
+                }
+                case '/' -> {
+                    if (i + 1 < length && sql.charAt(i + 1) == '*') {
+                        i = end(sql, sql.indexOf("*/", i + 2), "comment", i) + 1;
+                    }
+                }
+                case '$' -> i = endOfDollarQuote(sql, i);
+                case '(' -> depth++;
+                case ')' -> {
+                    if (--depth < 0) {
+                        throw invalid(sql, "unbalanced ')' at position " + i);
+                    }
+                }
+                case '?' -> {
+                    if (i + 1 < length && sql.charAt(i + 1) == '?') {
+                        // an escaped question mark, e.g. the ?? operator of jsonb
+                        i++;
+                    } else {
+                        positional++;
+                    }
+                }
+                case ':' -> {
+                    if (i + 1 < length && sql.charAt(i + 1) == ':') {
+                        // a cast, e.g. ::jsonb
+                        i++;
+                    } else if (i + 1 < length && isNameStart(sql.charAt(i + 1)) && (i == 0 || !isWordChar(sql.charAt(i - 1)))) {
+                        var end = i + 1;
+                        while (end + 1 < length && isWordChar(sql.charAt(end + 1))) {
+                            end++;
+                        }
+                        names.add(sql.substring(i + 1, end + 1));
+                        positionalSql.append('?');
+                        i = end;
+                        continue;
+                    }
+                }
+                default -> {
+                }
+            }
+            positionalSql.append(sql, start, i + 1);
+        }
+
+        if (depth > 0) {
+            throw invalid(sql, "%d unclosed '('".formatted(depth));
+        }
+        if (positional > 0 && !names.isEmpty()) {
+            throw invalid(sql, "named and positional parameters are mixed");
+        }
+        if (sql.isBlank()) {
+            throw invalid(sql, "empty query");
+        }
+        return new ParsedSql(sql, positionalSql.toString(), positional + names.size(), names);
+    }
+
+    /**
+     * @return the first keyword of the query in lower case, e.g. <code>select</code>, or an empty string
+     */
+    public String keyword() {
+        for (var word : SqlTables.words(this.sql)) {
+            if (!word.equals("(")) {
+                return word;
+            }
+        }
+        return "";
+    }
+
+    public String sql() {
+        return this.sql;
+    }
+
+    /**
+     * @return the query with its named parameters replaced with <code>?</code>
+     */
+    public String positionalSql() {
+        return this.positionalSql;
+    }
+
+    /**
+     * @return the number of parameters, a named parameter that is used twice counts twice.
+     */
+    public int paramCount() {
+        return this.paramCount;
+    }
+
+    /**
+     * @return the names of the parameters in the order of the query, empty for positional parameters.
+     */
+    public List<String> paramNames() {
+        return this.paramNames;
+    }
+
+    public boolean isNamed() {
+        return !this.paramNames.isEmpty();
+    }
+
+    /**
+     * @return the values of the named parameters in the order of the {@link #positionalSql()}.
+     * @throws IllegalArgumentException when a parameter has no value
+     */
+    public List<Object> params(Map<String, ?> namedParams) {
+        var result = new ArrayList<>(this.paramNames.size());
+        for (var name : this.paramNames) {
+            var value = namedParams.get(name);
+            if (value == null && !namedParams.containsKey(name)) {
+                throw new IllegalArgumentException("No value for parameter :%s of query: %s".formatted(name, this.sql));
+            }
+            result.add(value);
+        }
+        return result;
+    }
+
+    /**
+     * @return whether the values can be bound as positional parameters, which is not the case for collections that
+     *         some libraries expand to multiple parameters.
+     */
+    static boolean isPositional(Map<String, ?> namedParams) {
+        for (var value : namedParams.values()) {
+            if (value instanceof Collection<?> || value instanceof Object[]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return this.positionalSql;
+    }
+
+    private static int endOfLiteral(String sql, int start, boolean backslashEscapes) {
+        for (int i = start + 1; i < sql.length(); i++) {
+            var c = sql.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i++;
+            } else if (c == '\'') {
+                // '' is an escaped quote
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        throw invalid(sql, "unterminated string literal at position " + start);
+    }
+
+    /**
+     * A PostgreSQL dollar quote, e.g. <code>$$...$$</code> or <code>$body$...$body$</code>, or a <code>$1</code>
+     * parameter, which is not a quote.
+     */
+    private static int endOfDollarQuote(String sql, int start) {
+        var end = start + 1;
+        while (end < sql.length() && (isNameStart(sql.charAt(end)) || end > start + 1 && isWordChar(sql.charAt(end)))) {
+            end++;
+        }
+        if (end >= sql.length() || sql.charAt(end) != '$' || start > 0 && isWordChar(sql.charAt(start - 1))) {
+            return start;
+        }
+        var tag = sql.substring(start, end + 1);
+        return end(sql, sql.indexOf(tag, end + 1), "dollar quote", start) + tag.length() - 1;
+    }
+
+    private static int end(String sql, int end, String what, int start) {
+        if (end < 0) {
+            throw invalid(sql, "unterminated %s at position %d".formatted(what, start));
+        }
+        return end;
+    }
+
+    private static IllegalArgumentException invalid(String sql, String reason) {
+        return new IllegalArgumentException("Invalid query, %s: %s".formatted(reason, sql));
+    }
+
+    private static boolean isNameStart(char c) {
+        return c == '_' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isNameStart(c) || c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,132 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Iterator;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import io.quarkus.logging.Log;
+
+/**
+ * Streams rows into a PostgreSQL table with <code>COPY FROM STDIN</code> in the CSV format, see {@link BulkInsert}, or
+ * the rows of a query out with <code>COPY TO STDOUT</code>, see {@link QueryExport}.
+ * This class is only loaded when the PostgreSQL driver is present.
+ */
+final class PgCopy {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private PgCopy() {
+    }
+
+    /**
+     * @return the number of copied rows.
+     */
+    static long copyIn(Connection connection, String table, String[] columns, Iterator<?> rows) throws SQLException {
+        var sql = "copy %s(%s) from stdin (format csv)".formatted(table, String.join(",", columns));
+        // the copy does not use a statement, so it is published to the observers, e.g. the QueryCache, like an update
+        return ObservedDataSource.observeUpdate(connection, sql,
+                () -> copyIn(connection.unwrap(PGConnection.class), sql, table, columns, rows));
+    }
+
+    private static long copyIn(PGConnection connection, String sql, String table, String[] columns, Iterator<?> rows)
+            throws SQLException {
+        var copy = new PGCopyOutputStream(connection, sql, BUFFER_SIZE);
+        try {
+            var writer = new BufferedWriter(new OutputStreamWriter(copy, UTF_8), BUFFER_SIZE);
+            while (rows.hasNext()) {
+                var values = BulkInsert.values(rows.next());
+                if (values.size() != columns.length) {
+                    throw new IllegalArgumentException("Expected %d values to copy into %s, but got %d: %s"
+                            .formatted(columns.length, table, values.size(), values));
+                }
+                writeRow(writer, values);
+            }
+            writer.flush();
+            return copy.endCopy();
+        } catch (IOException e) {
+            throw new SQLException("Could not copy into " + table, e);
+        } finally {
+            if (copy.isActive()) {
+                try {
+                    copy.cancelCopy();
+                } catch (SQLException e) {
+                    Log.debugf(e, "FluentJdbc - could not cancel the copy into %s", table);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of copied rows.
+     */
+    static long copyOut(Connection connection, String sql, OutputStream out) throws SQLException {
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+        } catch (IOException e) {
+            throw new SQLException("Could not write the result of " + sql, e);
+        }
+    }
+
+    static void writeRow(Writer writer, Collection<?> values) throws IOException {
+        var first = true;
+        for (var value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            if (value != null) {
+                // a quoted empty value is an empty string, an unquoted one is null
+                writer.write('"');
+                writer.write(text(value).replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * @return the text representation of PostgreSQL of the value.
+     */
+    static String text(Object value) {
+        if (value instanceof byte[] bytes) {
+            return "\\x" + HexFormat.of().formatHex(bytes);
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (value instanceof Collection<?> collection) {
+            return array(collection);
+        }
+        if (value instanceof Object[] array) {
+            return array(Arrays.asList(array));
+        }
+        return value.toString();
+    }
+
+    private static String array(Collection<?> elements) {
+        var result = new StringBuilder("{");
+        for (var element : elements) {
+            if (result.length() > 1) {
+                result.append(',');
+            }
+            if (element == null) {
+                result.append("NULL");
+            } else {
+                result.append('"').append(text(element).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        return result.append('}').toString();
+    }
+}
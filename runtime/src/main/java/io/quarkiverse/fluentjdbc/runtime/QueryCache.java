@@ -0,0 +1,302 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.SelectQuery;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+
+/**
+ * Caches the mapped results of selects by their query, parameters and mapper:
+ *
+ * <pre>
+ * var farmers = this.queryCache.select("select * from farmer")
+ *         .timeToLive(Duration.ofMinutes(5))
+ *         .listResult(Farmer::fromRow);
+ * </pre>
+ *
+ * The results of a select are invalidated when a table that it selects from is updated by the {@link FluentJdbc} bean,
+ * see {@link SqlTables}. Updates by other applications are not noticed, so the results are also removed after their
+ * time to live. The least frequently used results are evicted when the maximum size is reached.
+ * <p>
+ * The results of selects in a transaction, including a JTA transaction of a <code>@Transactional</code> method, are
+ * not cached, as they may contain rows that are not committed.
+ * <p>
+ * The mapper is part of the key, so use the same mapper instance for the same query, e.g. a constant or a method
+ * reference. The parameters must implement equals and hashCode.
+ * <p>
+ * This bean is registered when <code>quarkus.fluentjdbc.cache.enabled</code> is true.
+ */
+public class QueryCache implements StatementObserver {
+    private final Provider<FluentJdbc> jdbc;
+    private final Duration timeToLive;
+    private final Cache<Key, Entry> cache;
+    // a result is valid while the versions of its tables are unchanged
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    // incremented when an unknown table was updated
+    private final AtomicLong version = new AtomicLong();
+    // the tables updated by the transaction of this thread, which are invalidated again when it ends
+    private final ThreadLocal<Set<String>> transactionTables = new ThreadLocal<>();
+    // null without JTA
+    private final TransactionSynchronizationRegistry transactions;
+
+    @Inject
+    public QueryCache(Provider<FluentJdbc> jdbc, FluentJdbcConfig config,
+            Instance<TransactionSynchronizationRegistry> transactions) {
+        this(jdbc, config.cache().maximumSize(), config.cache().timeToLive(),
+                transactions.isResolvable() ? transactions.get() : null);
+    }
+
+    QueryCache(Provider<FluentJdbc> jdbc, long maximumSize, Duration timeToLive,
+            TransactionSynchronizationRegistry transactions) {
+        this.jdbc = jdbc;
+        this.timeToLive = timeToLive;
+        this.transactions = transactions;
+        // a replaced result expires after its own time to live
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(Expiry.<Key, Entry> writing((key, entry) -> entry.timeToLive))
+                .build();
+    }
+
+    public CachedSelect select(String sql) {
+        return new CachedSelect(sql);
+    }
+
+    /**
+     * Invalidates the results of the selects from the table.
+     */
+    public void invalidate(String table) {
+        tableVersion(table.toLowerCase(Locale.ROOT)).incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        this.version.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    @Override
+    public void onStatement(StatementExecution execution) {
+        if (execution.type() == Type.SELECT) {
+            return;
+        }
+
+        // also when it failed, it may have updated rows before
+        var table = SqlTables.modified(execution.sql());
+        if (table == null) {
+            invalidateAll();
+            return;
+        }
+
+        invalidate(table);
+        var tables = this.transactionTables.get();
+        if (tables == null && isJtaTransaction()) {
+            tables = jtaTransactionTables();
+        }
+        if (tables != null) {
+            tables.add(table);
+        }
+    }
+
+    @Override
+    public void onTransactionBegin() {
+        this.transactionTables.set(new HashSet<>());
+    }
+
+    @Override
+    public void onTransactionEnd(boolean committed, SQLException error) {
+        // other threads may have cached the rows of before the updates until they were committed
+        var tables = this.transactionTables.get();
+        if (tables != null) {
+            this.transactionTables.remove();
+            tables.forEach(this::invalidate);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Key key, Duration timeToLive, Supplier<T> query) {
+        var entry = this.cache.getIfPresent(key);
+        if (entry != null && isValid(entry)) {
+            return (T) entry.value;
+        }
+        if (this.transactionTables.get() != null || isJtaTransaction()) {
+            return query.get();
+        }
+
+        // the versions are read before the query, so that concurrent updates invalidate the result
+        var tables = SqlTables.selected(key.sql).toArray(String[]::new);
+        var versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = tableVersion(tables[i]).get();
+        }
+        var version = this.version.get();
+
+        var value = query.get();
+        this.cache.put(key, new Entry(value, tables, versions, version, timeToLive != null ? timeToLive : this.timeToLive));
+        return value;
+    }
+
+    private boolean isValid(Entry entry) {
+        if (entry.version != this.version.get()) {
+            return false;
+        }
+        for (int i = 0; i < entry.tables.length; i++) {
+            if (entry.versions[i] != tableVersion(entry.tables[i]).get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isJtaTransaction() {
+        return this.transactions != null && this.transactions.getTransactionStatus() != Status.STATUS_NO_TRANSACTION;
+    }
+
+    /**
+     * @return the tables updated by the JTA transaction, which are invalidated again when it completes.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> jtaTransactionTables() {
+        var tables = (Set<String>) this.transactions.getResource(QueryCache.class);
+        if (tables == null) {
+            var newTables = new HashSet<String>();
+            this.transactions.putResource(QueryCache.class, newTables);
+            this.transactions.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    newTables.forEach(QueryCache.this::invalidate);
+                }
+            });
+            tables = newTables;
+        }
+        return tables;
+    }
+
+    private AtomicLong tableVersion(String table) {
+        return this.tableVersions.computeIfAbsent(table, ignored -> new AtomicLong());
+    }
+
+    /**
+     * A select of which the result is cached, see {@link QueryCache}.
+     */
+    public final class CachedSelect {
+        private final String sql;
+        private List<?> params = List.of();
+        private Map<String, ?> namedParams = Map.of();
+        private Long maxRows;
+        private Duration timeToLive;
+
+        CachedSelect(String sql) {
+            this.sql = sql;
+        }
+
+        public CachedSelect params(Object... params) {
+            return params(Arrays.asList(params));
+        }
+
+        public CachedSelect params(List<?> params) {
+            // copied, as the parameters are part of the key
+            this.params = Collections.unmodifiableList(new ArrayList<>(params));
+            return this;
+        }
+
+        public CachedSelect namedParams(Map<String, ?> namedParams) {
+            this.namedParams = Collections.unmodifiableMap(new LinkedHashMap<>(namedParams));
+            return this;
+        }
+
+        public CachedSelect maxRows(Long maxRows) {
+            this.maxRows = maxRows;
+            return this;
+        }
+
+        /**
+         * @param timeToLive the duration after which the result is removed, instead of
+         *        <code>quarkus.fluentjdbc.cache.time-to-live</code>.
+         */
+        public CachedSelect timeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+
+        /**
+         * @return the cached, unmodifiable list of results.
+         */
+        public <T> List<T> listResult(Mapper<T> mapper) {
+            return get(mapper, Result.LIST, query -> Collections.unmodifiableList(query.listResult(mapper)));
+        }
+
+        public <T> Optional<T> firstResult(Mapper<T> mapper) {
+            return get(mapper, Result.FIRST, query -> query.firstResult(mapper));
+        }
+
+        public <T> T singleResult(Mapper<T> mapper) {
+            return get(mapper, Result.SINGLE, query -> query.singleResult(mapper));
+        }
+
+        private <T> T get(Mapper<?> mapper, Result result, Function<SelectQuery, T> function) {
+            var key = new Key(this.sql, this.params, this.namedParams, this.maxRows, mapper, result);
+            return QueryCache.this.get(key, this.timeToLive, () -> {
+                SelectQuery query;
+                if (this.namedParams.isEmpty()) {
+                    query = QueryCache.this.jdbc.get().query().select(this.sql).params(this.params);
+                } else if (ParsedSql.isPositional(this.namedParams)) {
+                    // the query was parsed at build time, or is parsed once
+                    var parsed = ParsedSql.of(this.sql);
+                    query = QueryCache.this.jdbc.get().query().select(parsed.positionalSql())
+                            .params(parsed.params(this.namedParams));
+                } else {
+                    query = QueryCache.this.jdbc.get().query().select(this.sql).namedParams(this.namedParams);
+                }
+                if (this.maxRows != null) {
+                    query.maxRows(this.maxRows);
+                }
+                return function.apply(query);
+            });
+        }
+    }
+
+    enum Result {
+        LIST,
+        FIRST,
+        SINGLE
+    }
+
+    record Key(String sql, List<?> params, Map<String, ?> namedParams, Long maxRows, Mapper<?> mapper, Result result) {
+    }
+
+    private record Entry(Object value, String[] tables, long[] versions, long version, Duration timeToLive) {
+    }
+}
@@ -0,0 +1,277 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the rows of a select into an output stream while reading them, as CSV, newline-delimited JSON or a JSON
+ * array, e.g. for a download:
+ *
+ * <pre>
+ * static final QueryExport EXPORT_FRUITS = QueryExport.csv(';');
+ *
+ * StreamingOutput stream = out -> EXPORT_FRUITS.write(this.jdbc, "select * from fruit order by id", List.of(), out);
+ * </pre>
+ *
+ * A CSV export of a query without parameters is written by PostgreSQL with <code>COPY TO STDOUT</code>. Otherwise, the
+ * rows are read with a cursor in a transaction and written by a {@link RowEncoder}, so the memory does not depend on
+ * the number of rows.
+ * <p>
+ * The output stream is not closed. An export is immutable and thread-safe.
+ */
+public class QueryExport {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // whether the data source of a FluentJdbc is PostgreSQL, detected once
+    private static final Map<FluentJdbc, Boolean> POSTGRESQL = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Function<OutputStream, RowEncoder> encoders;
+    // the delimiter of a CSV export that can be copied, otherwise 0
+    private final char copyDelimiter;
+    private final Integer fetchSize;
+
+    private QueryExport(Function<OutputStream, RowEncoder> encoders, char copyDelimiter, Integer fetchSize) {
+        this.encoders = encoders;
+        this.copyDelimiter = copyDelimiter;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return an export as CSV with a header of the column labels, separated by commas.
+     */
+    public static QueryExport csv() {
+        return csv(',');
+    }
+
+    /**
+     * @return an export as CSV with a header of the column labels. Values that contain the delimiter, a quote or a line
+     *         break are quoted, as well as empty strings, so that they differ from nulls.
+     */
+    public static QueryExport csv(char delimiter) {
+        return new QueryExport(out -> new CsvEncoder(out, delimiter), delimiter, null);
+    }
+
+    /**
+     * @return an export with a JSON object per line, see {@link JsonObjectMapper#writeRow(JsonGenerator, ResultSet)}.
+     */
+    public static QueryExport ndjson() {
+        return new QueryExport(out -> new JsonEncoder(out, false), (char) 0, null);
+    }
+
+    /**
+     * @return an export as a JSON array of objects, see {@link JsonObjectMapper#writeArray}.
+     */
+    public static QueryExport json() {
+        return new QueryExport(out -> new JsonEncoder(out, true), (char) 0, null);
+    }
+
+    /**
+     * @param encoders creates the encoder of an export, which writes into the given output stream.
+     */
+    public static QueryExport of(Function<OutputStream, RowEncoder> encoders) {
+        return new QueryExport(encoders, (char) 0, null);
+    }
+
+    /**
+     * @param fetchSize the number of rows that are read at once, <code>quarkus.fluentjdbc.fetch-size</code> by default.
+     */
+    public QueryExport fetchSize(int fetchSize) {
+        return new QueryExport(this.encoders, this.copyDelimiter, fetchSize);
+    }
+
+    /**
+     * Writes the rows of the query into the output stream.
+     *
+     * @return the number of rows
+     */
+    public long write(FluentJdbc jdbc, String sql, List<?> params, OutputStream out) {
+        var query = jdbc.query();
+        if (this.copyDelimiter != 0 && params.isEmpty() && !Boolean.FALSE.equals(POSTGRESQL.get(jdbc))) {
+            var copy = "copy (%s) to stdout (format csv, header, delimiter '%s')".formatted(sql,
+                    this.copyDelimiter == '\'' ? "''" : String.valueOf(this.copyDelimiter));
+            // the database is detected with the connection of the first copy, so that it is only borrowed once
+            var count = query.plainConnection(connection -> {
+                var postgreSql = POSTGRESQL.get(jdbc);
+                if (postgreSql == null) {
+                    postgreSql = BulkInsert.isPostgreSql(connection);
+                    POSTGRESQL.put(jdbc, postgreSql);
+                }
+                return postgreSql ? PgCopy.copyOut(connection, copy, out) : null;
+            });
+            if (count != null) {
+                return count;
+            }
+        }
+
+        // in a transaction, PostgreSQL reads the rows with a cursor
+        return query.transaction().in(() -> {
+            var encoder = this.encoders.apply(out);
+            // the metadata of the statement, so that an empty result has a header like a copy
+            query.plainConnection(connection -> {
+                try (var statement = connection.prepareStatement(sql)) {
+                    var metadata = statement.getMetaData();
+                    if (metadata != null) {
+                        encoder.writeHeader(metadata);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+            var count = new long[1];
+            var select = query.select(sql).params(params);
+            if (this.fetchSize != null) {
+                select.fetchSize(this.fetchSize);
+            }
+            select.iterateResult(rs -> {
+                try {
+                    encoder.writeRow(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }, ignored -> count[0]++);
+
+            try {
+                encoder.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count[0];
+        });
+    }
+
+    /**
+     * Writes the values like PostgreSQL, except for booleans.
+     */
+    static final class CsvEncoder implements RowEncoder {
+        private final Writer writer;
+        private final char delimiter;
+        private int columns = -1;
+
+        CsvEncoder(OutputStream out, char delimiter) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8), BUFFER_SIZE);
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public void writeHeader(ResultSetMetaData metadata) throws IOException, SQLException {
+            this.columns = metadata.getColumnCount();
+            for (int i = 1; i <= this.columns; i++) {
+                writeValue(i, metadata.getColumnLabel(i));
+            }
+            this.writer.write('\n');
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws IOException, SQLException {
+            if (this.columns < 0) {
+                writeHeader(rs.getMetaData());
+            }
+            for (int i = 1; i <= this.columns; i++) {
+                writeValue(i, text(rs.getObject(i)));
+            }
+            this.writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.writer.flush();
+        }
+
+        private void writeValue(int column, String value) throws IOException {
+            if (column > 1) {
+                this.writer.write(this.delimiter);
+            }
+            if (value == null) {
+                return;
+            }
+            if (value.isEmpty() || needsQuotes(value)) {
+                this.writer.write('"');
+                this.writer.write(value.replace("\"", "\"\""));
+                this.writer.write('"');
+            } else {
+                this.writer.write(value);
+            }
+        }
+
+        private boolean needsQuotes(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                var c = value.charAt(i);
+                if (c == this.delimiter || c == '"' || c == '\n' || c == '\r') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        static String text(Object value) throws SQLException {
+            return switch (value) {
+                case null -> null;
+                case Timestamp t -> t.toLocalDateTime().toString();
+                case Time t -> t.toLocalTime().toString();
+                case java.sql.Date d -> d.toLocalDate().toString();
+                case byte[] bytes -> "\\x" + HexFormat.of().formatHex(bytes);
+                case Array array -> PgCopy.text(Arrays.asList((Object[]) array.getArray()));
+                default -> value.toString();
+            };
+        }
+    }
+
+    static final class JsonEncoder implements RowEncoder {
+        private final JsonObjectMapper mapper = new JsonObjectMapper();
+        private final JsonGenerator generator;
+        private final boolean array;
+
+        JsonEncoder(OutputStream out, boolean array) {
+            try {
+                this.generator = JsonObjectMapper.JSON_FACTORY.createGenerator(out);
+                this.generator.setRootValueSeparator(null);
+                this.array = array;
+                if (array) {
+                    this.generator.writeStartArray();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeRow(ResultSet rs) throws IOException, SQLException {
+            this.mapper.writeRow(this.generator, rs);
+            if (!this.array) {
+                this.generator.writeRaw('\n');
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (this.array) {
+                this.generator.writeEndArray();
+            }
+            this.generator.close();
+        }
+    }
+}
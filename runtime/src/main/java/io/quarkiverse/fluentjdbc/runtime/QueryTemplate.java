@@ -0,0 +1,296 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import io.quarkiverse.fluentjdbc.runtime.DynamicQuery.QueryResult;
+
+/**
+ * <p>
+ * A {@link DynamicQuery} of which the clauses are parsed once. It is immutable and thread-safe, so it can be kept in a
+ * static field and reused for every request.
+ * </p>
+ *
+ * <p>
+ * The query only depends on which clauses have non-null parameters, so the query is cached per combination of
+ * non-null clauses. Building a query for a known combination only collects the non-null parameters.
+ * </p>
+ *
+ * <p>
+ * Example: <br/>
+ * <code>
+ * static final QueryTemplate SEARCH = new DynamicQuery().selectClauses("name", "calories > :cal").template();<br/>
+ * <br/>
+ * var queryResult = SEARCH.build(name, calories);
+ * </code>
+ * </p>
+ */
+public final class QueryTemplate {
+    // the number of queries that are cached per template, a template with many clauses has more combinations
+    static final int MAX_CACHED_QUERIES = 256;
+    private static final String WHERE = " where ";
+
+    private final Clause[] clauses;
+    private final Clause whereClause;
+    private final QueryOperator operator;
+    private final QueryParamNamer paramNamer;
+    private final boolean update;
+    // null when the template is only used once, by DynamicQuery.build()
+    private final Map<Long, String> queries;
+
+    private QueryTemplate(Clause[] clauses, Clause whereClause, QueryOperator operator, QueryParamNamer paramNamer,
+            boolean update, boolean cached) {
+        if (cached && clauses.length > Long.SIZE) {
+            throw new IllegalArgumentException("A query template supports at most %d clauses".formatted(Long.SIZE));
+        }
+        this.clauses = clauses;
+        this.whereClause = whereClause;
+        this.operator = operator;
+        this.paramNamer = paramNamer;
+        this.update = update;
+        this.queries = cached ? new ConcurrentHashMap<>() : null;
+    }
+
+    static QueryTemplate select(String[] clauses, QueryOperator operator, QueryParamNamer paramNamer, boolean cached) {
+        return new QueryTemplate(Clause.parse(clauses), null, operator, paramNamer, false, cached);
+    }
+
+    static QueryTemplate update(String[] clauses, String whereClause, QueryParamNamer paramNamer, boolean cached) {
+        var where = whereClause != null ? Clause.parse(whereClause) : null;
+        return new QueryTemplate(Clause.parse(clauses), where, QueryOperator.COMMA, paramNamer, true, cached);
+    }
+
+    /**
+     * @param params the parameters of the clauses, in the order of the clauses. Additional parameters are added to the
+     *        end of the parameters of the result.
+     * @return the query with the clauses of the non-null parameters
+     */
+    public QueryResult build(Object... params) {
+        return build(Arrays.asList(params));
+    }
+
+    public QueryResult build(List<?> params) {
+        if (this.update && params.isEmpty()) {
+            throw new IllegalArgumentException("No parameters provided");
+        }
+
+        var parameters = new ArrayList<>(params.size());
+        // without a cache, the query is rendered while collecting the parameters
+        var query = this.queries == null ? new StringBuilder(64) : null;
+        var paramCounter = new int[] { 1 };
+        var mask = 0L;
+        var paramIndex = 0;
+
+        for (int i = 0; i < this.clauses.length; i++) {
+            if (this.clauses[i].addParams(params, paramIndex, parameters)) {
+                if (query != null) {
+                    appendClause(query, this.clauses[i], paramCounter);
+                } else {
+                    mask |= 1L << i;
+                }
+            }
+            paramIndex += this.clauses[i].paramCount;
+        }
+
+        // without its parameter, the where clause would be left out and all rows would be updated
+        if (this.whereClause != null) {
+            if (!this.whereClause.addParams(params, paramIndex, parameters)) {
+                throw new IllegalArgumentException(
+                        "Invalid UPDATE statement: No value for the where clause " + this.whereClause.expression);
+            }
+            paramIndex += this.whereClause.paramCount;
+        }
+
+        for (int i = paramIndex; i < params.size(); i++) {
+            parameters.add(params.get(i));
+        }
+
+        var sql = query != null ? finish(query, paramCounter) : cachedQuery(mask);
+        return new QueryResult(sql, parameters);
+    }
+
+    public QueryResult buildFromDto(Object dto, Object... otherParams) {
+        return buildFromDto(dto, name -> true, otherParams);
+    }
+
+    /**
+     * Reads the parameters from the given DTO, see {@link DynamicQuery#paramsFromDto(Object, Predicate, Object...)}.
+     */
+    public QueryResult buildFromDto(Object dto, Predicate<String> nameFilter, Object... otherParams) {
+        var params = DtoParams.of(dto, nameFilter);
+        params.addAll(Arrays.asList(otherParams));
+        return build(params);
+    }
+
+    private String cachedQuery(long mask) {
+        var query = this.queries.get(mask);
+        if (query == null) {
+            query = render(mask);
+            if (this.queries.size() < MAX_CACHED_QUERIES) {
+                this.queries.put(mask, query);
+            }
+        }
+        return query;
+    }
+
+    private String render(long mask) {
+        var query = new StringBuilder(64);
+        var paramCounter = new int[] { 1 };
+
+        for (int i = 0; i < this.clauses.length; i++) {
+            if ((mask & (1L << i)) != 0) {
+                appendClause(query, this.clauses[i], paramCounter);
+            }
+        }
+        return finish(query, paramCounter);
+    }
+
+    private void appendClause(StringBuilder query, Clause clause, int[] paramCounter) {
+        if (query.isEmpty()) {
+            query.append(this.update ? "SET " : WHERE);
+        } else {
+            query.append(this.operator.value);
+        }
+        clause.render(query, this.paramNamer, paramCounter, !this.update);
+    }
+
+    private String finish(StringBuilder query, int[] paramCounter) {
+        if (this.update) {
+            if (query.isEmpty()) {
+                throw new IllegalStateException("Invalid UPDATE statement: No fields to update.");
+            }
+            if (this.whereClause != null) {
+                query.append(" WHERE ");
+                this.whereClause.render(query, this.paramNamer, paramCounter, false);
+            }
+        }
+        return query.toString();
+    }
+
+    /**
+     * A clause split into the text between its parameters.
+     */
+    static final class Clause {
+        final String expression;
+        final String[] parts;
+        final int paramCount;
+        // e.g. just "name" without " = :name"
+        final boolean shorthand;
+
+        private Clause(String expression, String[] parts, boolean shorthand) {
+            this.expression = expression;
+            this.parts = parts;
+            this.paramCount = Math.max(1, parts.length - 1);
+            this.shorthand = shorthand;
+        }
+
+        static Clause[] parse(String... clauses) {
+            var result = new Clause[clauses.length];
+            for (int i = 0; i < clauses.length; i++) {
+                result[i] = parse(clauses[i]);
+            }
+            return result;
+        }
+
+        static Clause parse(String clause) {
+            var expression = clause.strip();
+            var parts = new ArrayList<String>();
+            var start = 0;
+            var inLiteral = false;
+
+            for (int i = 0; i < expression.length(); i++) {
+                var c = expression.charAt(i);
+                if (c == '\'') {
+                    inLiteral = !inLiteral;
+                } else if (c == ':' && !inLiteral) {
+                    if (i + 1 < expression.length() && expression.charAt(i + 1) == ':') {
+                        // a cast, e.g. ::jsonb
+                        i++;
+                    } else if (i + 1 < expression.length() && isWordChar(expression.charAt(i + 1))) {
+                        parts.add(expression.substring(start, i));
+                        i++;
+                        while (i + 1 < expression.length() && isWordChar(expression.charAt(i + 1))) {
+                            i++;
+                        }
+                        start = i + 1;
+                    }
+                }
+            }
+            parts.add(expression.substring(start));
+
+            return new Clause(expression, parts.toArray(String[]::new), isShorthand(expression));
+        }
+
+        /**
+         * Adds the parameters of this clause to the result when none of them is null.
+         *
+         * @return whether the clause is part of the query
+         */
+        boolean addParams(List<?> params, int paramIndex, List<Object> result) {
+            if (paramIndex + this.paramCount > params.size()) {
+                throw new IllegalArgumentException("Not enough parameters provided for clause: " + this.expression);
+            }
+
+            for (int i = paramIndex; i < paramIndex + this.paramCount; i++) {
+                if (params.get(i) == null) {
+                    return false;
+                }
+            }
+            for (int i = paramIndex; i < paramIndex + this.paramCount; i++) {
+                result.add(params.get(i));
+            }
+            return true;
+        }
+
+        void render(StringBuilder query, QueryParamNamer paramNamer, int[] paramCounter, boolean parenthesize) {
+            if (this.shorthand) {
+                query.append(this.expression).append(" = ");
+                switch (paramNamer) {
+                    case NAMED -> query.append(paramNamer.param).append(this.expression);
+                    case NUMBERED -> query.append('?').append(paramCounter[0]++);
+                    case UNNUMBERED -> query.append(paramNamer.param);
+                }
+                return;
+            }
+
+            if (parenthesize) {
+                query.append('(');
+            }
+            switch (paramNamer) {
+                case NAMED -> query.append(this.expression);
+                case NUMBERED -> appendParts(query, "?" + paramCounter[0]++);
+                case UNNUMBERED -> appendParts(query, "?");
+            }
+            if (parenthesize) {
+                query.append(')');
+            }
+        }
+
+        private void appendParts(StringBuilder query, String param) {
+            query.append(this.parts[0]);
+            for (int i = 1; i < this.parts.length; i++) {
+                query.append(param).append(this.parts[i]);
+            }
+        }
+
+        private static boolean isShorthand(String expression) {
+            if (expression.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < expression.length(); i++) {
+                if (!isWordChar(expression.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isWordChar(char c) {
+            return c == '_' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9';
+        }
+    }
+}
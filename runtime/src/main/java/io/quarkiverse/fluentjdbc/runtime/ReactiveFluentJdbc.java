@@ -0,0 +1,188 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.query.BatchQuery;
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.Query;
+import org.codejargon.fluentjdbc.api.query.SelectQuery;
+import org.codejargon.fluentjdbc.api.query.UpdateQuery;
+import org.codejargon.fluentjdbc.api.query.UpdateResult;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+
+/**
+ * Executes FluentJdbc queries on virtual threads, or on the worker pool when virtual threads are not available, so
+ * they can be used from the event loop without <code>@Blocking</code>:
+ *
+ * <pre>
+ * &#64;GET
+ * public Uni&lt;List&lt;Fruit&gt;&gt; findAll() {
+ *     return this.reactiveJdbc.listResult(this.reactiveJdbc.query().select("select * from fruit"), fruitMapper);
+ * }
+ * </pre>
+ *
+ * The queries are built on the calling thread and executed on subscription, on the thread of the executor.
+ */
+public class ReactiveFluentJdbc {
+    private final FluentJdbc jdbc;
+    private final Executor executor;
+
+    public ReactiveFluentJdbc(FluentJdbc jdbc, Executor executor) {
+        this.jdbc = jdbc;
+        this.executor = executor;
+    }
+
+    /**
+     * @return a query of the underlying {@link FluentJdbc} to build a select, update or batch query with. Building the
+     *         query does not block.
+     */
+    public Query query() {
+        return this.jdbc.query();
+    }
+
+    public <T> Uni<List<T>> listResult(SelectQuery query, Mapper<T> mapper) {
+        return execute(() -> query.listResult(mapper));
+    }
+
+    public <T> Uni<Optional<T>> firstResult(SelectQuery query, Mapper<T> mapper) {
+        return execute(() -> query.firstResult(mapper));
+    }
+
+    public <T> Uni<T> singleResult(SelectQuery query, Mapper<T> mapper) {
+        return execute(() -> query.singleResult(mapper));
+    }
+
+    /**
+     * Streams the rows of the query. The rows are read while the subscriber requests them: the reading thread waits
+     * until there is demand, so the rows are not buffered. The result set and its connection are closed when all rows
+     * are read or when the subscription is cancelled.
+     * <p>
+     * The query is executed in a transaction, so that drivers like PostgreSQL read the rows with a cursor, in chunks of
+     * the fetch size of the query (<code>quarkus.fluentjdbc.fetch-size</code> by default). Without a transaction, they
+     * read all rows at once. So the memory does not depend on the number of rows.
+     * <p>
+     * Note that the connection and its transaction are held until the stream completes, so a slow subscriber keeps
+     * its connection.
+     */
+    public <T> Multi<T> streamResult(SelectQuery query, Mapper<T> mapper) {
+        // the select joins the transaction of this thread
+        return stream(consumer -> this.jdbc.query().transaction().inNoResult(() -> query.iterateResult(mapper, consumer)));
+    }
+
+    public Uni<UpdateResult> run(UpdateQuery query) {
+        return execute(query::run);
+    }
+
+    public Uni<List<UpdateResult>> run(BatchQuery query) {
+        return execute(query::run);
+    }
+
+    /**
+     * Executes the function in a transaction, which is committed when the function returns and rolled back when it
+     * throws, see {@link org.codejargon.fluentjdbc.api.query.Transaction#in(Supplier)}.
+     *
+     * @param function the blocking function that executes the queries of the transaction.
+     */
+    public <T> Uni<T> inTransaction(Function<Query, T> function) {
+        return execute(() -> {
+            var query = this.jdbc.query();
+            return query.transaction().in(() -> function.apply(query));
+        });
+    }
+
+    /**
+     * Executes any blocking function, e.g. with a plain connection or a {@link JsonObjectMapper}.
+     *
+     * @param function the blocking function
+     */
+    public <T> Uni<T> execute(Function<Query, T> function) {
+        return execute(() -> function.apply(this.jdbc.query()));
+    }
+
+    private <T> Uni<T> execute(Supplier<T> supplier) {
+        return Uni.createFrom().item(supplier).runSubscriptionOn(this.executor);
+    }
+
+    /**
+     * @param rows iterates the rows into the given consumer, blocking.
+     */
+    <T> Multi<T> stream(Consumer<Consumer<T>> rows) {
+        // the emitter only emits on demand, so no items are buffered
+        return Multi.createFrom().<T> emitter(emitter -> this.executor.execute(() -> {
+            var demand = new Demand<T>(emitter);
+            try {
+                rows.accept(demand);
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // when cancelled, iterating stopped with Cancelled, possibly wrapped by FluentJdbc
+                if (!emitter.isCancelled()) {
+                    emitter.fail(e);
+                }
+            }
+        }), BackPressureStrategy.ERROR);
+    }
+
+    /**
+     * Emits the rows, waiting until the subscriber requested them.
+     */
+    private static final class Demand<T> implements Consumer<T> {
+        private final MultiEmitter<? super T> emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition requested = this.lock.newCondition();
+
+        Demand(MultiEmitter<? super T> emitter) {
+            this.emitter = emitter;
+            emitter.onRequest(ignored -> signal());
+            emitter.onTermination(this::signal);
+        }
+
+        @Override
+        public void accept(T row) {
+            this.lock.lock();
+            try {
+                while (this.emitter.requested() == 0 && !this.emitter.isCancelled()) {
+                    this.requested.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the subscriber to request rows", e);
+            } finally {
+                this.lock.unlock();
+            }
+
+            if (this.emitter.isCancelled()) {
+                // stops iterating the result set
+                throw new Cancelled();
+            }
+            this.emitter.emit(row);
+        }
+
+        private void signal() {
+            this.lock.lock();
+            try {
+                this.requested.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private static final class Cancelled extends RuntimeException {
+
+        Cancelled() {
+            super(null, null, false, false);
+        }
+    }
+}
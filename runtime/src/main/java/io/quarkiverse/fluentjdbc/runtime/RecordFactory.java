@@ -0,0 +1,29 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Creates a Java Record from the current row of a {@link ResultSet} without reflection.
+ * <p>
+ * Implementations are generated at build time for records annotated with {@link MappedRecord} and are used by
+ * {@link RecordMapper}. There is no need to implement this interface yourself.
+ * </p>
+ *
+ * @param <T> a Record
+ */
+public interface RecordFactory<T extends Record> {
+
+    /**
+     * @return the names of the record components, in the order of the canonical constructor.
+     */
+    String[] parameterNames();
+
+    /**
+     * @param rs the result set positioned on the row to map
+     * @param columnIndexes the column index of each record component, in the order of the canonical constructor
+     * @return a new record
+     * @throws SQLException when a column could not be read
+     */
+    T newInstance(ResultSet rs, int[] columnIndexes) throws SQLException;
+}
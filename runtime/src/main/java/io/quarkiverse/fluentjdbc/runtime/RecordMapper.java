@@ -1,19 +1,25 @@
 package io.quarkiverse.fluentjdbc.runtime;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Parameter;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.OffsetDateTime;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.eclipse.microprofile.config.ConfigProvider;
 
+import io.quarkus.logging.Log;
 import io.quarkus.runtime.annotations.RegisterForReflection;
 
 /**
@@ -38,28 +44,87 @@ import io.quarkus.runtime.annotations.RegisterForReflection;
 @RegisterForReflection
 public class RecordMapper<T extends Record> implements Mapper<T> {
 
+    static final String STRATEGY_CONFIG = FluentJdbcRecorder.CONFIG_PREFIX + "record-mapper.strategy";
+    // bounds the plans of a mapper used with many different column lists
+    private static final int MAX_ROW_PLANS = 32;
+
+    // record factories generated at build time, see MappedRecord
+    private static final Map<Class<?>, RecordFactory<?>> RECORD_FACTORIES = new ConcurrentHashMap<>();
+    private static final MethodHandle READ_COLUMN;
+
+    static {
+        try {
+            READ_COLUMN = MethodHandles.lookup().findVirtual(ColumnReader.class, "read",
+                    MethodType.methodType(Object.class, ResultSet.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     final String columnNames;
     final Constructor<T> constructor;
+    final RecordFactory<T> recordFactory;
+    final Strategy strategy;
     final boolean dbColumnNameToCamelCase;
 
+    private final String[] parameterNames;
+    private final ColumnReader[] columnReaders;
+    // the plan of the result set that the current thread maps, so concurrent result sets do not evict each other
+    private final ThreadLocal<RowPlan> rowPlan = new ThreadLocal<>();
+    final Map<List<String>, RowPlan> rowPlansByColumns = new ConcurrentHashMap<>();
+
     public RecordMapper(Class<T> type) {
         this(type, true);
     }
 
     public RecordMapper(Class<T> type, boolean toCamelCase) {
+        this(type, toCamelCase, ConfigProvider.getConfig().getOptionalValue(STRATEGY_CONFIG, Strategy.class)
+                .orElse(Strategy.METHOD_HANDLE));
+    }
+
+    /**
+     * @param type the record type
+     * @param toCamelCase whether the database column names are converted to camel case
+     * @param strategy how the record is instantiated when no mapper was generated at build time
+     */
+    public RecordMapper(Class<T> type, boolean toCamelCase, Strategy strategy) {
         if (!type.isRecord()) {
             throw new IllegalArgumentException("Class %s is not a Record".formatted(type));
         }
 
         this.dbColumnNameToCamelCase = toCamelCase;
-        this.constructor = findConstructor(type);
+        this.strategy = strategy;
+        this.recordFactory = (RecordFactory<T>) RECORD_FACTORIES.get(type);
+
+        if (this.recordFactory != null) {
+            this.constructor = null;
+            this.parameterNames = this.recordFactory.parameterNames();
+            this.columnReaders = null;
+        } else {
+            this.constructor = findConstructor(type);
+            this.parameterNames = Arrays.stream(this.constructor.getParameters()).map(Parameter::getName)
+                    .toArray(String[]::new);
+            this.columnReaders = Arrays.stream(this.constructor.getParameterTypes()).map(ColumnReader::of)
+                    .toArray(ColumnReader[]::new);
+        }
         this.columnNames = columnNamesOfDb();
     }
 
+    static void registerRecordFactory(Class<?> recordType, RecordFactory<?> recordFactory) {
+        RECORD_FACTORIES.put(recordType, recordFactory);
+    }
+
     @Override
     public T map(ResultSet rs) throws SQLException {
         try {
-            if (this.constructor != null) {
+            if (this.recordFactory != null) {
+                return this.recordFactory.newInstance(rs, rowPlan(rs).columnIndexes);
+            }
+
+            var instantiator = rowPlan(rs).instantiator;
+            if (instantiator != null) {
+                return (T) instantiate(instantiator, rs);
+            } else if (this.constructor != null) {
                 Object[] parameters = getConstructorParameters(rs);
                 return constructor.newInstance(parameters);
             } else {
@@ -79,68 +144,144 @@ public class RecordMapper<T extends Record> implements Mapper<T> {
     }
 
     private Object[] getConstructorParameters(ResultSet rs) throws SQLException {
-        var parameterTypes = this.constructor.getParameterTypes();
-        var params = new Object[parameterTypes.length];
+        var plan = rowPlan(rs);
+        var params = new Object[this.columnReaders.length];
+
+        for (int i = 0; i < params.length; i++) {
+            params[i] = this.columnReaders[i].read(rs, plan.columnIndexes[i]);
+        }
+        return params;
+    }
+
+    /**
+     * Returns the column indexes of the constructor parameters for the given result set. These are only resolved
+     * from the metadata for the first row of a result set, and the plan of the same columns is reused.
+     */
+    private RowPlan rowPlan(ResultSet rs) throws SQLException {
+        var plan = this.rowPlan.get();
+        if (plan != null && plan.isFor(rs)) {
+            return plan;
+        }
 
         var resultSetMetaData = rs.getMetaData();
-        var columnCount = resultSetMetaData.getColumnCount();
-        var columnNameToIndex = new HashMap<String, Integer>();
+        var columns = new String[resultSetMetaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = resultSetMetaData.getColumnName(i + 1);
+        }
 
-        for (int i = 1; i <= columnCount; i++) {
-            var dbColumnName = resultSetMetaData.getColumnName(i);
+        var key = Arrays.asList(columns);
+        var shape = this.rowPlansByColumns.get(key);
+        if (shape == null) {
+            var columnIndexes = columnIndexes(columns);
+            shape = new RowPlan(null, columnIndexes, instantiator(columnIndexes));
+            if (this.rowPlansByColumns.size() < MAX_ROW_PLANS) {
+                this.rowPlansByColumns.put(key, shape);
+            }
+        }
+        plan = new RowPlan(rs, shape.columnIndexes, shape.instantiator);
+        this.rowPlan.set(plan);
+        return plan;
+    }
+
+    /**
+     * Creates a method handle <code>(ResultSet) -> Record</code> which reads each column with a typed getter and passes
+     * the values directly to the canonical constructor, so no argument array and no reflective call is needed per row.
+     *
+     * @return the method handle or <code>null</code> when the reflection strategy is used.
+     */
+    private MethodHandle instantiator(int[] columnIndexes) {
+        if (this.strategy != Strategy.METHOD_HANDLE || this.constructor == null) {
+            return null;
+        }
+
+        try {
+            var lookup = MethodHandles.lookup();
+            var parameterTypes = this.constructor.getParameterTypes();
+            var columnGetters = new MethodHandle[parameterTypes.length];
+
+            for (int i = 0; i < parameterTypes.length; i++) {
+                var getter = columnGetter(lookup, parameterTypes[i], this.columnReaders[i]);
+                columnGetters[i] = MethodHandles.insertArguments(getter, 1, columnIndexes[i])
+                        .asType(MethodType.methodType(parameterTypes[i], ResultSet.class));
+            }
+
+            var constructorHandle = MethodHandles.filterArguments(lookup.unreflectConstructor(this.constructor), 0,
+                    columnGetters);
+            // all constructor arguments are read from the same result set
+            return MethodHandles.permuteArguments(constructorHandle,
+                    MethodType.methodType(this.constructor.getDeclaringClass(), ResultSet.class), new int[parameterTypes.length])
+                    .asType(MethodType.methodType(Record.class, ResultSet.class));
+        } catch (IllegalAccessException e) {
+            Log.debugf("Using reflection to instantiate %s: %s", this.constructor.getDeclaringClass(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the typed getter of the result set for primitives, so the values are passed to the constructor without
+     *         boxing, and for strings and decimals. Other types, including the wrappers which must be checked for SQL
+     *         <code>NULL</code>, are read by their {@link ColumnReader}.
+     */
+    private static MethodHandle columnGetter(MethodHandles.Lookup lookup, Class<?> type, ColumnReader columnReader)
+            throws IllegalAccessException {
+        var getter = switch (type.getName()) {
+            case "java.lang.String" -> "getString";
+            case "java.math.BigDecimal" -> "getBigDecimal";
+            case "long" -> "getLong";
+            case "int" -> "getInt";
+            case "double" -> "getDouble";
+            case "float" -> "getFloat";
+            case "short" -> "getShort";
+            case "byte" -> "getByte";
+            case "boolean" -> "getBoolean";
+            default -> null;
+        };
+
+        if (getter == null) {
+            return READ_COLUMN.bindTo(columnReader);
+        }
+
+        try {
+            return lookup.findVirtual(ResultSet.class, getter, MethodType.methodType(type, int.class));
+        } catch (NoSuchMethodException e) {
+            return READ_COLUMN.bindTo(columnReader);
+        }
+    }
+
+    private static Record instantiate(MethodHandle instantiator, ResultSet rs) throws SQLException {
+        try {
+            return (Record) instantiator.invokeExact(rs);
+        } catch (SQLException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Record could not be instantiated", e);
+        }
+    }
+
+    private int[] columnIndexes(String[] columns) {
+        var columnNameToIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < columns.length; i++) {
             if (this.dbColumnNameToCamelCase) {
-                columnNameToIndex.put(toCamelCase(dbColumnName), i);
+                columnNameToIndex.put(toCamelCase(columns[i]), i + 1);
             } else {
-                columnNameToIndex.put(dbColumnName, i);
+                columnNameToIndex.put(columns[i], i + 1);
             }
         }
 
-        var parameterNames = this.constructor.getParameters();
-        for (int i = 0; i < parameterTypes.length; i++) {
-            var parameterName = parameterNames[i].getName();
+        var columnIndexes = new int[this.parameterNames.length];
+        for (int i = 0; i < this.parameterNames.length; i++) {
+            var parameterName = this.parameterNames[i];
             if (columnNameToIndex.containsKey(parameterName)) {
-                var columnIndex = columnNameToIndex.get(parameterName);
-
-                params[i] = switch (parameterTypes[i].getName()) {
-                    case "java.lang.String" -> rs.getString(columnIndex);
-                    case "java.lang.Long" -> rs.getLong(columnIndex);
-                    case "java.lang.Integer" -> rs.getInt(columnIndex);
-                    case "java.lang.Double" -> rs.getDouble(columnIndex);
-                    case "java.lang.Boolean" -> rs.getBoolean(columnIndex);
-                    case "double" -> rs.getDouble(columnIndex);
-                    case "int" -> rs.getInt(columnIndex);
-                    case "boolean" -> rs.getBoolean(columnIndex);
-                    case "java.math.BigDecimal" -> rs.getBigDecimal(columnIndex);
-                    case "java.time.LocalDate" -> rs.getDate(columnIndex).toLocalDate();
-                    case "java.time.LocalDateTime" -> rs.getTimestamp(columnIndex).toLocalDateTime();
-                    case "java.time.LocalTime" -> rs.getTime(columnIndex).toLocalTime();
-                    case "java.time.OffsetDateTime" -> rs.getObject(columnIndex, OffsetDateTime.class);
-                    case "java.sql.Date" -> rs.getDate(columnIndex);
-                    case "java.sql.Timestamp" -> rs.getTimestamp(columnIndex);
-                    case "java.util.Date" -> rs.getTimestamp(columnIndex);
-                    case "java.util.Calendar" -> {
-                        var calendar = Calendar.getInstance();
-                        calendar.setTime(rs.getTimestamp(columnIndex));
-                        yield calendar;
-                    }
-                    case "java.sql.Array" -> rs.getArray(columnIndex);
-                    case "java.sql.Blob" -> rs.getBlob(columnIndex);
-                    case "java.sql.Clob" -> rs.getClob(columnIndex);
-                    case "java.sql.NClob" -> rs.getNClob(columnIndex);
-                    case "java.io.InputStream" -> rs.getBinaryStream(columnIndex);
-                    case "java.io.Reader" -> rs.getCharacterStream(columnIndex);
-                    default -> rs.getObject(columnIndex);
-                };
+                columnIndexes[i] = columnNameToIndex.get(parameterName);
             } else {
                 throw new IllegalArgumentException("No matching column found for constructor parameter: " + parameterName);
             }
         }
-        return params;
+        return columnIndexes;
     }
 
     private String columnNamesOfDb() {
-        return Arrays.stream(this.constructor.getParameters())
-                .map(Parameter::getName)
+        return Arrays.stream(this.parameterNames)
                 .map(column -> {
                     if (this.dbColumnNameToCamelCase) {
                         return toSnakeCase(column);
@@ -185,4 +326,39 @@ public class RecordMapper<T extends Record> implements Mapper<T> {
         }
         return result.toString();
     }
+
+    /**
+     * The resolved column index per constructor parameter for a result set, and the method handle instantiating the
+     * record for its columns.
+     * The result set is only weakly referenced, so a cached plan never keeps a closed result set alive.
+     */
+    private static final class RowPlan {
+        final WeakReference<ResultSet> resultSet;
+        final int[] columnIndexes;
+        final MethodHandle instantiator;
+
+        RowPlan(ResultSet resultSet, int[] columnIndexes, MethodHandle instantiator) {
+            this.resultSet = resultSet != null ? new WeakReference<>(resultSet) : null;
+            this.columnIndexes = columnIndexes;
+            this.instantiator = instantiator;
+        }
+
+        boolean isFor(ResultSet rs) {
+            return this.resultSet != null && this.resultSet.get() == rs;
+        }
+    }
+
+    /**
+     * How a record is instantiated when no mapper was generated at build time.
+     */
+    public enum Strategy {
+        /**
+         * Calls the constructor with {@link Constructor#newInstance(Object...)}.
+         */
+        REFLECTION,
+        /**
+         * Calls the constructor with a {@link MethodHandle} that reads the columns with typed getters.
+         */
+        METHOD_HANDLE
+    }
 }
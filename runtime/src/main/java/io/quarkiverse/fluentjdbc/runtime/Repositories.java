@@ -0,0 +1,110 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.UpdateResult;
+
+/**
+ * Repository interfaces: the implementation of an interface with methods annotated with {@link Select},
+ * {@link Update} or {@link Batch} is generated at build time as a singleton bean. It binds the parameters and maps the
+ * rows without reflection, and the queries are parsed at build time instead of per call.
+ *
+ * <pre>
+ * public interface FruitRepository {
+ *
+ *     &#64;Select("select * from fruit where type = :type order by name")
+ *     List&lt;Fruit&gt; findByType(String type);
+ *
+ *     &#64;Update("insert into fruit(ext_id, name, type) values(:extId, :name, :type)")
+ *     Optional&lt;Long&gt; insert(Fruit fruit);
+ *
+ *     &#64;Batch("update fruit set name = :name where id = :id")
+ *     void updateNames(List&lt;Fruit&gt; fruits);
+ * }
+ * </pre>
+ *
+ * A named parameter is bound to the method parameter with that name, or else to the component with that name of a
+ * record parameter, which requires compiling with <code>-parameters</code>. Enums are bound by their name and
+ * Optionals by their value. An interface annotated with <code>@DataSource("name")</code> uses the FluentJdbc of that
+ * datasource.
+ * <p>
+ * The static methods of this class are called by the generated implementations.
+ * </p>
+ */
+public final class Repositories {
+
+    private Repositories() {
+    }
+
+    public static <T> List<T> list(FluentJdbc jdbc, String sql, Object[] params, Mapper<T> mapper) {
+        return jdbc.query().select(sql).params(params).listResult(mapper);
+    }
+
+    public static <T> Optional<T> first(FluentJdbc jdbc, String sql, Object[] params, Mapper<T> mapper) {
+        return jdbc.query().select(sql).params(params).firstResult(mapper);
+    }
+
+    public static <T> T single(FluentJdbc jdbc, String sql, Object[] params, Mapper<T> mapper) {
+        return jdbc.query().select(sql).params(params).singleResult(mapper);
+    }
+
+    public static UpdateResult update(FluentJdbc jdbc, String sql, Object[] params) {
+        return jdbc.query().update(sql).params(params).run();
+    }
+
+    /**
+     * @return the number of affected rows
+     */
+    public static long updateCount(FluentJdbc jdbc, String sql, Object[] params) {
+        return update(jdbc, sql, params).affectedRows();
+    }
+
+    /**
+     * @param keyColumns the columns of the generated key, empty for the columns chosen by the JDBC driver
+     * @return the first generated key
+     */
+    public static <K> Optional<K> updateFetchKey(FluentJdbc jdbc, String sql, Object[] params, Mapper<K> keyMapper,
+            String[] keyColumns) {
+        var update = jdbc.query().update(sql).params(params);
+        var result = keyColumns.length == 0 ? update.runFetchGenKeys(keyMapper)
+                : update.runFetchGenKeys(keyMapper, keyColumns);
+        return result.firstKey();
+    }
+
+    /**
+     * @param items an <code>Iterable</code> or a <code>Stream</code>
+     * @param binder returns the parameters of an item
+     */
+    public static List<UpdateResult> batch(FluentJdbc jdbc, String sql, Object items, Function<Object, List<?>> binder) {
+        var stream = items instanceof Stream<?> itemStream ? itemStream
+                : StreamSupport.stream(((Iterable<?>) items).spliterator(), false);
+        return jdbc.query().batch(sql).params(stream.map(binder)).run();
+    }
+
+    /**
+     * @return a mapper of the first column, which is <code>null</code> when the column is SQL <code>NULL</code>.
+     */
+    public static <T> Mapper<T> column(Class<T> type) {
+        var reader = ColumnReader.of(type);
+        return rs -> type.cast(reader.read(rs, 1));
+    }
+
+    /**
+     * @return the value to bind for a parameter: the name of an enum, the value of an Optional, or else the parameter.
+     */
+    public static Object param(Object value) {
+        if (value instanceof Optional<?> optional) {
+            return param(optional.orElse(null));
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,205 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import io.quarkiverse.fluentjdbc.runtime.FluentJdbcConfig.RoutingConfig.Balancing;
+import io.quarkus.logging.Log;
+
+/**
+ * Sends the selects that are executed outside a transaction to read replicas, and everything else to the primary
+ * datasource that it wraps.
+ * <p>
+ * A connection is only acquired when a statement is prepared: a read-only select, see
+ * {@link SqlTables#isReadOnly(String)}, on a replica, any other statement on the primary. Calls that only read the
+ * state of the connection, e.g. <code>getMetaData()</code> or <code>unwrap(..)</code>, use the connection that is
+ * already held. Any other call binds the connection to the primary, e.g. <code>setAutoCommit(false)</code> at the
+ * start of a transaction, so that all following statements are executed on the primary as well. The primary is also used in a JTA transaction, or when no
+ * replica connection can be acquired.
+ */
+final class RoutingDataSource extends DelegatingDataSource {
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final BooleanSupplier inTransaction;
+    private final AtomicInteger next = new AtomicInteger();
+
+    RoutingDataSource(DataSource primary, List<DataSource> replicas, Balancing balancing, BooleanSupplier inTransaction) {
+        super(primary);
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("No read replicas to route to");
+        }
+        this.replicas = replicas.stream().map(replica -> new Replica(replica, new AtomicInteger())).toList();
+        this.balancing = balancing;
+        this.inTransaction = inTransaction;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new RoutingConnection();
+    }
+
+    @Override
+    Connection wrap(Connection connection) {
+        // connections with credentials are not routed
+        return connection;
+    }
+
+    /**
+     * @return the number of replica connections that are currently used, by replica.
+     */
+    List<Integer> inFlight() {
+        return this.replicas.stream().map(replica -> replica.inFlight.get()).toList();
+    }
+
+    private Replica nextReplica() {
+        if (this.replicas.size() == 1) {
+            return this.replicas.get(0);
+        }
+        return switch (this.balancing) {
+            case ROUND_ROBIN -> this.replicas.get(Math.floorMod(this.next.getAndIncrement(), this.replicas.size()));
+            case LEAST_IN_FLIGHT -> this.replicas.stream()
+                    .min(Comparator.comparingInt(replica -> replica.inFlight.get()))
+                    .orElseThrow();
+        };
+    }
+
+    private record Replica(DataSource dataSource, AtomicInteger inFlight) {
+    }
+
+    private final class RoutingConnection extends DelegatingConnection {
+        private Connection primary;
+        private Connection replica;
+        private Replica replicaSource;
+        private boolean closed;
+
+        RoutingConnection() {
+            super(null);
+        }
+
+        @Override
+        Connection delegate() throws SQLException {
+            checkOpen();
+            if (this.primary == null) {
+                this.primary = RoutingDataSource.this.dataSource.getConnection();
+            }
+            return this.primary;
+        }
+
+        @Override
+        Connection delegate(String sql) throws SQLException {
+            checkOpen();
+            if (this.primary == null && SqlTables.isReadOnly(sql) && !RoutingDataSource.this.inTransaction.getAsBoolean()) {
+                var replica = replica();
+                if (replica != null) {
+                    return replica;
+                }
+            }
+            return delegate();
+        }
+
+        @Override
+        public boolean getAutoCommit() throws SQLException {
+            return held().getAutoCommit();
+        }
+
+        @Override
+        public DatabaseMetaData getMetaData() throws SQLException {
+            return held().getMetaData();
+        }
+
+        @Override
+        public boolean isReadOnly() throws SQLException {
+            return held().isReadOnly();
+        }
+
+        @Override
+        public SQLWarning getWarnings() throws SQLException {
+            return held().getWarnings();
+        }
+
+        @Override
+        public void clearWarnings() throws SQLException {
+            held().clearWarnings();
+        }
+
+        @Override
+        public boolean isValid(int timeout) throws SQLException {
+            return held().isValid(timeout);
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return held().unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return held().isWrapperFor(iface);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return this.closed;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                if (this.replica != null) {
+                    this.replicaSource.inFlight.decrementAndGet();
+                    this.replica.close();
+                }
+            } finally {
+                if (this.primary != null) {
+                    this.primary.close();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "RoutingConnection[primary=" + this.primary + ", replica=" + this.replica + "]";
+        }
+
+        /**
+         * @return the replica connection when it is the only one that is held, otherwise the primary
+         */
+        private Connection held() throws SQLException {
+            checkOpen();
+            return this.primary == null && this.replica != null ? this.replica : delegate();
+        }
+
+        private void checkOpen() throws SQLException {
+            if (this.closed) {
+                throw new SQLException("The connection is closed");
+            }
+        }
+
+        private Connection replica() {
+            if (this.replica == null) {
+                var source = nextReplica();
+                try {
+                    this.replica = source.dataSource.getConnection();
+                } catch (SQLException e) {
+                    Log.debugf(e, "FluentJdbc - could not connect to a read replica, using the primary");
+                    return null;
+                }
+                this.replicaSource = source;
+                source.inFlight.incrementAndGet();
+            }
+            return this.replica;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Writes the rows of an export into its output stream, see {@link QueryExport}. An encoder is created per export.
+ */
+public interface RowEncoder {
+
+    /**
+     * Writes the start of the export before the rows, also when there are none, e.g. a header of the column labels.
+     */
+    default void writeHeader(ResultSetMetaData metadata) throws IOException, SQLException {
+    }
+
+    /**
+     * Writes the current row of the result set.
+     */
+    void writeRow(ResultSet rs) throws IOException, SQLException;
+
+    /**
+     * Writes the end of the export, e.g. the end of an array, and flushes it. The output stream is not closed.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,26 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a repository interface that executes a select, see {@link Repositories}.
+ * <p>
+ * The method returns a <code>List</code> of rows, an <code>Optional</code> of the first row or a single row, which
+ * is a Java Record, a <code>Map&lt;String, Object&gt;</code> or the value of the first column, e.g. a
+ * <code>long</code> count.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Select {
+
+    /**
+     * @return the query, with <code>:name</code> parameters bound to the method parameters, or positional
+     *         <code>?</code> parameters bound in the order of the method parameters.
+     */
+    String value();
+}
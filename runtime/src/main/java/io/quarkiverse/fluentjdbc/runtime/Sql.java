@@ -0,0 +1,26 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a constant query, which is validated and parsed at build time, see {@link ParsedSql}. The build fails when the
+ * query is invalid, or when it does not have the expected number of parameters. The parsed query is only used through
+ * {@link ParsedSql#of(String)}, e.g. by the {@link QueryCache}.
+ * <p>
+ * Constant queries that are passed directly to the <code>select</code>, <code>update</code> and <code>batch</code>
+ * methods of a FluentJdbc <code>Query</code> or to {@link QueryCache#select(String)} are detected automatically.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface Sql {
+
+    /**
+     * @return the expected number of parameters, -1 to not check it.
+     */
+    int params() default -1;
+}
@@ -0,0 +1,129 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes a query into a fingerprint that identifies the query independent of its values, e.g. for the tags of
+ * metrics:
+ * <ul>
+ * <li>comments are removed and whitespace is collapsed,</li>
+ * <li>literals and parameters are replaced with <code>?</code> and lists of them with <code>(?)</code>,</li>
+ * <li>the query is lower-cased and truncated to {@value #MAX_LENGTH} characters.</li>
+ * </ul>
+ * <p>
+ * Example: <code>SELECT * FROM fruit WHERE id IN (1, 2, 3) AND name = :name</code> becomes
+ * <code>select * from fruit where id in (?) and name = ?</code>
+ */
+final class SqlFingerprint {
+    static final int MAX_LENGTH = 256;
+    // the number of distinct queries of which the fingerprint is cached
+    static final int MAX_CACHED = 2048;
+    private static final Pattern PARAM_LIST = Pattern.compile("\\( ?\\?(?: ?, ?\\?)+ ?\\)");
+    private static final Map<String, String> FINGERPRINTS = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+
+        var fingerprint = FINGERPRINTS.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            if (FINGERPRINTS.size() < MAX_CACHED) {
+                FINGERPRINTS.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        var result = new StringBuilder(Math.min(sql.length(), MAX_LENGTH * 2));
+        var length = sql.length();
+
+        for (int i = 0; i < length; i++) {
+            var c = sql.charAt(i);
+
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = sql.indexOf('\n', i);
+                i = i < 0 ? length : i;
+                appendSpace(result);
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = sql.indexOf("*/", i + 2);
+                i = i < 0 ? length : i + 1;
+                appendSpace(result);
+            } else if (Character.isWhitespace(c)) {
+                appendSpace(result);
+            } else if (c == '\'') {
+                i = skipLiteral(sql, i + 1);
+                result.append('?');
+            } else if (c == '?') {
+                // e.g. ?1
+                while (i + 1 < length && Character.isDigit(sql.charAt(i + 1))) {
+                    i++;
+                }
+                result.append('?');
+            } else if (c == ':' && i + 1 < length && isWordChar(sql.charAt(i + 1)) && !endsWith(result, ':')) {
+                i = skipWord(sql, i + 1);
+                result.append('?');
+            } else if (c == '$' && i + 1 < length && Character.isDigit(sql.charAt(i + 1))) {
+                i = skipWord(sql, i + 1);
+                result.append('?');
+            } else if (Character.isDigit(c) && !endsWithWordChar(result)) {
+                while (i + 1 < length && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                result.append('?');
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+
+        var fingerprint = PARAM_LIST.matcher(result.toString().strip()).replaceAll("(?)");
+        return fingerprint.length() > MAX_LENGTH ? fingerprint.substring(0, MAX_LENGTH) : fingerprint;
+    }
+
+    private static void appendSpace(StringBuilder result) {
+        if (!result.isEmpty() && result.charAt(result.length() - 1) != ' ') {
+            result.append(' ');
+        }
+    }
+
+    // '' is an escaped quote
+    private static int skipLiteral(String sql, int i) {
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWord(String sql, int i) {
+        while (i + 1 < sql.length() && isWordChar(sql.charAt(i + 1))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean endsWith(StringBuilder result, char c) {
+        return !result.isEmpty() && result.charAt(result.length() - 1) == c;
+    }
+
+    private static boolean endsWithWordChar(StringBuilder result) {
+        return !result.isEmpty() && isWordChar(result.charAt(result.length() - 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,185 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds the tables of a query, e.g. to invalidate the cached results of selects when a table was updated, see
+ * {@link QueryCache}. The query is not parsed, only its words are scanned, so the result may contain too many tables,
+ * which is safe for invalidation.
+ * <p>
+ * The names are lower-cased, without quotes and without schema.
+ */
+final class SqlTables {
+    private static final Set<String> NOT_AN_ALIAS = Set.of("where", "join", "inner", "left", "right", "full", "cross",
+            "natural", "on", "using", "group", "order", "having", "limit", "offset", "fetch", "union", "intersect",
+            "except", "window", "for", "lateral", "set", "values", "returning", "select", "default", "as");
+
+    private static final Set<String> WRITES = Set.of("insert", "update", "delete", "merge", "into", "nextval", "setval");
+    private static final Set<String> LOCKS = Set.of("update", "share", "no", "key");
+
+    private SqlTables() {
+    }
+
+    /**
+     * @return the tables after <code>from</code> and <code>join</code>, including the ones of sub queries.
+     */
+    static Set<String> selected(String sql) {
+        var words = words(sql);
+        var result = new LinkedHashSet<String>();
+
+        for (int i = 0; i < words.size() - 1; i++) {
+            var word = words.get(i);
+            if (word.equals("join")) {
+                addTable(result, words.get(i + 1));
+            } else if (word.equals("from")) {
+                // from a, b as c, d
+                var j = i + 1;
+                while (j < words.size() && addTable(result, words.get(j))) {
+                    j = skipAlias(words, j + 1);
+                    if (j >= words.size() || !words.get(j).equals(",")) {
+                        break;
+                    }
+                    j++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the table that is modified by an insert, update, delete, merge, truncate or copy, or null when unknown, e.g.
+     *         for DDL or a procedure call.
+     */
+    static String modified(String sql) {
+        var words = words(sql);
+
+        for (int i = 0; i < words.size() - 1; i++) {
+            var target = switch (words.get(i)) {
+                case "insert", "merge", "replace", "upsert" -> after(words, i, "into");
+                case "update" -> words.get(i + 1).equals("only") ? i + 2 : i + 1;
+                case "delete" -> after(words, i, "from");
+                case "truncate" -> words.get(i + 1).equals("table") ? i + 2 : i + 1;
+                case "copy" -> i + 1;
+                default -> -1;
+            };
+            if (target >= 0) {
+                return target < words.size() && isName(words.get(target)) ? name(words.get(target)) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the query only reads, i.e. a select without updates, locks, <code>into</code> or sequence
+     *         functions. Other functions that write are not detected.
+     */
+    static boolean isReadOnly(String sql) {
+        var words = words(sql);
+        if (words.isEmpty() || !words.get(0).equals("select") && !words.get(0).equals("with")) {
+            return false;
+        }
+        for (int i = 0; i < words.size(); i++) {
+            var word = words.get(i);
+            if (WRITES.contains(word)) {
+                return false;
+            }
+            // for update, for share, for no key update, for key share
+            if (word.equals("for") && i + 1 < words.size() && LOCKS.contains(words.get(i + 1))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int after(List<String> words, int i, String keyword) {
+        return words.get(i + 1).equals(keyword) ? i + 2 : i + 1;
+    }
+
+    private static boolean addTable(Set<String> result, String word) {
+        if (!isName(word)) {
+            // e.g. a sub query
+            return false;
+        }
+        result.add(name(word));
+        return true;
+    }
+
+    private static int skipAlias(List<String> words, int i) {
+        if (i < words.size() && words.get(i).equals("as")) {
+            i++;
+        }
+        if (i < words.size() && isName(words.get(i)) && !NOT_AN_ALIAS.contains(words.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isName(String word) {
+        var c = word.charAt(0);
+        return isQuote(c) || c == '_' || Character.isLetter(c);
+    }
+
+    private static String name(String word) {
+        var name = word.substring(word.lastIndexOf('.') + 1);
+        return name.replace("\"", "").replace("`", "");
+    }
+
+    /**
+     * @return the lower-cased words, quoted names and punctuation of the query, without literals and comments.
+     */
+    static List<String> words(String sql) {
+        var result = new ArrayList<String>();
+        var length = sql.length();
+
+        for (int i = 0; i < length; i++) {
+            var c = sql.charAt(i);
+
+            if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                i = sql.indexOf('\n', i);
+                i = i < 0 ? length : i;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                i = sql.indexOf("*/", i + 2);
+                i = i < 0 ? length : i + 1;
+            } else if (c == '\'') {
+                i = sql.indexOf('\'', i + 1);
+                i = i < 0 ? length : i;
+            } else if (isWordChar(c) || isQuote(c)) {
+                // e.g. schema."table"
+                var start = i;
+                i = endOfName(sql, i);
+                while (i + 2 < length && sql.charAt(i + 1) == '.'
+                        && (isWordChar(sql.charAt(i + 2)) || isQuote(sql.charAt(i + 2)))) {
+                    i = endOfName(sql, i + 2);
+                }
+                result.add(sql.substring(start, i + 1).toLowerCase(Locale.ROOT));
+            } else if (c == ',' || c == '(' || c == ')' || c == ';') {
+                result.add(String.valueOf(c));
+            }
+        }
+        return result;
+    }
+
+    private static int endOfName(String sql, int i) {
+        var c = sql.charAt(i);
+        if (isQuote(c)) {
+            var end = sql.indexOf(c, i + 1);
+            return end < 0 ? sql.length() - 1 : end;
+        }
+        while (i + 1 < sql.length() && isWordChar(sql.charAt(i + 1))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '`';
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || c == '$' || Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,338 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import io.agroal.api.AgroalPoolInterceptor;
+import io.quarkiverse.fluentjdbc.runtime.DelegatingStatement.Execution;
+import io.quarkiverse.fluentjdbc.runtime.DelegatingStatement.Interceptor;
+import io.quarkus.logging.Log;
+
+/**
+ * Keeps the prepared statements of each physical connection of a pool open, so that a query that is executed again on
+ * the same connection is not prepared again, e.g. by the database server. The least recently used statements are
+ * closed when a connection has more than the maximum number of statements.
+ * <p>
+ * The statements are prepared on the physical connection, as a pool may close the statements of its connections when
+ * they are returned. A closed statement is returned to the cache with its parameters and batch cleared. The caches of
+ * the connections are removed by the {@link #interceptor()} of the pool when it closes them.
+ */
+final class StatementCachingDataSource extends DelegatingDataSource {
+    private final int size;
+    private final List<StatementObserver> observers;
+    private final Map<Connection, Statements> caches = new ConcurrentHashMap<>();
+
+    StatementCachingDataSource(DataSource dataSource, int size, List<StatementObserver> observers) {
+        super(dataSource);
+        this.size = size;
+        this.observers = List.copyOf(observers);
+    }
+
+    /**
+     * @return the interceptor that removes the cache of a connection when the pool closes it.
+     */
+    AgroalPoolInterceptor interceptor() {
+        return new AgroalPoolInterceptor() {
+            @Override
+            public void onConnectionDestroy(Connection connection) {
+                try {
+                    var statements = StatementCachingDataSource.this.caches.remove(connection.unwrap(Connection.class));
+                    if (statements != null) {
+                        statements.closeAll();
+                    }
+                } catch (SQLException e) {
+                    Log.debugf(e, "FluentJdbc - could not remove the statement cache of %s", connection);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the number of cached statements of all connections.
+     */
+    int cachedStatements() {
+        return this.caches.values().stream().mapToInt(Statements::size).sum();
+    }
+
+    @Override
+    Connection wrap(Connection connection) throws SQLException {
+        var physical = connection.unwrap(Connection.class);
+        var statements = this.caches.computeIfAbsent(physical, ignored -> new Statements());
+        return new CachedConnection(connection, physical, statements);
+    }
+
+    private void publish(boolean hit) {
+        for (var observer : this.observers) {
+            try {
+                observer.onStatementCache(hit);
+            } catch (RuntimeException e) {
+                Log.warnf(e, "FluentJdbc - statement observer %s failed", observer.getClass().getName());
+            }
+        }
+    }
+
+    private static void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            Log.debugf(e, "FluentJdbc - could not close a cached statement");
+        }
+    }
+
+    /**
+     * The query and the options of a prepareStatement overload, e.g. the generated keys.
+     */
+    private record Key(String sql, String overload, List<?> options) {
+    }
+
+    /**
+     * The idle statements of a physical connection, by least recent use.
+     */
+    private final class Statements {
+        private final LinkedHashMap<Key, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+                if (size() <= StatementCachingDataSource.this.size) {
+                    return false;
+                }
+                close(eldest.getValue());
+                return true;
+            }
+        };
+
+        synchronized PreparedStatement take(Key key) {
+            return this.statements.remove(key);
+        }
+
+        void release(Key key, PreparedStatement statement) {
+            synchronized (this) {
+                if (!this.statements.containsKey(key)) {
+                    this.statements.put(key, statement);
+                    return;
+                }
+            }
+            // the same query was prepared twice on this connection
+            close(statement);
+        }
+
+        synchronized int size() {
+            return this.statements.size();
+        }
+
+        synchronized void closeAll() {
+            this.statements.values().forEach(StatementCachingDataSource::close);
+            this.statements.clear();
+        }
+    }
+
+    private final class CachedConnection extends DelegatingConnection {
+        private final Connection physical;
+        private final Statements statements;
+        private final List<CachedStatement> open = new ArrayList<>();
+
+        CachedConnection(Connection connection, Connection physical, Statements statements) {
+            super(connection);
+            this.physical = physical;
+            this.statements = statements;
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return prepare(new Key(sql, "", List.of()), () -> this.physical.prepareStatement(sql));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+                throws SQLException {
+            return prepare(new Key(sql, "resultSet", List.of(resultSetType, resultSetConcurrency)),
+                    () -> this.physical.prepareStatement(sql, resultSetType, resultSetConcurrency));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                int resultSetHoldability) throws SQLException {
+            return prepare(new Key(sql, "resultSet", List.of(resultSetType, resultSetConcurrency, resultSetHoldability)),
+                    () -> this.physical.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            return prepare(new Key(sql, "autoGeneratedKeys", List.of(autoGeneratedKeys)),
+                    () -> this.physical.prepareStatement(sql, autoGeneratedKeys));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+            return prepare(new Key(sql, "columnIndexes", Arrays.stream(columnIndexes).boxed().toList()),
+                    () -> this.physical.prepareStatement(sql, columnIndexes));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+            return prepare(new Key(sql, "columnNames", List.of(columnNames)),
+                    () -> this.physical.prepareStatement(sql, columnNames));
+        }
+
+        @Override
+        public void close() throws SQLException {
+            // the statements that were not closed are returned to the cache as well
+            for (var statement : List.copyOf(this.open)) {
+                statement.release();
+            }
+            this.connection.close();
+        }
+
+        private PreparedStatement prepare(Key key, Execution<PreparedStatement> prepare) throws SQLException {
+            var statement = this.statements.take(key);
+            if (statement != null && statement.isClosed()) {
+                statement = null;
+            }
+            publish(statement != null);
+            if (statement == null) {
+                statement = prepare.execute();
+            }
+
+            var cached = new CachedStatement(this, key, statement);
+            this.open.add(cached);
+            return cached;
+        }
+    }
+
+    private static final class CachedStatement extends DelegatingPreparedStatement<PreparedStatement> {
+        private final CachedConnection owner;
+        private final Key key;
+        private final int fetchSize;
+        private boolean closed;
+        // whether a property was changed that is reset when the statement is returned to the cache
+        private boolean changed;
+        // whether a property was changed that cannot be reset
+        private boolean reusable = true;
+
+        CachedStatement(CachedConnection owner, Key key, PreparedStatement statement) throws SQLException {
+            super(statement, owner, Interceptor.NONE);
+            this.owner = owner;
+            this.key = key;
+            this.fetchSize = statement.getFetchSize();
+        }
+
+        @Override
+        PreparedStatement delegate() throws SQLException {
+            if (this.closed) {
+                throw new SQLException("The statement is closed");
+            }
+            return this.statement;
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return this.closed || this.statement.isClosed();
+        }
+
+        @Override
+        public void setMaxRows(int max) throws SQLException {
+            this.changed = true;
+            super.setMaxRows(max);
+        }
+
+        @Override
+        public void setLargeMaxRows(long max) throws SQLException {
+            this.changed = true;
+            super.setLargeMaxRows(max);
+        }
+
+        @Override
+        public void setQueryTimeout(int seconds) throws SQLException {
+            this.changed = true;
+            super.setQueryTimeout(seconds);
+        }
+
+        @Override
+        public void setFetchSize(int rows) throws SQLException {
+            this.changed = true;
+            super.setFetchSize(rows);
+        }
+
+        @Override
+        public void setFetchDirection(int direction) throws SQLException {
+            this.changed = true;
+            super.setFetchDirection(direction);
+        }
+
+        @Override
+        public void setMaxFieldSize(int max) throws SQLException {
+            this.changed = true;
+            super.setMaxFieldSize(max);
+        }
+
+        @Override
+        public void setCursorName(String name) throws SQLException {
+            this.reusable = false;
+            super.setCursorName(name);
+        }
+
+        @Override
+        public void setEscapeProcessing(boolean enable) throws SQLException {
+            this.reusable = false;
+            super.setEscapeProcessing(enable);
+        }
+
+        @Override
+        public void setPoolable(boolean poolable) throws SQLException {
+            this.reusable = false;
+            super.setPoolable(poolable);
+        }
+
+        @Override
+        public void closeOnCompletion() throws SQLException {
+            this.reusable = false;
+            super.closeOnCompletion();
+        }
+
+        void release() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.owner.open.remove(this);
+
+            if (!this.reusable) {
+                StatementCachingDataSource.close(this.statement);
+                return;
+            }
+            try {
+                if (this.statement.isClosed()) {
+                    return;
+                }
+                this.statement.clearParameters();
+                this.statement.clearBatch();
+                this.statement.clearWarnings();
+                if (this.changed) {
+                    this.statement.setMaxRows(0);
+                    this.statement.setQueryTimeout(0);
+                    this.statement.setFetchSize(this.fetchSize);
+                    this.statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+                    this.statement.setMaxFieldSize(0);
+                }
+            } catch (SQLException e) {
+                StatementCachingDataSource.close(this.statement);
+                return;
+            }
+            this.owner.statements.release(this.key, this.statement);
+        }
+    }
+}
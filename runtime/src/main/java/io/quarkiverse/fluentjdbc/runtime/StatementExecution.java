@@ -0,0 +1,37 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.SQLException;
+
+/**
+ * A statement that was executed by FluentJdbc, see {@link StatementObserver}.
+ *
+ * @param sql the query
+ * @param type the type of the statement
+ * @param startNanos the {@link System#nanoTime()} at which the statement was executed
+ * @param executionNanos the execution time of the statement in nanoseconds, excluding reading the result set
+ * @param fetchNanos the time in nanoseconds spent fetching the rows of the result set, excluding mapping them
+ * @param rows the number of rows that were read or updated, or -1 when unknown
+ * @param fetchSize the fetch size of a select, 0 when this is not a select or when the driver decides
+ * @param batchSize the number of statements of a batch, 0 when this is not a batch
+ * @param error the error, or null when the statement succeeded
+ */
+public record StatementExecution(String sql, Type type, long startNanos, long executionNanos, long fetchNanos, long rows,
+        int fetchSize, int batchSize, SQLException error) {
+
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    /**
+     * @return the query without its values, which can be used to group the executions of a query.
+     */
+    public String fingerprint() {
+        return SqlFingerprint.of(this.sql);
+    }
+
+    public enum Type {
+        SELECT,
+        UPDATE,
+        BATCH
+    }
+}
@@ -0,0 +1,46 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.sql.SQLException;
+
+/**
+ * Observes the statements that are executed by FluentJdbc, e.g. to record metrics. All beans of this type are notified.
+ * <p>
+ * Unlike the {@link org.codejargon.fluentjdbc.api.query.listen.AfterQueryListener}, which can be configured once, any
+ * number of observers can be registered. They are called on the thread that executes the statement, so they should not
+ * block.
+ */
+public interface StatementObserver {
+
+    /**
+     * Called after a statement was executed. For a select, this is called when its result set is closed, so that the
+     * number of rows is known.
+     *
+     * @param execution the executed statement
+     */
+    void onStatement(StatementExecution execution);
+
+    /**
+     * Called when a transaction begins, i.e. when auto-commit is disabled on a connection, e.g. by
+     * <code>jdbc.transaction().in(...)</code>. The statements of the transaction are executed on the same thread.
+     */
+    default void onTransactionBegin() {
+    }
+
+    /**
+     * Called when the transaction that began on this thread is committed or rolled back. A transaction of which the
+     * connection is closed without a commit is rolled back.
+     *
+     * @param committed whether the transaction was committed
+     * @param error the error of the commit or rollback, or null when it succeeded
+     */
+    default void onTransactionEnd(boolean committed, SQLException error) {
+    }
+
+    /**
+     * Called when FluentJdbc prepares a statement and <code>quarkus.fluentjdbc.statement-cache.size</code> is set.
+     *
+     * @param hit whether a cached statement of the connection was reused
+     */
+    default void onStatementCache(boolean hit) {
+    }
+}
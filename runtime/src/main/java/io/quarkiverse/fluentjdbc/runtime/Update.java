@@ -0,0 +1,31 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a repository interface that executes an insert, update or delete, see {@link Repositories}.
+ * <p>
+ * The method returns <code>void</code>, the number of affected rows as a <code>long</code> or <code>int</code>, the
+ * <code>UpdateResult</code>, or an <code>Optional</code> of the generated key.
+ * </p>
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Update {
+
+    /**
+     * @return the statement, with <code>:name</code> parameters bound to the method parameters, or positional
+     *         <code>?</code> parameters bound in the order of the method parameters.
+     */
+    String value();
+
+    /**
+     * @return the columns of the generated key, when the method returns an <code>Optional</code> of it. Default is
+     *         the columns chosen by the JDBC driver.
+     */
+    String[] keyColumns() default {};
+}
@@ -0,0 +1,234 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.query.BatchQuery;
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.codejargon.fluentjdbc.api.query.UpdateQuery;
+import org.codejargon.fluentjdbc.api.query.UpdateResult;
+import org.codejargon.fluentjdbc.api.query.UpdateResultGenKeys;
+
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+/**
+ * Executes the single-row updates of concurrent callers with the same query as one batch, e.g. the inserts of an
+ * ingest endpoint, so that they share a round trip and a commit:
+ *
+ * <pre>
+ * var id = this.writeBatcher.updateFetchGenKeys(INSERT_FRUIT, List.of(name, type), Mappers.singleLong())
+ *         .toCompletableFuture().join()
+ *         .firstKey();
+ * </pre>
+ *
+ * An update waits at most <code>quarkus.fluentjdbc.write-batcher.max-delay</code> for others, or until
+ * <code>max-rows</code> updates of its query are pending. Each caller gets its own result. The batch is executed in a
+ * transaction; when it fails, its updates are executed one by one, so only the failing updates fail.
+ * <p>
+ * Note that the updates are executed on another thread, so they do not join the transaction of the caller.
+ * <p>
+ * This bean is registered when <code>quarkus.fluentjdbc.write-batcher.enabled</code> is true.
+ */
+public class WriteBatcher {
+    private final FluentJdbc jdbc;
+    private final Duration maxDelay;
+    private final int maxRows;
+    private final ScheduledExecutorService executor;
+    private final Map<Key, Group<?>> groups = new ConcurrentHashMap<>();
+
+    @Inject
+    public WriteBatcher(FluentJdbc jdbc, FluentJdbcConfig config) {
+        this(jdbc, config.writeBatcher().maxDelay(), config.writeBatcher().maxRows().orElse(config.batchSize()),
+                Infrastructure.getDefaultWorkerPool());
+    }
+
+    WriteBatcher(FluentJdbc jdbc, Duration maxDelay, int maxRows, ScheduledExecutorService executor) {
+        this.jdbc = jdbc;
+        this.maxDelay = maxDelay;
+        this.maxRows = maxRows;
+        this.executor = executor;
+    }
+
+    public CompletionStage<UpdateResult> update(String sql, Object... params) {
+        return update(sql, Arrays.asList(params));
+    }
+
+    /**
+     * @return the result of this update, completed when its batch was executed.
+     */
+    public CompletionStage<UpdateResult> update(String sql, List<?> params) {
+        return submit(new Key(sql, null), params, BatchQuery::run, UpdateQuery::run);
+    }
+
+    /**
+     * @return the result of this update with its generated keys, completed when its batch was executed.
+     */
+    public <K> CompletionStage<UpdateResultGenKeys<K>> updateFetchGenKeys(String sql, List<?> params, Mapper<K> keyMapper) {
+        return submit(new Key(sql, keyMapper), params, batch -> batch.runFetchGenKeys(keyMapper),
+                update -> update.runFetchGenKeys(keyMapper));
+    }
+
+    /**
+     * Executes the pending updates now, on the calling thread.
+     */
+    @PreDestroy
+    public void flush() {
+        this.groups.values().forEach(this::flush);
+    }
+
+    private <R> void flush(Group<R> group) {
+        execute(group, group.take());
+    }
+
+    /**
+     * Executes the pending updates of a group when its delay expired, or removes the group when it has none, so that
+     * the groups of queries that are no longer executed do not accumulate.
+     */
+    private <R> void expire(Group<R> group) {
+        var updates = group.expire();
+        if (updates == null) {
+            this.groups.remove(group.key, group);
+            return;
+        }
+        execute(group, updates);
+    }
+
+    /**
+     * @return the number of queries with a group of updates.
+     */
+    int groups() {
+        return this.groups.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> CompletionStage<R> submit(Key key, List<?> params, Function<BatchQuery, List<R>> batch,
+            Function<UpdateQuery, R> single) {
+        var group = (Group<R>) this.groups.computeIfAbsent(key, ignored -> new Group<>(key, batch, single));
+        var update = new Update<R>(new ArrayList<>(params), new CompletableFuture<>());
+
+        var full = group.add(update);
+        if (full != null) {
+            this.executor.execute(() -> execute(group, full));
+        }
+        return update.result;
+    }
+
+    private <R> void execute(Group<R> group, List<Update<R>> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        if (updates.size() == 1) {
+            executeSingle(group, updates.get(0));
+            return;
+        }
+
+        List<R> results;
+        try {
+            results = runBatch(group, updates.stream().<List<?>> map(Update::params).toList());
+        } catch (RuntimeException e) {
+            // the transaction was rolled back, so the updates are retried one by one to isolate the failing ones
+            Log.debugf(e, "FluentJdbc - batch of %d updates failed, executing them one by one: %s", updates.size(),
+                    group.key.sql);
+            updates.forEach(update -> executeSingle(group, update));
+            return;
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            updates.get(i).result.complete(results.get(i));
+        }
+    }
+
+    private <R> void executeSingle(Group<R> group, Update<R> update) {
+        try {
+            update.result.complete(runSingle(group, update.params));
+        } catch (RuntimeException e) {
+            update.result.completeExceptionally(e);
+        }
+    }
+
+    <R> List<R> runBatch(Group<R> group, List<List<?>> params) {
+        return this.jdbc.query().transaction()
+                .in(() -> group.batch.apply(this.jdbc.query().batch(group.key.sql).params(params.stream())));
+    }
+
+    <R> R runSingle(Group<R> group, List<?> params) {
+        return group.single.apply(this.jdbc.query().update(group.key.sql).params(params));
+    }
+
+    /**
+     * The query, and the mapper of the generated keys, if any.
+     */
+    private record Key(String sql, Mapper<?> keyMapper) {
+    }
+
+    private record Update<R>(List<?> params, CompletableFuture<R> result) {
+    }
+
+    /**
+     * The pending updates of a query. While it has a timer, the timer fires at least every max delay.
+     */
+    final class Group<R> {
+        private final Key key;
+        private final Function<BatchQuery, List<R>> batch;
+        private final Function<UpdateQuery, R> single;
+        private List<Update<R>> pending = new ArrayList<>();
+        private boolean scheduled;
+
+        Group(Key key, Function<BatchQuery, List<R>> batch, Function<UpdateQuery, R> single) {
+            this.key = key;
+            this.batch = batch;
+            this.single = single;
+        }
+
+        /**
+         * @return the pending updates when the maximum number was reached, to execute them now.
+         */
+        synchronized List<Update<R>> add(Update<R> update) {
+            this.pending.add(update);
+            if (this.pending.size() >= WriteBatcher.this.maxRows) {
+                return take();
+            }
+            if (!this.scheduled) {
+                this.scheduled = true;
+                schedule();
+            }
+            return null;
+        }
+
+        synchronized List<Update<R>> take() {
+            var result = this.pending;
+            this.pending = new ArrayList<>();
+            return result;
+        }
+
+        /**
+         * @return the pending updates, or null when there are none and the timer stops.
+         */
+        synchronized List<Update<R>> expire() {
+            if (this.pending.isEmpty()) {
+                this.scheduled = false;
+                return null;
+            }
+            schedule();
+            return take();
+        }
+
+        private void schedule() {
+            WriteBatcher.this.executor.schedule(() -> WriteBatcher.this.expire(this),
+                    WriteBatcher.this.maxDelay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
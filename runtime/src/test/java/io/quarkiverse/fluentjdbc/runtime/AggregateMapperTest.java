@@ -0,0 +1,96 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codejargon.fluentjdbc.api.FluentJdbc;
+import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AggregateMapperTest {
+    private static final String SELECT = """
+            select fa.id, fa.name, fr.name fruit, ff.amount
+            from farmer fa
+            left join fruit_farmer ff on ff.farmer_id = fa.id
+            left join fruit fr on ff.fruit_id = fr.id
+            """;
+
+    static final AggregateMapper<Farmer, Harvest, FarmerHarvest> FARMER_HARVESTS = AggregateMapper
+            .of("id", rs -> new Farmer(rs.getLong("id"), rs.getString("name")),
+                    rs -> new Harvest(rs.getString("fruit"), rs.getLong("amount")), FarmerHarvest::new)
+            .childKey("fruit");
+
+    Connection connection;
+    FluentJdbc jdbc;
+
+    @BeforeEach
+    void init() throws SQLException {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:aggregate-mapper;DB_CLOSE_DELAY=-1");
+        this.connection = dataSource.getConnection();
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("create table farmer(id bigint primary key, name varchar(255))");
+            stmt.execute("create table fruit(id bigint primary key, name varchar(255))");
+            stmt.execute("create table fruit_farmer(farmer_id bigint, fruit_id bigint, amount bigint)");
+            stmt.execute("insert into farmer values (1, 'Anna'), (2, 'Ben'), (3, 'Carl')");
+            stmt.execute("insert into fruit values (1, 'apple'), (2, 'pear')");
+            stmt.execute("insert into fruit_farmer values (1, 1, 10), (2, 2, 20), (1, 2, 30)");
+        }
+        this.jdbc = new FluentJdbcBuilder().connectionProvider(dataSource).build();
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("drop all objects");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void list() {
+        // the rows of a farmer are not consecutive
+        var farmers = FARMER_HARVESTS.list(this.jdbc.query().select(SELECT + " order by ff.amount nulls last"));
+
+        assertThat(farmers).containsExactly(
+                new FarmerHarvest(new Farmer(1, "Anna"), List.of(new Harvest("apple", 10), new Harvest("pear", 30))),
+                new FarmerHarvest(new Farmer(2, "Ben"), List.of(new Harvest("pear", 20))),
+                new FarmerHarvest(new Farmer(3, "Carl"), List.of()));
+    }
+
+    @Test
+    void iterate() {
+        var farmers = new ArrayList<FarmerHarvest>();
+        var count = FARMER_HARVESTS.iterate(this.jdbc.query().select(SELECT + " order by fa.id, ff.amount"), farmers::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(farmers).extracting(farmer -> farmer.farmer().name()).containsExactly("Anna", "Ben", "Carl");
+        assertThat(farmers.get(0).harvests()).containsExactly(new Harvest("apple", 10), new Harvest("pear", 30));
+        assertThat(farmers.get(2).harvests()).isEmpty();
+    }
+
+    @Test
+    void iterateWithoutRows() {
+        var count = FARMER_HARVESTS.iterate(this.jdbc.query().select(SELECT + " where fa.id < 0"), farmer -> {
+            throw new AssertionError(farmer);
+        });
+
+        assertThat(count).isZero();
+    }
+
+    record Farmer(long id, String name) {
+    }
+
+    record Harvest(String fruit, long amount) {
+    }
+
+    record FarmerHarvest(Farmer farmer, List<Harvest> harvests) {
+    }
+}
@@ -0,0 +1,51 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class BulkInsertTest {
+
+    enum Type {
+        APPLE
+    }
+
+    record Fruit(String name, Type type) {
+    }
+
+    @Test
+    void insertSql() {
+        var insert = new BulkInsert("fruit", "name", "type");
+
+        assertThat(insert.insertSql(1)).isEqualTo("insert into fruit(name,type) values (?,?)");
+        assertThat(insert.insertSql(3)).isEqualTo("insert into fruit(name,type) values (?,?),(?,?),(?,?)");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void values() {
+        assertThat((List<Object>) BulkInsert.values(List.of("a", 1))).containsExactly("a", 1);
+        assertThat((List<Object>) BulkInsert.values(new Fruit("McIntosh", Type.APPLE))).containsExactly("McIntosh", "APPLE");
+    }
+
+    @Test
+    void writeCsvRows() throws IOException {
+        var uuid = UUID.randomUUID();
+        var writer = new StringWriter();
+
+        PgCopy.writeRow(writer, Arrays.asList("say \"hi\", bye", null, "", 1.5, uuid, Type.APPLE));
+        PgCopy.writeRow(writer, Arrays.asList(new byte[] { 1, (byte) 0xff }, List.of("a\"b", "c\\d"),
+                new Integer[] { 1, null }));
+
+        assertThat(writer.toString()).isEqualTo("""
+                "say ""hi"", bye",,"","1.5","%s","APPLE"
+                "\\x01ff","{""a\\""b"",""c\\\\d""}","{""1"",NULL}"
+                """.formatted(uuid));
+    }
+}
@@ -0,0 +1,120 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonObject;
+
+class ColumnarResultTest {
+    private static final String SELECT = "select farmer, fruit, amount, weight, harvested, boxes from report order by id";
+
+    Connection connection;
+
+    @BeforeEach
+    void init() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:columnar-result");
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("""
+                    create table report(id int primary key, farmer varchar(255), fruit varchar(255), amount bigint,
+                    weight decimal(10, 2), harvested date, boxes numeric(10))""");
+            stmt.execute("""
+                    insert into report values (1, 'Anna', 'apple', 10, 1.5, date '2024-09-01', 1),
+                    (2, 'Anna', 'pear', null, 2.25, null, null),
+                    (3, null, 'apple', 30, null, date '2024-09-03', 3)""");
+            stmt.execute("insert into report select x + 3, 'Ben', 'plum', x, x, null, x from system_range(1, 100)");
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("drop table report");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void read() throws SQLException {
+        var result = read(SELECT);
+
+        assertThat(result.rowCount()).isEqualTo(103);
+        assertThat(result.columns()).extracting(ColumnarResult.Column::label)
+                .containsExactly("FARMER", "FRUIT", "AMOUNT", "WEIGHT", "HARVESTED", "BOXES");
+
+        var farmers = (ColumnarResult.StringColumn) result.column("farmer");
+        assertThat(farmers.dictionary()).containsExactly("Anna", "Ben");
+        assertThat(farmers.codes()).hasSize(103).startsWith(0, 0, -1, 1);
+        assertThat(farmers.get(2)).isNull();
+        assertThat(farmers.nullCount()).isEqualTo(1);
+
+        var amounts = (ColumnarResult.LongColumn) result.column(2);
+        assertThat(amounts.values()).hasSize(103).startsWith(10, 0, 30, 1).endsWith(100);
+        assertThat(amounts.isNull(1)).isTrue();
+        assertThat(amounts.isNull(0)).isFalse();
+        assertThat(amounts.isNull(102)).isFalse();
+        assertThat(amounts.get(1)).isNull();
+
+        // decimals keep their precision
+        var weights = (ColumnarResult.ObjectColumn) result.column(3);
+        assertThat(weights.get(0)).isEqualTo(new BigDecimal("1.50"));
+        assertThat(weights.isNull(2)).isTrue();
+
+        var boxes = (ColumnarResult.LongColumn) result.column(5);
+        assertThat(boxes.values()).startsWith(1, 0, 3, 1).endsWith(100);
+        assertThat(boxes.isNull(1)).isTrue();
+
+        assertThat(result.column(4)).isInstanceOf(ColumnarResult.ObjectColumn.class);
+        assertThat(result.column(4).get(0)).isEqualTo(java.sql.Date.valueOf(LocalDate.of(2024, 9, 1)));
+        assertThat(result.column(4).nullCount()).isEqualTo(101);
+
+        assertThatThrownBy(() -> result.column("price")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readDecimalsAsDoubles() throws SQLException {
+        try (var stmt = this.connection.createStatement(); var rs = stmt.executeQuery(SELECT)) {
+            var result = ColumnarResult.read(rs, true);
+
+            var weights = (ColumnarResult.DoubleColumn) result.column("weight");
+            assertThat(weights.values()).startsWith(1.5, 2.25, 0.0);
+            assertThat(weights.isNull(2)).isTrue();
+            assertThat(result.column("boxes")).isInstanceOf(ColumnarResult.LongColumn.class);
+        }
+    }
+
+    @Test
+    void writeJson() throws SQLException {
+        var out = new ByteArrayOutputStream();
+        read(SELECT + " limit 3").writeJson(out);
+
+        assertThat(new JsonObject(out.toString())).isEqualTo(new JsonObject("""
+                {"FARMER": ["Anna", "Anna", null], "FRUIT": ["apple", "pear", "apple"], "AMOUNT": [10, null, 30],
+                "WEIGHT": [1.5, 2.25, null], "HARVESTED": ["2024-09-01", null, "2024-09-03"], "BOXES": [1, null, 3]}"""));
+    }
+
+    @Test
+    void readWithoutRows() throws SQLException {
+        var result = read(SELECT + " limit 0");
+
+        assertThat(result.rowCount()).isZero();
+        assertThat(result.columns()).hasSize(6);
+        assertThat(result.toBuffer().toJsonObject().getJsonArray("AMOUNT")).isEmpty();
+    }
+
+    private ColumnarResult read(String sql) throws SQLException {
+        try (var stmt = this.connection.createStatement(); var rs = stmt.executeQuery(sql)) {
+            return ColumnarResult.read(rs);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+class DynamicQueryTest {
+    private static final String[] SELECT_CLAUSES = { "name", " lower(type) = lower(:type) ", "calories > :cal",
+            "fiber between :min and :max", "id" };
+    private static final String[] UPDATE_CLAUSES = { "name", "type", "calories" };
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', ignoreLeadingAndTrailingWhitespace = false, value = {
+            "NAMED| where name = :name and (calories > :cal) and (fiber between :min and :max) and id = :id",
+            "NUMBERED| where name = ?1 and (calories > ?2) and (fiber between ?3 and ?3) and id = ?4",
+            "UNNUMBERED| where name = ? and (calories > ?) and (fiber between ? and ?) and id = ?" })
+    void select(QueryParamNamer namer, String query) {
+        var result = new DynamicQuery().selectClauses(SELECT_CLAUSES).paramNamer(namer).params("apple", null, 10, 1, 2, 5L)
+                .build();
+
+        assertThat(result.query()).isEqualTo(query);
+        assertThat(result.parameters()).containsExactly("apple", 10, 1, 2, 5L);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "NAMED|SET name = :name, calories = :calories WHERE id = :id",
+            "NUMBERED|SET name = ?1, calories = ?2 WHERE id = ?3",
+            "UNNUMBERED|SET name = ?, calories = ? WHERE id = ?" })
+    void update(QueryParamNamer namer, String query) {
+        var result = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").paramNamer(namer).params("apple", null, 10, 1L)
+                .build();
+
+        assertThat(result.query()).isEqualTo(query);
+        assertThat(result.parameters()).containsExactly("apple", 10, 1L);
+    }
+
+    @Test
+    void manyClauses() {
+        var clauses = IntStream.range(0, 100).mapToObj("c%d"::formatted).toArray(String[]::new);
+        var params = IntStream.range(0, 100).mapToObj(i -> i % 2 == 0 ? null : i).toArray();
+
+        var result = new DynamicQuery().selectClauses(clauses).params(params).build();
+
+        assertThat(result.query()).startsWith(" where c1 = ? and c3 = ?").endsWith("c99 = ?");
+        assertThat(result.parameters()).hasSize(50);
+        assertThatThrownBy(() -> new DynamicQuery().selectClauses(clauses).template())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(QueryParamNamer.class)
+    void selectTemplate(QueryParamNamer namer) {
+        var template = new DynamicQuery().selectClauses(SELECT_CLAUSES).paramNamer(namer).template();
+
+        for (var params : new Object[][] {
+                { "apple", "fruit", 10, 1, 2, 5L },
+                { null, "fruit", null, 1, 2, null },
+                { "apple", null, 10, null, 2, 5L },
+                { null, null, null, null, null, null },
+                { "apple", "fruit", 10, 1, 2, 5L, "extra" } }) {
+            var expected = new DynamicQuery().selectClauses(SELECT_CLAUSES).paramNamer(namer).params(params).build();
+
+            assertThat(template.build(params)).isEqualTo(expected);
+            // the cached query
+            assertThat(template.build(params)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void selectTemplateWithOperator() {
+        var template = new DynamicQuery().selectClauses(SELECT_CLAUSES).operator(QueryOperator.OR).template();
+
+        var result = template.build("apple", null, 10, 1, 2, null);
+
+        assertThat(result.query()).isEqualTo(" where name = ? or (calories > ?) or (fiber between ? and ?)");
+        assertThat(result.parameters()).containsExactly("apple", 10, 1, 2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(QueryParamNamer.class)
+    void updateTemplate(QueryParamNamer namer) {
+        var template = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").paramNamer(namer).template();
+
+        for (var params : new Object[][] { { "apple", "fruit", 10, 1L }, { null, "fruit", null, 1L }, { "apple", null, 10, 2L } }) {
+            var expected = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").paramNamer(namer)
+                    .params(params).build();
+
+            assertThat(template.build(params)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void updateTemplateWithoutValues() {
+        var template = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").template();
+
+        assertThatThrownBy(template::build).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> template.build(null, null, null, 1L)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void updateWithoutWhereValue() {
+        var query = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").params("apple", "fruit", 10, null);
+        var template = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").template();
+
+        // without the where clause, all rows would be updated
+        assertThatThrownBy(query::build).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("where");
+        assertThatThrownBy(() -> template.build("apple", "fruit", 10, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> template.build("apple", "fruit", 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void updateWithoutPagination() {
+        var query = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id");
+
+        assertThatThrownBy(() -> query.page(Keyset.of("id"), null)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void buildFromDto() {
+        var template = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id").template();
+
+        var result = template.buildFromDto(new FruitPUT("apple", null, 10), 1L);
+
+        assertThat(result.query()).isEqualTo("SET name = ?, calories = ? WHERE id = ?");
+        assertThat(result.parameters()).containsExactly("apple", 10, 1L);
+    }
+
+    @Test
+    void castsAndLiterals() {
+        var template = new DynamicQuery().selectClauses("data::jsonb ? :key", "name <> 'a:b'", "type = :type")
+                .paramNamer(QueryParamNamer.NUMBERED)
+                .template();
+
+        var result = template.build("key", "apple", "fruit");
+
+        assertThat(result.query()).isEqualTo(" where (data::jsonb ? ?1) and (name <> 'a:b') and (type = ?3)");
+        assertThat(result.parameters()).isEqualTo(Arrays.asList("key", "apple", "fruit"));
+    }
+
+    @Test
+    void notEnoughParameters() {
+        var template = new DynamicQuery().selectClauses(SELECT_CLAUSES).template();
+
+        assertThatThrownBy(() -> template.build("apple")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void paramsFromRecord() {
+        var harvested = LocalDate.of(2024, 9, 1);
+        var criteria = new Criteria("apple", harvested, Optional.of(Kind.FRUIT), Optional.empty(), "GT");
+
+        var result = new DynamicQuery().selectClauses("name", "harvested > :harvested", "kind", "origin")
+                .paramsFromDto(criteria, name -> !name.endsWith("Op"))
+                .build();
+
+        assertThat(result.query()).isEqualTo(" where name = ? and (harvested > ?) and kind = ?");
+        assertThat(result.parameters()).containsExactly("apple", harvested, "FRUIT");
+    }
+
+    @Test
+    void paramsFromDtoWithOtherParams() {
+        // the other params were passed as name filter and recursed until the stack overflowed
+        var result = new DynamicQuery().updateClauses(UPDATE_CLAUSES).where("id")
+                .paramsFromDto(new FruitPUT("apple", null, 10), 1L)
+                .build();
+
+        assertThat(result.query()).isEqualTo("SET name = ?, calories = ? WHERE id = ?");
+        assertThat(result.parameters()).containsExactly("apple", 10, 1L);
+    }
+
+    @Test
+    void paramsFromRecordWithJacksonAnnotations() {
+        var dto = new AnnotatedFruit("apple", "secret", "fruit");
+
+        var result = new DynamicQuery().selectClauses("name", "type = :kind").paramsFromDto(dto).build();
+        var filtered = new DynamicQuery().selectClauses("name").paramsFromDto(dto, name -> !name.equals("kind")).build();
+
+        // the JSON representation: without the ignored component and with the renamed one
+        assertThat(result.parameters()).containsExactly("apple", "fruit");
+        assertThat(filtered.parameters()).containsExactly("apple");
+    }
+
+    @Test
+    void paramsFromOtherDto() {
+        var dto = new LinkedHashMap<String, Object>();
+        dto.put("name", "apple");
+        dto.put("type", null);
+
+        var result = new DynamicQuery().selectClauses("name", "type").paramsFromDto(dto, 1L).build();
+
+        assertThat(result.query()).isEqualTo(" where name = ?");
+        assertThat(result.parameters()).containsExactly("apple", 1L);
+    }
+
+    record FruitPUT(String name, String type, Integer calories) {
+    }
+
+    record AnnotatedFruit(String name, @JsonIgnore String secret, @JsonProperty("kind") String type) {
+    }
+
+    enum Kind {
+        FRUIT,
+        VEGETABLE
+    }
+
+    record Criteria(String name, LocalDate harvested, Optional<Kind> kind, Optional<String> origin, String harvestedOp) {
+    }
+}
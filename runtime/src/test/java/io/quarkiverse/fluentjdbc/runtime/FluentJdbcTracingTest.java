@@ -0,0 +1,119 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+
+class FluentJdbcTracingTest {
+
+    InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    Connection connection;
+
+    @BeforeEach
+    void init() throws SQLException {
+        var h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:traced;DB_CLOSE_DELAY=-1");
+
+        var openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(this.exporter)).build())
+                .build();
+        var dataSource = new ObservedDataSource(h2, List.of(new FluentJdbcTracing(openTelemetry)));
+        this.connection = dataSource.getConnection();
+        try (var stmt = this.connection.createStatement()) {
+            stmt.executeUpdate("create table fruit(id int primary key, name varchar(255))");
+        }
+        this.exporter.reset();
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.executeUpdate("drop table fruit");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void traceTransaction() throws SQLException {
+        this.connection.setAutoCommit(false);
+        try (var stmt = this.connection.prepareStatement("insert into fruit values (?, ?)")) {
+            for (int i = 1; i <= 2; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "fruit-" + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (var stmt = this.connection.prepareStatement("select * from fruit where name = 'apple' or id > ?")) {
+            stmt.setFetchSize(10);
+            stmt.setInt(1, 0);
+            try (var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    assertThat(rs.getString("name")).startsWith("fruit-");
+                }
+            }
+        }
+        this.connection.commit();
+        this.connection.setAutoCommit(true);
+
+        var spans = this.exporter.getFinishedSpanItems();
+        assertThat(spans).extracting(SpanData::getName).containsExactly("INSERT", "SELECT", "TRANSACTION");
+
+        var transaction = spans.get(2);
+        assertThat(transaction.getAttributes().get(FluentJdbcTracing.COMMITTED)).isTrue();
+        assertThat(spans.subList(0, 2)).allSatisfy(span -> {
+            assertThat(span.getParentSpanId()).isEqualTo(transaction.getSpanId());
+            assertThat(span.getStartEpochNanos()).isGreaterThanOrEqualTo(transaction.getStartEpochNanos());
+        });
+
+        var insert = spans.get(0).getAttributes();
+        assertThat(insert.get(FluentJdbcTracing.BATCH_SIZE)).isEqualTo(2);
+        assertThat(insert.get(FluentJdbcTracing.ROWS)).isEqualTo(2);
+
+        var select = spans.get(1).getAttributes();
+        assertThat(select.get(FluentJdbcTracing.STATEMENT)).isEqualTo("select * from fruit where name = ? or id > ?");
+        assertThat(select.get(FluentJdbcTracing.FETCH_SIZE)).isEqualTo(10);
+        assertThat(select.get(FluentJdbcTracing.ROWS)).isEqualTo(2);
+    }
+
+    @Test
+    void traceErrors() throws SQLException {
+        this.connection.setAutoCommit(false);
+        try (var stmt = this.connection.prepareStatement("insert into fruit values (?, ?)")) {
+            stmt.setInt(1, 1);
+            stmt.setString(2, "apple");
+            stmt.executeUpdate();
+            assertThatThrownBy(stmt::executeUpdate).isInstanceOf(SQLException.class);
+        }
+        this.connection.rollback();
+        this.connection.setAutoCommit(true);
+
+        var spans = this.exporter.getFinishedSpanItems();
+        assertThat(spans).extracting(SpanData::getName).containsExactly("INSERT", "INSERT", "TRANSACTION");
+        assertThat(spans.get(1).getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR);
+        assertThat(spans.get(1).getEvents()).extracting(event -> event.getName()).containsExactly("exception");
+        assertThat(spans.get(2).getAttributes().get(FluentJdbcTracing.COMMITTED)).isFalse();
+    }
+
+    @Test
+    void operation() {
+        assertThat(FluentJdbcTracing.operation("with cte as (select ?) select * from cte", Type.SELECT)).isEqualTo("WITH");
+        assertThat(FluentJdbcTracing.operation("", Type.UPDATE)).isEqualTo("UPDATE");
+    }
+}
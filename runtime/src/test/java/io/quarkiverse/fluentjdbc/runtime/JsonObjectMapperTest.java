@@ -0,0 +1,118 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+class JsonObjectMapperTest {
+    private static final String SELECT = """
+            select id, name, amount, price, harvested, ripe, 1
+            from fruit order by id""";
+
+    Connection connection;
+    JsonObjectMapper mapper = new JsonObjectMapper();
+
+    @BeforeEach
+    void init() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:json-mapper");
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("""
+                    create table fruit(id int primary key, name varchar(255), amount bigint, price decimal(10, 2),
+                    harvested date, ripe boolean)""");
+            stmt.execute("""
+                    insert into fruit values (1, 'apple', 10, 1.25, date '2024-09-01', true),
+                    (2, 'pear', null, 2.50, null, false)""");
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("drop table fruit");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void map() throws SQLException {
+        var rows = new ArrayList<JsonObject>();
+        try (var stmt = this.connection.createStatement(); var rs = stmt.executeQuery(SELECT)) {
+            while (rs.next()) {
+                rows.add(this.mapper.map(rs));
+            }
+        }
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).fieldNames()).containsExactly("ID", "NAME", "AMOUNT", "PRICE", "HARVESTED", "RIPE", "column_7");
+        assertThat(rows.get(0).getString("NAME")).isEqualTo("apple");
+        assertThat(rows.get(1).getValue("AMOUNT")).isNull();
+    }
+
+    @Test
+    void mapConcurrentResultSets() throws Exception {
+        var rows = new ArrayList<JsonObject>();
+        var executor = Executors.newSingleThreadExecutor();
+        try (var stmt1 = this.connection.createStatement(); var rs1 = stmt1.executeQuery("select id, name from fruit");
+                var stmt2 = this.connection.createStatement(); var rs2 = stmt2.executeQuery("select amount from fruit")) {
+            while (rs1.next() && rs2.next()) {
+                rows.add(this.mapper.map(rs1));
+                rows.add(executor.submit(() -> this.mapper.map(rs2)).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(rows).extracting(JsonObject::fieldNames).map(List::copyOf)
+                .containsExactly(List.of("ID", "NAME"), List.of("AMOUNT"), List.of("ID", "NAME"), List.of("AMOUNT"));
+    }
+
+    @Test
+    void writeRows() throws Exception {
+        var out = new ByteArrayOutputStream();
+        try (var generator = JsonObjectMapper.JSON_FACTORY.createGenerator(out);
+                var stmt = this.connection.createStatement();
+                var rs = stmt.executeQuery(SELECT)) {
+            generator.writeStartArray();
+            while (rs.next()) {
+                this.mapper.writeRow(generator, rs);
+            }
+            generator.writeEndArray();
+        }
+
+        var rows = new JsonArray(out.toString());
+        assertThat(rows).hasSize(2);
+        assertThat(rows.getJsonObject(0)).isEqualTo(new JsonObject()
+                .put("ID", 1).put("NAME", "apple").put("AMOUNT", 10).put("PRICE", 1.25)
+                .put("HARVESTED", "2024-09-01").put("RIPE", true).put("column_7", 1));
+        assertThat(rows.getJsonObject(1).getValue("AMOUNT")).isNull();
+        assertThat(rows.getJsonObject(1).getValue("HARVESTED")).isNull();
+    }
+
+    @Test
+    void writeValues() throws Exception {
+        var out = new ByteArrayOutputStream();
+        try (var generator = JsonObjectMapper.JSON_FACTORY.createGenerator(out)) {
+            generator.writeStartArray();
+            for (var value : List.of(Long.MAX_VALUE, new byte[] { 1, 2 }, Timestamp.valueOf("2024-09-01 10:15:00"))) {
+                JsonObjectMapper.writeValue(generator, value);
+            }
+            generator.writeEndArray();
+        }
+
+        assertThat(out.toString()).isEqualTo("[9223372036854775807,\"AQI=\",\"2024-09-01T10:15\"]");
+    }
+}
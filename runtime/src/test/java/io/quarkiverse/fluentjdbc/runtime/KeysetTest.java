@@ -0,0 +1,159 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.quarkiverse.fluentjdbc.runtime.DynamicQuery.QueryResult;
+
+class KeysetTest {
+
+    static Connection connection;
+
+    @BeforeAll
+    static void init() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:keyset");
+        try (var stmt = connection.createStatement()) {
+            stmt.execute("create table fruit(id int primary key, calories int not null, name varchar(20))");
+            stmt.execute("""
+                    insert into fruit values (1, 50, 'apple'), (2, 50, null), (3, 80, 'banana'), (4, 50, 'apple'),
+                    (5, 20, null), (6, 80, 'cherry'), (7, 50, 'banana'), (8, 20, 'date'), (9, 50, null), (10, 0, 'fig')
+                    """);
+        }
+    }
+
+    @AfterAll
+    static void cleanUp() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void build() {
+        var keyset = Keyset.of("calories desc", "name nulls last", "id");
+        var token = keyset.token(50, null, 9);
+
+        var first = new DynamicQuery().selectClauses("type", "calories > :cal").params("fruit", null)
+                .page(keyset, null).build();
+        assertThat(first.query()).isEqualTo(" where type = ? order by calories desc, name nulls last, id");
+
+        var next = new DynamicQuery().selectClauses("type", "calories > :cal").params("fruit", null)
+                .page(keyset, token).build();
+        assertThat(next.query()).isEqualTo(" where (type = ?) and ((calories < ?) or (calories = ? and name is null and id > ?))"
+                + " order by calories desc, name nulls last, id");
+        assertThat(next.parameters()).containsExactly("fruit", 50, 50, 9);
+
+        var numbered = new DynamicQuery().selectClauses("type").params("fruit").paramNamer(QueryParamNamer.NUMBERED)
+                .page(Keyset.of("id"), Keyset.of("id").token(5)).build();
+        assertThat(numbered.query()).isEqualTo(" where (type = ?1) and ((id > ?2)) order by id");
+    }
+
+    @Test
+    void continueNumberedTemplate() {
+        // the template numbers its parameters per clause
+        var template = new DynamicQuery().selectClauses("type", "calories between :min and :max")
+                .paramNamer(QueryParamNamer.NUMBERED).template();
+        var keyset = Keyset.of("id");
+
+        var query = keyset.apply(template.build("fruit", 20, 80), keyset.token(5), QueryParamNamer.NUMBERED);
+        assertThat(query.query()).isEqualTo(" where (type = ?1 and (calories between ?2 and ?2)) and ((id > ?3)) order by id");
+        assertThat(query.parameters()).containsExactly("fruit", 20, 80, 5);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "calories desc, name nulls last, id", "calories, name nulls first, id desc",
+            "name desc nulls first, id", "name asc nulls last, calories desc, id" })
+    void paginate(String sort) throws SQLException {
+        var keyset = Keyset.of(sort.split(","));
+        var expected = ids(new QueryResult(" where calories > ? order by " + sort, List.of(0)), 100);
+
+        var ids = new ArrayList<Integer>();
+        String token = null;
+        do {
+            var page = ids(keyset.apply(new QueryResult(" where calories > ?", List.of(0)), token), 4);
+            ids.addAll(page.subList(0, Math.min(3, page.size())));
+            token = page.size() > 3 ? token(keyset, page.get(2)) : null;
+        } while (token != null);
+
+        assertThat(ids).hasSize(9).isEqualTo(expected);
+    }
+
+    @Test
+    void encodeValues() throws SQLException {
+        var keyset = Keyset.of("a", "b", "c", "d", "e", "f");
+        var timestamp = Timestamp.valueOf("2024-02-29 10:15:30.123456");
+        var uuid = UUID.randomUUID();
+        var token = keyset.token("it's", 1L, new BigDecimal("1.50"), timestamp, LocalDate.of(2024, 1, 1), uuid);
+
+        var query = keyset.apply(new QueryResult("", List.of()), token);
+
+        assertThat(query.parameters()).contains("it's", 1L, new BigDecimal("1.50"), timestamp, LocalDate.of(2024, 1, 1), uuid);
+        assertThat(token).doesNotContain("it's");
+    }
+
+    @Test
+    void rejectInvalidTokens() {
+        var keyset = Keyset.of("calories", "id");
+        var empty = new QueryResult("", List.of());
+
+        assertThatThrownBy(() -> keyset.apply(empty, "not a token")).isInstanceOf(Keyset.InvalidTokenException.class);
+        assertThatThrownBy(() -> keyset.apply(empty, Keyset.of("id").token(1)))
+                .isInstanceOf(Keyset.InvalidTokenException.class);
+        assertThatThrownBy(() -> keyset.token(1, new Object())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Keyset.of("id sideways")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectInvalidPageSize() {
+        assertThatThrownBy(() -> Keyset.of("id").list(null, 0, rs -> rs.getInt("id")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String token(Keyset keyset, int id) throws SQLException {
+        try (var stmt = connection.prepareStatement("select calories, name from fruit where id = ?")) {
+            stmt.setInt(1, id);
+            try (var rs = stmt.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                var calories = rs.getInt(1);
+                var name = rs.getString(2);
+                // the values in the order of the sort columns
+                return switch (keyset.apply(new QueryResult("", List.of()), null).query()) {
+                    case " order by calories desc, name nulls last, id", " order by calories, name nulls first, id desc" ->
+                        keyset.token(calories, name, id);
+                    case " order by name desc nulls first, id" -> keyset.token(name, id);
+                    default -> keyset.token(name, calories, id);
+                };
+            }
+        }
+    }
+
+    private static List<Integer> ids(QueryResult query, int maxRows) throws SQLException {
+        try (var stmt = connection.prepareStatement("select id from fruit" + query.query())) {
+            for (int i = 0; i < query.parameters().size(); i++) {
+                stmt.setObject(i + 1, query.parameters().get(i));
+            }
+            stmt.setMaxRows(maxRows);
+            var ids = new ArrayList<Integer>();
+            try (var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            return ids;
+        }
+    }
+}
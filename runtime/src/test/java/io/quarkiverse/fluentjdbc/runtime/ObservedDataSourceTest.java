@@ -0,0 +1,115 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+
+class ObservedDataSourceTest {
+
+    List<StatementExecution> executions = new ArrayList<>();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    Connection connection;
+
+    @BeforeEach
+    void init() throws SQLException {
+        var h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:observed;DB_CLOSE_DELAY=-1");
+
+        var dataSource = new ObservedDataSource(h2, List.of(this.executions::add, new FluentJdbcMetrics(this.registry)));
+        this.connection = dataSource.getConnection();
+        try (var stmt = this.connection.createStatement()) {
+            stmt.executeUpdate("create table fruit(id int primary key, name varchar(255))");
+        }
+        this.executions.clear();
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.executeUpdate("drop table fruit");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void observeStatements() throws SQLException {
+        try (var stmt = this.connection.prepareStatement("insert into fruit values (?, ?)")) {
+            for (int i = 1; i <= 3; i++) {
+                stmt.setInt(1, i);
+                stmt.setString(2, "fruit-" + i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (var stmt = this.connection.prepareStatement("update fruit set name = ? where id > ?")) {
+            stmt.setString(1, "apple");
+            stmt.setInt(2, 1);
+            stmt.executeUpdate();
+        }
+        try (var stmt = this.connection.prepareStatement("select * from fruit where id > ?")) {
+            stmt.setInt(1, 0);
+            try (var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    assertThat(rs.getStatement()).isSameAs(stmt);
+                }
+            }
+        }
+
+        assertThat(this.executions).extracting(StatementExecution::type, StatementExecution::rows,
+                StatementExecution::batchSize, StatementExecution::isSuccess)
+                .containsExactly(
+                        tuple(Type.BATCH, 3L, 3, true),
+                        tuple(Type.UPDATE, 2L, 0, true),
+                        tuple(Type.SELECT, 3L, 0, true));
+        assertThat(this.executions.get(2).fingerprint()).isEqualTo("select * from fruit where id > ?");
+
+        var timer = this.registry.get(FluentJdbcMetrics.QUERY).tag("type", "select").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(this.registry.get(FluentJdbcMetrics.ROWS).tag("type", "select").summary().totalAmount()).isEqualTo(3);
+        assertThat(this.registry.get(FluentJdbcMetrics.BATCH_SIZE).summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void observeErrors() throws SQLException {
+        try (var stmt = this.connection.prepareStatement("insert into fruit values (?, ?)")) {
+            stmt.setInt(1, 1);
+            stmt.setString(2, "apple");
+            stmt.executeUpdate();
+            assertThatThrownBy(stmt::executeUpdate).isInstanceOf(SQLException.class);
+        }
+
+        assertThat(this.executions).hasSize(2);
+        assertThat(this.executions.get(1).isSuccess()).isFalse();
+        assertThat(this.registry.get(FluentJdbcMetrics.ERRORS).counter().count()).isEqualTo(1);
+        assertThat(this.registry.get(FluentJdbcMetrics.QUERY).tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void observeUpdatesWithoutStatement() throws SQLException {
+        var rows = ObservedDataSource.observeUpdate(this.connection, "copy fruit(id,name) from stdin", () -> 2L);
+
+        assertThat(rows).isEqualTo(2L);
+        assertThat(this.executions).extracting(StatementExecution::sql, StatementExecution::type, StatementExecution::rows)
+                .containsExactly(tuple("copy fruit(id,name) from stdin", Type.UPDATE, 2L));
+    }
+
+    @Test
+    void unwrap() throws SQLException {
+        assertThat(this.connection.unwrap(JdbcConnection.class)).isInstanceOf(JdbcConnection.class);
+        assertThat(this.connection.createStatement().getConnection()).isSameAs(this.connection);
+    }
+}
@@ -0,0 +1,74 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParsedSqlTest {
+
+    @Test
+    void namedParams() {
+        var parsed = ParsedSql.parse("""
+                select * from fruit -- where name = :comment
+                where name = :name and type::text = :type /* :other */ and note = 'a:b' and calories > :name
+                """);
+
+        assertThat(parsed.paramNames()).containsExactly("name", "type", "name");
+        assertThat(parsed.paramCount()).isEqualTo(3);
+        assertThat(parsed.positionalSql()).contains("type::text = ? /* :other */ and note = 'a:b' and calories > ?");
+        assertThat(parsed.params(Map.of("name", "apple", "type", "fruit"))).containsExactly("apple", "fruit", "apple");
+
+        var nulls = new HashMap<String, Object>();
+        nulls.put("name", null);
+        nulls.put("type", null);
+        assertThat(parsed.params(nulls)).containsExactly(null, null, null);
+        assertThatThrownBy(() -> parsed.params(Map.of("name", "apple"))).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining(":type");
+    }
+
+    @Test
+    void positionalParams() {
+        var parsed = ParsedSql.parse("insert into farmer(name, data) values(?, ?::jsonb) returning data ?? 'key', '?'");
+
+        assertThat(parsed.isNamed()).isFalse();
+        assertThat(parsed.paramCount()).isEqualTo(2);
+        assertThat(parsed.positionalSql()).isEqualTo(parsed.sql());
+        assertThat(parsed.keyword()).isEqualTo("insert");
+    }
+
+    @Test
+    void skipQuotes() {
+        var parsed = ParsedSql.parse("""
+                select 'it''s :no', E'it\\'s :no', "col:no", $$ body ' :no $$, $fn$ :no $fn$, arr[1:2], :yes
+                """);
+
+        assertThat(parsed.paramNames()).containsExactly("yes");
+        assertThat(ParsedSql.parse("select $1, x$y").paramCount()).isZero();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "select * from fruit where name = 'apple", "select \"name from fruit",
+            "select (1 + 2", "select 1)", "select 1 /* comment", "select $$ body", "select * from fruit where a = ? and b = :b",
+            " " })
+    void rejectInvalidQueries(String sql) {
+        assertThatThrownBy(() -> ParsedSql.parse(sql)).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid query");
+    }
+
+    @Test
+    void cacheParsedQueries() {
+        var sql = "select * from fruit where id = :id";
+        ParsedSql.register(new ParsedSql(sql, "select * from fruit where id = ?", 1, List.of("id")));
+
+        assertThat(ParsedSql.of(sql)).isSameAs(ParsedSql.of(sql));
+        assertThat(ParsedSql.isPositional(Map.of("id", 1))).isTrue();
+        assertThat(ParsedSql.isPositional(Map.of("id", List.of(1, 2)))).isFalse();
+    }
+}
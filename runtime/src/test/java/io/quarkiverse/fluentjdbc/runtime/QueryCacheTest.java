@@ -0,0 +1,96 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codejargon.fluentjdbc.api.query.Mapper;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.fluentjdbc.runtime.QueryCache.Key;
+import io.quarkiverse.fluentjdbc.runtime.QueryCache.Result;
+import io.quarkiverse.fluentjdbc.runtime.StatementExecution.Type;
+
+class QueryCacheTest {
+    static final Mapper<String> MAPPER = rs -> rs.getString(1);
+
+    QueryCache cache = new QueryCache(() -> null, 100, Duration.ofMinutes(1), null);
+    AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void cacheByQueryAndParams() {
+        assertThat(select("select * from fruit where id = ?", 1)).isEqualTo(1);
+        assertThat(select("select * from fruit where id = ?", 1)).isEqualTo(1);
+        assertThat(select("select * from fruit where id = ?", 2)).isEqualTo(2);
+        assertThat(select("select * from farmer where id = ?", 1)).isEqualTo(3);
+    }
+
+    @Test
+    void invalidateUpdatedTables() {
+        select("select * from fruit f join fruit_farmer ff on ff.fruit_id = f.id", 1);
+        select("select * from farmer", 1);
+
+        update("insert into fruit_farmer values (?, ?, ?)");
+
+        assertThat(select("select * from fruit f join fruit_farmer ff on ff.fruit_id = f.id", 1)).isEqualTo(3);
+        assertThat(select("select * from farmer", 1)).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateAllForUnknownTables() {
+        select("select * from fruit", 1);
+        select("select * from farmer", 1);
+
+        update("call refresh_fruits()");
+
+        assertThat(select("select * from fruit", 1)).isEqualTo(3);
+        assertThat(select("select * from farmer", 1)).isEqualTo(4);
+    }
+
+    @Test
+    void invalidateAfterTransaction() throws InterruptedException {
+        select("select * from fruit", 1);
+        this.cache.onTransactionBegin();
+        update("update fruit set name = ?");
+        // another thread caches the rows before the update is committed
+        var other = new Thread(() -> select("select * from fruit", 1));
+        other.start();
+        other.join();
+        this.cache.onTransactionEnd(true, null);
+
+        assertThat(select("select * from fruit", 1)).isEqualTo(3);
+    }
+
+    @Test
+    void readThroughInTransaction() {
+        this.cache.onTransactionBegin();
+        update("update fruit set name = ?");
+        // the uncommitted update is not cached
+        assertThat(select("select * from fruit", 1)).isEqualTo(1);
+        assertThat(select("select * from fruit", 1)).isEqualTo(2);
+        this.cache.onTransactionEnd(false, null);
+
+        assertThat(select("select * from fruit", 1)).isEqualTo(3);
+        assertThat(select("select * from fruit", 1)).isEqualTo(3);
+    }
+
+    @Test
+    void expire() throws InterruptedException {
+        var key = new Key("select * from fruit", List.of(), Map.of(), null, MAPPER, Result.LIST);
+        this.cache.get(key, Duration.ofMillis(10), this.queries::incrementAndGet);
+        Thread.sleep(20);
+        assertThat(this.cache.get(key, Duration.ofMillis(10), this.queries::incrementAndGet)).isEqualTo(2);
+    }
+
+    private int select(String sql, Object param) {
+        var key = new Key(sql, List.of(param), Map.of(), null, MAPPER, Result.LIST);
+        return this.cache.get(key, null, this.queries::incrementAndGet);
+    }
+
+    private void update(String sql) {
+        this.cache.onStatement(new StatementExecution(sql, Type.UPDATE, 0, 0, 0, 1, 0, 0, null));
+    }
+}
@@ -0,0 +1,106 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.fluentjdbc.runtime.QueryExport.CsvEncoder;
+import io.quarkiverse.fluentjdbc.runtime.QueryExport.JsonEncoder;
+
+class QueryExportTest {
+    private static final String SELECT = "select id, name, harvested, ripe from fruit order by id";
+
+    Connection connection;
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void init() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:export");
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("create table fruit(id int primary key, name varchar(255), harvested timestamp, ripe boolean)");
+            stmt.execute("""
+                    insert into fruit values (1, 'apple; "red"', timestamp '2024-09-01 10:30:00', true),
+                    (2, '', null, null)""");
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("drop table fruit");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void writeCsv() throws Exception {
+        write(new CsvEncoder(this.out, ';'));
+
+        assertThat(this.out.toString()).isEqualTo("""
+                ID;NAME;HARVESTED;RIPE
+                1;"apple; ""red\""";2024-09-01T10:30;true
+                2;"";;
+                """);
+    }
+
+    @Test
+    void writeCsvHeaderWithoutRows() {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:export");
+        var jdbc = new FluentJdbcBuilder().connectionProvider(dataSource).build();
+
+        // H2 is not copied, like PostgreSQL the header is written without rows
+        var count = QueryExport.csv(';').write(jdbc, "select id, name from fruit where id > ?", List.of(2), this.out);
+
+        assertThat(count).isZero();
+        assertThat(this.out.toString()).isEqualTo("ID;NAME\n");
+
+        var rows = new ByteArrayOutputStream();
+        QueryExport.csv(';').write(jdbc, "select id, name from fruit where id > ?", List.of(1), rows);
+        assertThat(rows.toString()).isEqualTo("ID;NAME\n2;\"\"\n");
+    }
+
+    @Test
+    void writeNdjson() throws Exception {
+        write(new JsonEncoder(this.out, false));
+
+        assertThat(this.out.toString()).isEqualTo("""
+                {"ID":1,"NAME":"apple; \\"red\\"","HARVESTED":"2024-09-01T10:30","RIPE":true}
+                {"ID":2,"NAME":"","HARVESTED":null,"RIPE":null}
+                """);
+    }
+
+    @Test
+    void writeJsonArray() throws Exception {
+        write(new JsonEncoder(this.out, true));
+
+        assertThat(this.out.toString()).startsWith("[{\"ID\":1,").endsWith("\"RIPE\":null}]");
+    }
+
+    @Test
+    void writeNoRows() throws Exception {
+        new JsonEncoder(this.out, true).finish();
+
+        assertThat(this.out.toString()).isEqualTo("[]");
+    }
+
+    private void write(RowEncoder encoder) throws SQLException, IOException {
+        try (var stmt = this.connection.createStatement(); var rs = stmt.executeQuery(SELECT)) {
+            while (rs.next()) {
+                encoder.writeRow(rs);
+            }
+        }
+        encoder.finish();
+    }
+}
@@ -0,0 +1,81 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+
+class ReactiveFluentJdbcTest {
+
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    ReactiveFluentJdbc reactiveJdbc = new ReactiveFluentJdbc(null, this.executor);
+
+    AtomicInteger read = new AtomicInteger();
+    CountDownLatch closed = new CountDownLatch(1);
+
+    @AfterEach
+    void cleanUp() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void streamOnDemand() throws InterruptedException {
+        var subscriber = this.reactiveJdbc.<Integer> stream(this::rows)
+                .subscribe().withSubscriber(AssertSubscriber.create(0));
+
+        Thread.sleep(50);
+        // the first row is read, then the reader waits for demand
+        assertThat(this.read.get()).isLessThanOrEqualTo(1);
+
+        subscriber.request(10).awaitItems(10);
+        Thread.sleep(50);
+        assertThat(this.read.get()).isLessThanOrEqualTo(11);
+
+        subscriber.cancel();
+        assertThat(this.closed.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(this.read.get()).isLessThanOrEqualTo(11);
+    }
+
+    @Test
+    void streamAll() {
+        var subscriber = this.reactiveJdbc.<Integer> stream(this::rows)
+                .subscribe().withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        subscriber.awaitCompletion(Duration.ofSeconds(5));
+        assertThat(subscriber.getItems()).hasSize(1000).startsWith(0, 1, 2);
+        assertThat(this.closed.getCount()).isZero();
+    }
+
+    @Test
+    void streamFailure() {
+        var subscriber = this.reactiveJdbc.<Integer> stream(consumer -> {
+            consumer.accept(1);
+            throw new IllegalStateException("connection lost");
+        }).subscribe().withSubscriber(AssertSubscriber.create(10));
+
+        subscriber.awaitFailure(Duration.ofSeconds(5)).assertFailedWith(IllegalStateException.class, "connection lost");
+        assertThat(subscriber.getItems()).containsExactly(1);
+    }
+
+    // iterates the rows like FluentJdbc, which closes the result set when done
+    private void rows(Consumer<Integer> consumer) {
+        try {
+            for (int i = 0; i < 1000; i++) {
+                this.read.incrementAndGet();
+                consumer.accept(i);
+            }
+        } finally {
+            this.closed.countDown();
+        }
+    }
+}
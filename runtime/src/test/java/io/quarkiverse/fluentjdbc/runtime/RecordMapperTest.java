@@ -2,10 +2,42 @@ package io.quarkiverse.fluentjdbc.runtime;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 class RecordMapperTest {
 
+    Connection connection;
+
+    @BeforeEach
+    void init() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:record-mapper");
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("create table fruit(id int primary key, ext_id varchar(36), name varchar(255), amount bigint)");
+            stmt.execute("insert into fruit values (1, 'a-1', 'apple', 10), (2, 'p-2', 'pear', 20)");
+        }
+    }
+
+    @AfterEach
+    void cleanUp() throws SQLException {
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("drop table fruit");
+        }
+        this.connection.close();
+    }
+
     @Test
     void columnNames() {
         var mapper = new RecordMapper(Fruit.class);
@@ -14,6 +46,97 @@ class RecordMapperTest {
         assertThat(mapper.columnNames()).isEqualTo("ext_id,name");
     }
 
+    @ParameterizedTest
+    @EnumSource(RecordMapper.Strategy.class)
+    void mapWithDifferentColumnOrder(RecordMapper.Strategy strategy) throws SQLException {
+        var mapper = new RecordMapper<>(Fruit.class, true, strategy);
+
+        assertThat(select(mapper, "select * from fruit order by id"))
+                .containsExactly(new Fruit("a-1", "apple"), new Fruit("p-2", "pear"));
+        assertThat(select(mapper, "select name, id, ext_id from fruit order by id"))
+                .containsExactly(new Fruit("a-1", "apple"), new Fruit("p-2", "pear"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RecordMapper.Strategy.class)
+    void mapInterleavedResultSets(RecordMapper.Strategy strategy) throws Exception {
+        var mapper = new RecordMapper<>(Fruit.class, true, strategy);
+        var result = new ArrayList<Fruit>();
+
+        // rs3 is mapped by another thread, e.g. a concurrent request with the same shared mapper
+        try (var executor = Executors.newSingleThreadExecutor();
+                var stmt1 = this.connection.createStatement();
+                var rs1 = stmt1.executeQuery("select * from fruit order by id");
+                var stmt2 = this.connection.createStatement();
+                var rs2 = stmt2.executeQuery("select name, ext_id from fruit order by id desc");
+                var stmt3 = this.connection.createStatement();
+                var rs3 = stmt3.executeQuery("select * from fruit order by id desc")) {
+            while (rs1.next() && rs2.next() && rs3.next()) {
+                result.add(mapper.map(rs1));
+                result.add(mapper.map(rs2));
+                result.add(executor.submit(() -> mapper.map(rs3)).get());
+            }
+        }
+
+        assertThat(result).containsExactly(new Fruit("a-1", "apple"), new Fruit("p-2", "pear"), new Fruit("p-2", "pear"),
+                new Fruit("p-2", "pear"), new Fruit("a-1", "apple"), new Fruit("a-1", "apple"));
+        // one plan per column list
+        assertThat(mapper.rowPlansByColumns).hasSize(2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(RecordMapper.Strategy.class)
+    void mapPrimitives(RecordMapper.Strategy strategy) throws SQLException {
+        var mapper = new RecordMapper<>(FruitId.class, true, strategy);
+
+        assertThat(select(mapper, "select id, amount from fruit order by id"))
+                .containsExactly(new FruitId(1, 10L), new FruitId(2, 20L));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RecordMapper.Strategy.class)
+    void mapNullableTypes(RecordMapper.Strategy strategy) throws SQLException {
+        var mapper = new RecordMapper<>(Measurement.class, true, strategy);
+        try (var stmt = this.connection.createStatement()) {
+            stmt.execute("""
+                    create table measurement(amount bigint, ratio double, weight real, grade smallint, flags tinyint,
+                        approved boolean, size bigint, external_id uuid, measured_at timestamp with time zone,
+                        color varchar(10))""");
+            stmt.execute("""
+                    insert into measurement values
+                    (1, 0.5, 1.5, 2, 3, true, 10, '11111111-2222-3333-4444-555555555555',
+                        timestamp with time zone '2024-01-02 03:04:05Z', 'GREEN'),
+                    (null, null, null, null, null, null, null, null, null, null)""");
+        }
+
+        assertThat(select(mapper, "select * from measurement order by amount nulls last")).containsExactly(
+                new Measurement(1L, 0.5, 1.5f, (short) 2, (byte) 3, true, 10, UUID.fromString(
+                        "11111111-2222-3333-4444-555555555555"), Instant.parse("2024-01-02T03:04:05Z"), Color.GREEN),
+                new Measurement(null, null, null, null, null, null, 0, null, null, null));
+    }
+
+    private <T extends Record> List<T> select(RecordMapper<T> mapper, String sql) throws SQLException {
+        var result = new ArrayList<T>();
+        try (var stmt = this.connection.createStatement(); var rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                result.add(mapper.map(rs));
+            }
+        }
+        return result;
+    }
+
     record Fruit(String extId, String name) {
     }
+
+    record FruitId(int id, Long amount) {
+    }
+
+    enum Color {
+        RED,
+        GREEN
+    }
+
+    record Measurement(Long amount, Double ratio, Float weight, Short grade, Byte flags, Boolean approved, long size,
+            UUID externalId, Instant measuredAt, Color color) {
+    }
 }
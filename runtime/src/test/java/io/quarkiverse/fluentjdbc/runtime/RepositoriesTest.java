@@ -0,0 +1,42 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+class RepositoriesTest {
+
+    enum Type {
+        APPLE
+    }
+
+    @Test
+    void param() {
+        assertThat(Repositories.param("apple")).isEqualTo("apple");
+        assertThat(Repositories.param(Type.APPLE)).isEqualTo("APPLE");
+        assertThat(Repositories.param(Optional.of(Type.APPLE))).isEqualTo("APPLE");
+        assertThat(Repositories.param(Optional.empty())).isNull();
+        assertThat(Repositories.param(null)).isNull();
+    }
+
+    @Test
+    void column() throws SQLException {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:repositories");
+
+        try (var connection = dataSource.getConnection(); var stmt = connection.createStatement();
+                var rs = stmt.executeQuery("select * from (values (1, 2.5), (null, null)) as t(a, b)")) {
+            rs.next();
+            assertThat(Repositories.column(Long.class).map(rs)).isEqualTo(1L);
+            assertThat(Repositories.column(String.class).map(rs)).isEqualTo("1");
+            rs.next();
+            assertThat(Repositories.column(Long.class).map(rs)).isNull();
+            assertThat(Repositories.column(BigDecimal.class).map(rs)).isNull();
+        }
+    }
+}
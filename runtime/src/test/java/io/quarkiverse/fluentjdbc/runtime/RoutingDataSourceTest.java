@@ -0,0 +1,161 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.codejargon.fluentjdbc.api.FluentJdbcBuilder;
+import org.codejargon.fluentjdbc.api.mapper.Mappers;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.fluentjdbc.runtime.FluentJdbcConfig.RoutingConfig.Balancing;
+
+class RoutingDataSourceTest {
+
+    static final DataSource PRIMARY = node("primary");
+    static final DataSource REPLICA_1 = node("replica1");
+    static final DataSource REPLICA_2 = node("replica2");
+
+    AtomicBoolean inTransaction = new AtomicBoolean();
+
+    @BeforeAll
+    static void init() throws SQLException {
+        for (var node : List.of(PRIMARY, REPLICA_1, REPLICA_2)) {
+            try (var connection = node.getConnection(); var stmt = connection.createStatement()) {
+                var name = connection.getMetaData().getURL().replaceAll(".*:|;.*", "");
+                stmt.execute("create table node(name varchar(20))");
+                stmt.execute("insert into node values ('" + name + "')");
+            }
+        }
+    }
+
+    @Test
+    void routeSelectsToReplicas() throws SQLException {
+        var dataSource = routing(Balancing.ROUND_ROBIN, REPLICA_1, REPLICA_2);
+
+        assertThat(select(dataSource)).isEqualTo("replica1");
+        assertThat(select(dataSource)).isEqualTo("replica2");
+        assertThat(select(dataSource)).isEqualTo("replica1");
+        assertThat(dataSource.inFlight()).containsExactly(0, 0);
+    }
+
+    @Test
+    void routeFluentJdbcSelectsToReplicas() {
+        // wrapped like the datasource of the recorder
+        var dataSource = new ObservedDataSource(routing(Balancing.ROUND_ROBIN, REPLICA_1, REPLICA_2), List.of());
+        var jdbc = new FluentJdbcBuilder().connectionProvider(dataSource).build();
+
+        assertThat(jdbc.query().select("select name from node").singleResult(Mappers.singleString())).isEqualTo("replica1");
+        assertThat(jdbc.query().select("select name from node").listResult(Mappers.singleString()))
+                .containsExactly("replica2");
+    }
+
+    @Test
+    void routeWritesToPrimary() throws SQLException {
+        var dataSource = routing(Balancing.ROUND_ROBIN, REPLICA_1);
+
+        try (var connection = dataSource.getConnection()) {
+            assertThat(select(connection, "select name from node for update")).isEqualTo("primary");
+            // the connection is bound to the primary
+            assertThat(select(connection, "select name from node")).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void routeTransactionsToPrimary() throws SQLException {
+        var dataSource = routing(Balancing.ROUND_ROBIN, REPLICA_1);
+
+        try (var connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            assertThat(select(connection, "select name from node")).isEqualTo("primary");
+            connection.commit();
+        }
+
+        this.inTransaction.set(true);
+        assertThat(select(dataSource)).isEqualTo("primary");
+    }
+
+    @Test
+    void readStateFromHeldConnection() throws SQLException {
+        var dataSource = routing(Balancing.ROUND_ROBIN, REPLICA_1);
+
+        try (var connection = dataSource.getConnection()) {
+            assertThat(select(connection, "select name from node")).isEqualTo("replica1");
+            // the metadata is read from the replica, without acquiring a primary connection
+            assertThat(connection.getMetaData().getURL()).contains("replica1");
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(connection.toString()).contains("primary=null");
+        }
+
+        try (var connection = dataSource.getConnection()) {
+            assertThat(connection.getMetaData().getURL()).contains("primary");
+            // the connection is bound to the primary
+            assertThat(select(connection, "select name from node")).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void balanceByInFlight() throws SQLException {
+        var dataSource = routing(Balancing.LEAST_IN_FLIGHT, REPLICA_1, REPLICA_2);
+
+        try (var connection = dataSource.getConnection()) {
+            assertThat(select(connection, "select name from node")).isEqualTo("replica1");
+            assertThat(dataSource.inFlight()).containsExactly(1, 0);
+
+            assertThat(select(dataSource)).isEqualTo("replica2");
+            assertThat(select(dataSource)).isEqualTo("replica2");
+        }
+        assertThat(dataSource.inFlight()).containsExactly(0, 0);
+        assertThat(select(dataSource)).isEqualTo("replica1");
+    }
+
+    @Test
+    void fallBackToPrimary() throws SQLException {
+        var unavailable = new JdbcDataSource();
+        unavailable.setURL("jdbc:h2:mem:unavailable;IFEXISTS=TRUE");
+        var dataSource = routing(Balancing.ROUND_ROBIN, unavailable);
+
+        assertThat(select(dataSource)).isEqualTo("primary");
+        assertThat(dataSource.inFlight()).containsExactly(0);
+    }
+
+    @Test
+    void closeUnusedConnections() throws SQLException {
+        var dataSource = routing(Balancing.ROUND_ROBIN, REPLICA_1);
+
+        var connection = dataSource.getConnection();
+        assertThat(connection.isClosed()).isFalse();
+        connection.close();
+        assertThat(connection.isClosed()).isTrue();
+    }
+
+    private RoutingDataSource routing(Balancing balancing, DataSource... replicas) {
+        return new RoutingDataSource(PRIMARY, List.of(replicas), balancing, this.inTransaction::get);
+    }
+
+    private static String select(DataSource dataSource) throws SQLException {
+        try (var connection = dataSource.getConnection()) {
+            return select(connection, "select name from node");
+        }
+    }
+
+    private static String select(Connection connection, String sql) throws SQLException {
+        try (var stmt = connection.prepareStatement(sql); var rs = stmt.executeQuery()) {
+            assertThat(rs.next()).isTrue();
+            return rs.getString(1);
+        }
+    }
+
+    private static DataSource node(String name) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,30 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlFingerprintTest {
+
+    @Test
+    void normalize() {
+        assertThat(SqlFingerprint.of("SELECT * FROM fruit WHERE id = 1")).isEqualTo("select * from fruit where id = ?");
+        assertThat(SqlFingerprint.of("select *\n  from fruit -- all fruits\n where name = 'it''s'"))
+                .isEqualTo("select * from fruit where name = ?");
+        assertThat(SqlFingerprint.of("select /* hint */ * from fruit where id in (1, 2, 3)"))
+                .isEqualTo("select * from fruit where id in (?)");
+        assertThat(SqlFingerprint.of("select * from fruit where id in (?,?,?) and type = ?1"))
+                .isEqualTo("select * from fruit where id in (?) and type = ?");
+        assertThat(SqlFingerprint.of("select * from fruit where name = :name and data::jsonb ? 'key'"))
+                .isEqualTo("select * from fruit where name = ? and data::jsonb ? ?");
+        assertThat(SqlFingerprint.of("select t1.col2, 2.5 from t1 where x = $1"))
+                .isEqualTo("select t1.col2, ? from t1 where x = ?");
+    }
+
+    @Test
+    void truncate() {
+        var sql = "select " + "column, ".repeat(100) + "id from fruit";
+
+        assertThat(SqlFingerprint.of(sql)).hasSize(SqlFingerprint.MAX_LENGTH);
+    }
+}
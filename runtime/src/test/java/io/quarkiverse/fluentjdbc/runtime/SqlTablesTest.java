@@ -0,0 +1,53 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlTablesTest {
+
+    @Test
+    void selected() {
+        assertThat(SqlTables.selected("select * from fruit where id = ?")).containsExactly("fruit");
+        assertThat(SqlTables.selected("""
+                SELECT f.name, ff.amount
+                FROM public.farmer f
+                JOIN fruit_farmer AS ff ON ff.farmer_id = f.id
+                LEFT JOIN "Fruit" fr ON fr.id = ff.fruit_id
+                """)).containsExactly("farmer", "fruit_farmer", "fruit");
+        assertThat(SqlTables.selected("select * from fruit f, farmer, fruit_farmer ff where f.id = ff.fruit_id"))
+                .containsExactly("fruit", "farmer", "fruit_farmer");
+        assertThat(SqlTables.selected("select * from (select * from fruit) as f where name = 'from farmer'"))
+                .containsExactly("fruit");
+        assertThat(SqlTables.selected("select now() -- from fruit")).isEmpty();
+    }
+
+    @Test
+    void modified() {
+        assertThat(SqlTables.modified("insert into fruit(name) values (?)")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("INSERT INTO public.\"Fruit\" (name) SELECT name FROM farmer")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("update fruit set name = ? where id = ?")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("delete from fruit where id = ?")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("merge into fruit using farmer on ...")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("truncate table fruit")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("copy fruit(name,type) from stdin (format csv)")).isEqualTo("fruit");
+        assertThat(SqlTables.modified("with old as (select id from fruit) delete from farmer where id in (select id from old)"))
+                .isEqualTo("farmer");
+        assertThat(SqlTables.modified("create table fruit(id int)")).isNull();
+        assertThat(SqlTables.modified("call refresh_reports()")).isNull();
+    }
+
+    @Test
+    void readOnly() {
+        assertThat(SqlTables.isReadOnly("select * from fruit where name = 'update'")).isTrue();
+        assertThat(SqlTables.isReadOnly("WITH f AS (SELECT * FROM fruit) SELECT count(*) FROM f")).isTrue();
+        assertThat(SqlTables.isReadOnly("select * from fruit for update")).isFalse();
+        assertThat(SqlTables.isReadOnly("select * from fruit for no key update skip locked")).isFalse();
+        assertThat(SqlTables.isReadOnly("select * from fruit for share")).isFalse();
+        assertThat(SqlTables.isReadOnly("select * into fruit_copy from fruit")).isFalse();
+        assertThat(SqlTables.isReadOnly("select nextval('fruit_seq')")).isFalse();
+        assertThat(SqlTables.isReadOnly("with old as (delete from fruit returning *) select * from old")).isFalse();
+        assertThat(SqlTables.isReadOnly("insert into fruit(name) select name from farmer")).isFalse();
+        assertThat(SqlTables.isReadOnly("call refresh_reports()")).isFalse();
+    }
+}
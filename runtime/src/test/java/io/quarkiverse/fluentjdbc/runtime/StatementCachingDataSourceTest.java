@@ -0,0 +1,143 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSource.FlushMode;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+
+class StatementCachingDataSourceTest {
+
+    List<Boolean> lookups = new ArrayList<>();
+    AgroalDataSource pool;
+    StatementCachingDataSource dataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        this.pool = AgroalDataSource.from(new AgroalDataSourceConfigurationSupplier()
+                .connectionPoolConfiguration(pool -> pool.maxSize(1)
+                        .connectionFactoryConfiguration(factory -> factory.jdbcUrl("jdbc:h2:mem:cached"))));
+        this.dataSource = new StatementCachingDataSource(this.pool, 2, List.of(new StatementObserver() {
+            @Override
+            public void onStatement(StatementExecution execution) {
+            }
+
+            @Override
+            public void onStatementCache(boolean hit) {
+                StatementCachingDataSourceTest.this.lookups.add(hit);
+            }
+        }));
+        this.pool.setPoolInterceptors(List.of(this.dataSource.interceptor()));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        this.pool.close();
+    }
+
+    @Test
+    void reuseStatements() throws SQLException {
+        var first = select("select ?", 1);
+        var second = select("select ?", 2);
+
+        assertThat(second).isSameAs(first);
+        assertThat(this.lookups).containsExactly(false, true);
+        assertThat(this.dataSource.cachedStatements()).isEqualTo(1);
+    }
+
+    @Test
+    void cacheByGeneratedKeys() throws SQLException {
+        try (var connection = this.dataSource.getConnection()) {
+            connection.prepareStatement("select 1").close();
+            connection.prepareStatement("select 1", Statement.RETURN_GENERATED_KEYS).close();
+            connection.prepareStatement("select 1", new String[] { "id" }).close();
+            connection.prepareStatement("select 1", new String[] { "id" }).close();
+        }
+
+        assertThat(this.lookups).containsExactly(false, false, false, true);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() throws SQLException {
+        var first = select("select 1", null);
+        select("select 2", null);
+        select("select 1", null);
+        select("select 3", null);
+
+        assertThat(first.isClosed()).isFalse();
+        assertThat(select("select 1", null)).isSameAs(first);
+        assertThat(this.lookups).containsExactly(false, false, true, false, true);
+        assertThat(this.dataSource.cachedStatements()).isEqualTo(2);
+
+        select("select 2", null);
+        assertThat(this.lookups).endsWith(false);
+    }
+
+    @Test
+    void resetStatements() throws SQLException {
+        try (var connection = this.dataSource.getConnection()) {
+            var stmt = connection.prepareStatement("select ?");
+            stmt.setInt(1, 1);
+            stmt.setMaxRows(10);
+            stmt.setFetchSize(5);
+            stmt.close();
+            assertThat(stmt.isClosed()).isTrue();
+
+            try (var reused = connection.prepareStatement("select ?")) {
+                assertThat(reused.getMaxRows()).isZero();
+                assertThat(reused.getFetchSize()).isNotEqualTo(5);
+                assertThat(reused.getConnection()).isSameAs(connection);
+            }
+        }
+        assertThat(this.lookups).containsExactly(false, true);
+    }
+
+    @Test
+    void returnUnclosedStatements() throws SQLException {
+        try (var connection = this.dataSource.getConnection()) {
+            connection.prepareStatement("select 1");
+        }
+
+        assertThat(this.dataSource.cachedStatements()).isEqualTo(1);
+    }
+
+    @Test
+    void removeDestroyedConnections() throws Exception {
+        var statement = select("select 1", null);
+
+        // the connections are destroyed asynchronously
+        this.pool.flush(FlushMode.ALL);
+        for (int i = 0; i < 100 && this.dataSource.cachedStatements() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(this.dataSource.cachedStatements()).isZero();
+        assertThat(statement.isClosed()).isTrue();
+    }
+
+    private PreparedStatement select(String sql, Integer param) throws SQLException {
+        try (var connection = this.dataSource.getConnection();
+                var stmt = connection.prepareStatement(sql)) {
+            if (param != null) {
+                stmt.setInt(1, param);
+            }
+            try (var rs = stmt.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                if (param != null) {
+                    assertThat(rs.getInt(1)).isEqualTo(param);
+                }
+            }
+            return stmt.unwrap(PreparedStatement.class);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.quarkiverse.fluentjdbc.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.IntStream;
+
+import org.codejargon.fluentjdbc.api.query.UpdateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class WriteBatcherTest {
+
+    ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+    List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void batchConcurrentUpdates() {
+        var batcher = batcher(Duration.ofMinutes(1), 3);
+
+        var results = IntStream.rangeClosed(1, 6).mapToObj(i -> batcher.update("insert", i)).toList();
+
+        assertThat(results).extracting(result -> result.toCompletableFuture().join().affectedRows())
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(this.batches).containsExactly(3, 3);
+    }
+
+    @Test
+    void executeAfterMaxDelay() {
+        var batcher = batcher(Duration.ofMillis(20), 100);
+
+        var first = batcher.update("insert", 1);
+        var second = batcher.update("insert", 2);
+        var other = batcher.update("update", 3);
+
+        assertThat(first.toCompletableFuture().join().affectedRows()).isEqualTo(1L);
+        assertThat(second.toCompletableFuture().join().affectedRows()).isEqualTo(2L);
+        assertThat(other.toCompletableFuture().join().affectedRows()).isEqualTo(3L);
+        // a single update is not executed as a batch
+        assertThat(this.batches).containsExactly(2);
+    }
+
+    @Test
+    void removeUnusedGroups() throws InterruptedException {
+        var batcher = batcher(Duration.ofMillis(50), 2);
+
+        batcher.update("insert", 1);
+        var insert = batcher.update("insert", 2);
+        var update = batcher.update("update", 3);
+        assertThat(batcher.groups()).isEqualTo(2);
+        assertThat(insert.toCompletableFuture().join().affectedRows()).isEqualTo(2L);
+        assertThat(update.toCompletableFuture().join().affectedRows()).isEqualTo(3L);
+
+        // the timers find no pending updates
+        for (int i = 0; i < 100 && batcher.groups() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(batcher.groups()).isZero();
+        assertThat(batcher.update("insert", 4).toCompletableFuture().join().affectedRows()).isEqualTo(4L);
+    }
+
+    @Test
+    void isolateFailingUpdates() {
+        var batcher = batcher(Duration.ofMinutes(1), 100);
+
+        var success = batcher.update("insert", 1);
+        var failure = batcher.update("insert", -1);
+        batcher.flush();
+
+        assertThat(success.toCompletableFuture().join().affectedRows()).isEqualTo(1L);
+        assertThatThrownBy(() -> failure.toCompletableFuture().join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("invalid -1");
+        assertThat(this.batches).isEmpty();
+    }
+
+    @Test
+    void allowNullParams() {
+        var batcher = batcher(Duration.ofMinutes(1), 1);
+
+        assertThat(batcher.update("insert", 1, null).toCompletableFuture().join().affectedRows()).isEqualTo(1L);
+    }
+
+    private WriteBatcher batcher(Duration maxDelay, int maxRows) {
+        return new WriteBatcher(null, maxDelay, maxRows, this.executor) {
+            @Override
+            <R> List<R> runBatch(Group<R> group, List<List<?>> params) {
+                var results = new ArrayList<R>();
+                for (var param : params) {
+                    results.add(runSingle(group, param));
+                }
+                WriteBatcherTest.this.batches.add(params.size());
+                return results;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            <R> R runSingle(Group<R> group, List<?> params) {
+                var value = (Integer) params.get(0);
+                if (value < 0) {
+                    throw new IllegalArgumentException("invalid " + value);
+                }
+                return (R) (UpdateResult) () -> (long) value;
+            }
+        };
+    }
+}